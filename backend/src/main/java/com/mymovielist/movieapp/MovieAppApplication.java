@@ -2,8 +2,10 @@ package com.mymovielist.movieapp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class MovieAppApplication {
     public static void main(String[] args) {
         SpringApplication.run(MovieAppApplication.class, args);
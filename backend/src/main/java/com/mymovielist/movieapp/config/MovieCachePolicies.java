@@ -0,0 +1,75 @@
+package com.mymovielist.movieapp.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cache-Control for each /api/movies endpoint. None of them is per-user, so all are
+ * public and a CDN can serve repeats. max-age follows how often the data changes,
+ * and stale-while-revalidate lets the edge keep answering while it revalidates
+ * (usually a 304) in the background.
+ */
+@Component
+public class MovieCachePolicies {
+
+    private final CacheControl details;
+    private final CacheControl videos;
+    private final CacheControl search;
+    private final CacheControl trending;
+    private final CacheControl stats;
+    private final CacheControl similar;
+
+    @Autowired
+    public MovieCachePolicies(
+            @Value("${movies.http.cache.details.max-age:PT1H}") Duration detailsMaxAge,
+            @Value("${movies.http.cache.details.stale-while-revalidate:P1D}") Duration detailsStale,
+            @Value("${movies.http.cache.videos.max-age:PT1H}") Duration videosMaxAge,
+            @Value("${movies.http.cache.videos.stale-while-revalidate:P1D}") Duration videosStale,
+            @Value("${movies.http.cache.search.max-age:PT5M}") Duration searchMaxAge,
+            @Value("${movies.http.cache.search.stale-while-revalidate:PT1H}") Duration searchStale,
+            @Value("${movies.http.cache.trending.max-age:PT5M}") Duration trendingMaxAge,
+            @Value("${movies.http.cache.trending.stale-while-revalidate:PT30M}") Duration trendingStale,
+            @Value("${movies.http.cache.stats.max-age:PT30S}") Duration statsMaxAge,
+            @Value("${movies.http.cache.stats.stale-while-revalidate:PT5M}") Duration statsStale,
+            @Value("${movies.http.cache.similar.max-age:PT1H}") Duration similarMaxAge,
+            @Value("${movies.http.cache.similar.stale-while-revalidate:PT6H}") Duration similarStale) {
+        this.details = policy(detailsMaxAge, detailsStale);
+        this.videos = policy(videosMaxAge, videosStale);
+        this.search = policy(searchMaxAge, searchStale);
+        this.trending = policy(trendingMaxAge, trendingStale);
+        this.stats = policy(statsMaxAge, statsStale);
+        this.similar = policy(similarMaxAge, similarStale);
+    }
+
+    private static CacheControl policy(Duration maxAge, Duration staleWhileRevalidate) {
+        return CacheControl.maxAge(maxAge).cachePublic().staleWhileRevalidate(staleWhileRevalidate);
+    }
+
+    public CacheControl details() {
+        return details;
+    }
+
+    public CacheControl videos() {
+        return videos;
+    }
+
+    public CacheControl search() {
+        return search;
+    }
+
+    public CacheControl trending() {
+        return trending;
+    }
+
+    public CacheControl stats() {
+        return stats;
+    }
+
+    public CacheControl similar() {
+        return similar;
+    }
+}
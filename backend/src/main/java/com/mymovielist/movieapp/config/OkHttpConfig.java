@@ -1,14 +1,68 @@
 package com.mymovielist.movieapp.config;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import com.mymovielist.movieapp.service.VirtualThreads;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class OkHttpConfig {
 
+    @Value("${tmdb.http.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${tmdb.http.read-timeout:5s}")
+    private Duration readTimeout;
+
+    @Value("${tmdb.http.call-timeout:8s}")
+    private Duration callTimeout;
+
+    @Value("${tmdb.http.max-idle-connections:32}")
+    private int maxIdleConnections;
+
+    @Value("${tmdb.http.keep-alive:5m}")
+    private Duration keepAlive;
+
+    @Value("${tmdb.http.max-requests:256}")
+    private int maxRequests;
+
+    @Value("${tmdb.http.max-requests-per-host:128}")
+    private int maxRequestsPerHost;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // One client for the whole application so every TMDB call shares the same
+    // connection pool, dispatcher and negotiated HTTP/2 connections.
     @Bean
     public OkHttpClient okHttpClient() {
-        return new OkHttpClient();
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        // OkHttp 4's HTTP/2 streams wait for frames inside synchronized blocks, which
+        // pins the carrier of every virtual thread waiting on TMDB. HTTP/1.1 reads the
+        // socket without holding a monitor, so virtual-thread mode uses it instead.
+        List<Protocol> protocols = VirtualThreads.use(virtualThreads)
+                ? List.of(Protocol.HTTP_1_1)
+                : List.of(Protocol.HTTP_2, Protocol.HTTP_1_1);
+
+        return new OkHttpClient.Builder()
+                .protocols(protocols)
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .callTimeout(callTimeout)
+                .retryOnConnectionFailure(true)
+                .build();
     }
-}
\ No newline at end of file
+}
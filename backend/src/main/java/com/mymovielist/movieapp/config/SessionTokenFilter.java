@@ -0,0 +1,96 @@
+package com.mymovielist.movieapp.config;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.mymovielist.movieapp.model.SessionPrincipal;
+import com.mymovielist.movieapp.service.SessionContext;
+import com.mymovielist.movieapp.service.SessionTokenService;
+
+/**
+ * Verifies the {@code Authorization: Bearer} session token locally and, when it
+ * belongs to the user named in an {@code /api/users/{username}/...} path, stores
+ * the caller so UserService can use the user ID from the token instead of looking
+ * the username up. With {@code auth.token.required=true} a bad token is rejected
+ * with 401 and user-scoped paths also need a token for that same user. Otherwise a
+ * token that doesn't verify (expired, or signed by an instance with another key) is
+ * ignored, and the request goes on as if it had none.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+    static final String BEARER = "Bearer ";
+    static final String USER_PATH = "/api/users/{username}/**";
+    // First segments under /api/users that are not usernames
+    static final Set<String> RESERVED = Set.of(
+        "register", "login", "all", "export", "purge", "migrations", "trending");
+
+    private final SessionTokenService tokenService;
+    private final boolean required;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    @Autowired
+    public SessionTokenFilter(SessionTokenService tokenService, @Value("${auth.token.required:false}") boolean required) {
+        this.tokenService = tokenService;
+        this.required = required;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (HttpMethod.OPTIONS.matches(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Optional<SessionPrincipal> principal = Optional.empty();
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER)) {
+            principal = tokenService.verify(header.substring(BEARER.length()).trim());
+            if (principal.isEmpty() && required) {
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired session token");
+                return;
+            }
+        }
+
+        String username = pathUsername(request);
+        if (username != null) {
+            if (principal.isPresent() && principal.get().getUsername().equals(username)) {
+                request.setAttribute(SessionContext.PRINCIPAL_ATTRIBUTE, principal.get());
+            } else if (required) {
+                response.sendError(principal.isPresent() ? HttpServletResponse.SC_FORBIDDEN : HttpServletResponse.SC_UNAUTHORIZED);
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    private String pathUsername(HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        if (!pathMatcher.match(USER_PATH, path)) {
+            return null;
+        }
+        Map<String, String> variables = pathMatcher.extractUriTemplateVariables(USER_PATH, path);
+        String username = variables.get("username");
+        return RESERVED.contains(username) ? null : username;
+    }
+}
@@ -0,0 +1,35 @@
+package com.mymovielist.movieapp.config;
+
+import com.mymovielist.movieapp.service.TmdbWarmupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * "tmdbWarmup" health: OUT_OF_SERVICE until enough of the hot set is cached. Part
+ * of the readiness group, so /actuator/health/readiness keeps a fresh instance out
+ * of rotation while it warms up.
+ */
+@Component
+public class TmdbWarmupHealthIndicator implements HealthIndicator {
+
+    private final TmdbWarmupService warmupService;
+
+    @Autowired
+    public TmdbWarmupHealthIndicator(TmdbWarmupService warmupService) {
+        this.warmupService = warmupService;
+    }
+
+    @Override
+    public Health health() {
+        TmdbWarmupService.Progress progress = warmupService.progress();
+        Health.Builder health = warmupService.isReady() ? Health.up() : Health.outOfService();
+        return health
+                .withDetail("hotSet", progress.hotSet())
+                .withDetail("cached", progress.cached())
+                .withDetail("failed", progress.failed())
+                .withDetail("running", progress.running())
+                .build();
+    }
+}
@@ -1,122 +1,157 @@
 package com.mymovielist.movieapp.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.mymovielist.movieapp.model.Movie;
+import com.mymovielist.movieapp.config.MovieCachePolicies;
+import com.mymovielist.movieapp.model.MovieNeighbours.Neighbour;
+import com.mymovielist.movieapp.model.MovieStats;
+import com.mymovielist.movieapp.model.TmdbPayload;
+import com.mymovielist.movieapp.service.JsonFieldProjector;
 import com.mymovielist.movieapp.service.MovieService;
-
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
+import com.mymovielist.movieapp.service.RecommendationService;
+import com.mymovielist.movieapp.service.TmdbResponseException;
+import com.mymovielist.movieapp.service.TmdbUnavailableException;
+import com.mymovielist.movieapp.service.TrendingSnapshotService;
+import com.mymovielist.movieapp.service.WatchlistAnalyticsIndex;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/movies")
 public class MovieController {
 
     @Autowired
     private MovieService movieService;
 
+    @Autowired
+    private TrendingSnapshotService trendingSnapshotService;
+
+    @Autowired
+    private JsonFieldProjector jsonFieldProjector;
+
+    @Autowired
+    private WatchlistAnalyticsIndex watchlistAnalyticsIndex;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private MovieCachePolicies cachePolicies;
+
     @GetMapping("/search")
-    public ResponseEntity<Map<String, Object>> searchMovies(@RequestParam String query) {
-        String apiKey = "e43f973af82ec44359fdd966c0401d8f";
-        String url = String.format("https://api.themoviedb.org/3/search/movie?api_key=%s&query=%s", apiKey, query);
-    
-        OkHttpClient client = new OkHttpClient();
-        Request request = new Request.Builder()
-            .url(url)
-            .build();
-    
+    public ResponseEntity<?> searchMovies(@RequestParam String query, @RequestParam(required = false) String fields,
+                                          WebRequest request) {
         try {
-            Response response = client.newCall(request).execute();
-            if (!response.isSuccessful()) {
-                throw new IOException("Unexpected code " + response);
-            }
-            String jsonData = response.body().string();
-            ObjectMapper mapper = new ObjectMapper();
-            Map<String, Object> map = mapper.readValue(jsonData, Map.class);
-            return ResponseEntity.ok(map);
-        } catch (IOException e) {
+            return passthrough(movieService.searchMovies(query), fields, cachePolicies.search(), request);
+        } catch (IOException | RuntimeException e) {
             e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            return failure(e)
                 .body(Map.of("message", "Error searching for movie: " + e.getMessage()));
         }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getMovieDetails(@PathVariable String id) {
-        String apiKey = "e43f973af82ec44359fdd966c0401d8f";
-        String url = String.format("https://api.themoviedb.org/3/movie/%s?api_key=%s", id, apiKey);
-
-        OkHttpClient client = new OkHttpClient();
-        Request request = new Request.Builder()
-            .url(url)
-            .build();
-
+    public ResponseEntity<?> getMovieDetails(@PathVariable String id, @RequestParam(required = false) String fields,
+                                             WebRequest request) {
         try {
-            Response response = client.newCall(request).execute();
-            String jsonData = response.body().string();
-            ObjectMapper mapper = new ObjectMapper();
-            Map<String, Object> map = mapper.readValue(jsonData, Map.class);
-            return ResponseEntity.ok(map);
-        } catch (IOException e) {
+            return passthrough(movieService.getMovieDetails(id), fields, cachePolicies.details(), request);
+        } catch (IOException | RuntimeException e) {
             e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return failure(e).build();
         }
     }
 
     @GetMapping("/trending")
-    public ResponseEntity<Map<String, Object>> getTrendingMovies() {
-        String apiKey = "e43f973af82ec44359fdd966c0401d8f";
-        String url = String.format("https://api.themoviedb.org/3/trending/movie/week?api_key=%s", apiKey);
-
-        OkHttpClient client = new OkHttpClient();
-        Request request = new Request.Builder()
-            .url(url)
-            .build();
+    public ResponseEntity<?> getTrendingMovies() {
+        // Served from the in-memory snapshot; ETag/Last-Modified let Spring answer 304s
+        return trendingSnapshotService.current()
+            .<ResponseEntity<?>>map(snapshot -> ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.getEtag())
+                .lastModified(snapshot.getFetchedAt())
+                .cacheControl(cachePolicies.trending())
+                .body(snapshot.getBody()))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("message", "Error fetching trending movies")));
+    }
 
+    @GetMapping("/{id}/videos")
+    public ResponseEntity<?> getMovieVideos(@PathVariable String id, @RequestParam(required = false) String fields,
+                                            WebRequest request) {
         try {
-            Response response = client.newCall(request).execute();
-            if (!response.isSuccessful()) {
-                throw new IOException("Unexpected code " + response);
-            }
-            String jsonData = response.body().string();
-            ObjectMapper mapper = new ObjectMapper();
-            Map<String, Object> map = mapper.readValue(jsonData, Map.class);
-            return ResponseEntity.ok(map);
-        } catch (IOException e) {
+            return passthrough(movieService.getMovieVideos(id), fields, cachePolicies.videos(), request);
+        } catch (IOException | RuntimeException e) {
             e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("message", "Error fetching trending movies: " + e.getMessage()));
+            return failure(e).build();
         }
     }
 
-    @GetMapping("/{id}/videos")
-    public ResponseEntity<Map<String, Object>> getMovieVideos(@PathVariable String id) {
-        String apiKey = "e43f973af82ec44359fdd966c0401d8f";
-        String url = String.format("https://api.themoviedb.org/3/movie/%s/videos?api_key=%s", id, apiKey);
+    // Watchers, average score, score histogram and status breakdown across all users
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<MovieStats> getMovieStats(@PathVariable String id) {
+        return ResponseEntity.ok()
+            .cacheControl(cachePolicies.stats())
+            .body(watchlistAnalyticsIndex.stats(id));
+    }
 
-        OkHttpClient client = new OkHttpClient();
-        Request request = new Request.Builder()
-            .url(url)
-            .build();
+    // Movies most often scored alike by the same users, from the last batch run
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<Neighbour>> getSimilarMovies(@PathVariable String id) {
+        return ResponseEntity.ok()
+            .cacheControl(cachePolicies.similar())
+            .body(recommendationService.similar(id));
+    }
 
-        try {
-            Response response = client.newCall(request).execute();
-            String jsonData = response.body().string();
-            ObjectMapper mapper = new ObjectMapper();
-            Map<String, Object> map = mapper.readValue(jsonData, Map.class);
-            return ResponseEntity.ok(map);
-        } catch (IOException e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    // 503 with Retry-After while TMDB calls are being refused, 504 when TMDB timed out,
+    // 404 when TMDB doesn't know the ID; anything else is still a 500. ReactiveMovieController
+    // answers the same way.
+    static ResponseEntity.BodyBuilder failure(Throwable e) {
+        Throwable cause = e instanceof RuntimeException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof TmdbUnavailableException unavailable) {
+            long retryAfter = Math.max(1, (unavailable.getRetryAfter().toMillis() + 999) / 1000);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        }
+        if (cause instanceof InterruptedIOException) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT);
+        }
+        if (cause instanceof TmdbResponseException response && response.getCode() == HttpStatus.NOT_FOUND.value()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    // Writes the upstream bytes as-is (or a projection of them) instead of
+    // parsing into a Map and letting Jackson serialize it again. A matching
+    // If-None-Match is answered with 304 before anything is projected.
+    private ResponseEntity<byte[]> passthrough(TmdbPayload payload, String fields, CacheControl cacheControl,
+                                               WebRequest request) throws IOException {
+        boolean projected = fields != null && !fields.isBlank();
+        String etag = projected ? payload.getEtag(fields) : payload.getEtag();
+        if (request.checkNotModified(etag, payload.getFetchedAt().toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .build();
         }
+        byte[] body = projected ? jsonFieldProjector.project(payload.getBody(), fields) : payload.getBody();
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .eTag(etag)
+            .lastModified(payload.getFetchedAt())
+            .cacheControl(cacheControl)
+            .body(body);
     }
-}
\ No newline at end of file
+}
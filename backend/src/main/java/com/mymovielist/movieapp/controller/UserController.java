@@ -1,31 +1,82 @@
 package com.mymovielist.movieapp.controller;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mymovielist.movieapp.config.MovieCachePolicies;
+import com.mymovielist.movieapp.model.BackgroundJob;
 import com.mymovielist.movieapp.model.LoginRequest;
 import com.mymovielist.movieapp.model.User;
+import com.mymovielist.movieapp.model.UserPage;
 import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.MovieEntryColumns;
+import com.mymovielist.movieapp.model.MovieEntryPage;
+import com.mymovielist.movieapp.model.Recommendation;
+import com.mymovielist.movieapp.model.SessionPrincipal;
+import com.mymovielist.movieapp.model.WatchlistOperation;
+import com.mymovielist.movieapp.model.WatchlistSort;
+import com.mymovielist.movieapp.service.AuthenticationService;
+import com.mymovielist.movieapp.service.SessionTokenService;
+import com.mymovielist.movieapp.service.TrendingSnapshotService;
+import com.mymovielist.movieapp.service.UserPurgeService;
 import com.mymovielist.movieapp.service.UserService;
-
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
+import com.mymovielist.movieapp.service.WatchlistHydrationService;
+import com.mymovielist.movieapp.service.WatchlistMigrationService;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/users")
 public class UserController {
+    // ?format=columnar on the watchlist: one array per field, see MovieEntryColumns
+    private static final String COLUMNAR = "columnar";
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TrendingSnapshotService trendingSnapshotService;
+
+    @Autowired
+    private WatchlistMigrationService watchlistMigrationService;
+
+    @Autowired
+    private WatchlistHydrationService watchlistHydrationService;
+
+    @Autowired
+    private UserPurgeService userPurgeService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    @Autowired
+    private MovieCachePolicies cachePolicies;
+
+    @Value("${watchlist.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${watchlist.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${users.page.max-size:500}")
+    private int maxUserPageSize;
+
     @PostMapping("/register")
     public ResponseEntity<User> registerUser(@RequestBody User user) {
         User createdUser = userService.createUser(user);
@@ -36,10 +87,13 @@ public class UserController {
     public ResponseEntity<?> addMovieToUser(@PathVariable String username, @RequestBody Map<String, String> payload) {
         String movieId = payload.get("movieId");
         try {
-            Optional<User> updatedUser = userService.addMovieToUser(username, movieId);
-            return updatedUser
-                .map(user -> ResponseEntity.ok().body(Map.of("message", "Movie added successfully", "added", true)))
-                .orElse(ResponseEntity.notFound().build());
+            Optional<Boolean> added = userService.addMovieToUser(username, movieId);
+            if (added.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok().body(added.get()
+                ? Map.of("message", "Movie added successfully", "added", true)
+                : Map.of("message", "Movie is already in the list", "added", false));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -47,16 +101,103 @@ public class UserController {
         }
     }
 
+    @PostMapping("/{username}/movies/batch")
+    public ResponseEntity<?> applyWatchlistBatch(@PathVariable String username, @RequestBody List<WatchlistOperation> operations) {
+        if (operations.size() > maxBatchSize) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("message", "Batch too large, at most " + maxBatchSize + " operations are allowed"));
+        }
+        return userService.applyWatchlistBatch(username, operations)
+            .<ResponseEntity<?>>map(results -> ResponseEntity.ok().body(Map.of("results", results)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/{username}/movies")
-    public ResponseEntity<List<MovieEntry>> getUserMovies(@PathVariable String username) {
-        List<MovieEntry> movieEntries = userService.getUserMovies(username);
-        return ResponseEntity.ok(movieEntries);
+    public ResponseEntity<?> getUserMovies(
+        @PathVariable String username,
+        @RequestParam(required = false) String status,
+        @RequestParam(required = false) String sort,
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) String format
+    ) {
+        boolean columnar = COLUMNAR.equals(format);
+        if (format != null && !columnar) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Unknown format: " + format));
+        }
+        try {
+            WatchlistSort order = WatchlistSort.fromValue(sort);
+            if (limit == null) {
+                // Unpaged form kept for existing clients: a plain array of entries
+                List<MovieEntry> movieEntries = userService.getUserMovies(username, status, order);
+                return ResponseEntity.ok(columnar ? MovieEntryColumns.of(movieEntries, null) : movieEntries);
+            }
+            if (limit < 1 || limit > maxPageSize) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("message", "limit must be between 1 and " + maxPageSize));
+            }
+            MovieEntryPage page = userService.getUserMoviesPage(username, status, order, cursor, limit);
+            return ResponseEntity.ok(columnar ? MovieEntryColumns.of(page.getEntries(), page.getNextCursor()) : page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid sort or cursor: " + e.getMessage()));
+        }
+    }
+
+    // The list joined with title/poster/runtime in one request, streamed as a JSON
+    // array so the first rows go out while slower lookups are still in flight
+    @GetMapping("/{username}/movies/hydrated")
+    public ResponseEntity<StreamingResponseBody> getHydratedUserMovies(
+        @PathVariable String username,
+        @RequestParam(required = false) String status,
+        @RequestParam(required = false) String sort
+    ) {
+        WatchlistSort order;
+        try {
+            order = WatchlistSort.fromValue(sort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sort: " + sort);
+        }
+        List<MovieEntry> movieEntries = userService.getUserMovies(username, status, order);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(out -> watchlistHydrationService.writeHydrated(movieEntries, out));
+    }
+
+    // "Users who liked this also liked", from precomputed movie neighbours
+    @GetMapping("/{username}/recommendations")
+    public ResponseEntity<List<Recommendation>> getRecommendations(
+        @PathVariable String username,
+        @RequestParam(defaultValue = "20") int limit
+    ) {
+        return userService.getRecommendations(username, Math.max(1, limit))
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
     }
 
+    // Keyset-paginated; pass the previous page's nextCursor to continue
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> getAllUsers(
+        @RequestParam(defaultValue = "100") int limit,
+        @RequestParam(required = false) String cursor
+    ) {
+        if (limit < 1 || limit > maxUserPageSize) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("message", "limit must be between 1 and " + maxUserPageSize));
+        }
+        try {
+            UserPage page = userService.getUsersPage(cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid cursor: " + cursor));
+        }
+    }
+
+    // Every user as newline-delimited JSON, streamed straight from a Mongo cursor
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(userService::exportUsers);
     }
 
     @DeleteMapping("/{username}")
@@ -65,28 +206,65 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    // Runs as a throttled background job; poll GET /purge for progress
     @DeleteMapping("/all")
-    public ResponseEntity<Void> deleteAllUsers() {
-        userService.deleteAllUsers();
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<BackgroundJob> deleteAllUsers() {
+        return ResponseEntity.accepted().body(userPurgeService.start());
+    }
+
+    @GetMapping("/purge")
+    public ResponseEntity<BackgroundJob> getUserPurge() {
+        return userPurgeService.status()
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
     }
 
+    @PostMapping("/purge/cancel")
+    public ResponseEntity<BackgroundJob> cancelUserPurge() {
+        return userPurgeService.cancel()
+            .map(job -> ResponseEntity.accepted().body(job))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    // The hash check runs on the authentication pool; the request thread is released
+    // while it waits, and a full pool answers 503 straight away
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
-        User user = userService.authenticateUser(loginRequest.getUsername(), loginRequest.getPassword());
-        if (user != null) {
-            return ResponseEntity.ok().body(Map.of("success", true, "username", user.getUsername()));
-        } else {
-            return ResponseEntity.badRequest().body(Map.of("success", false, "message", "Invalid credentials"));
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest loginRequest) {
+        String username = loginRequest.getUsername();
+        if (username == null || loginRequest.getPassword() == null) {
+            return CompletableFuture.completedFuture(invalidCredentials());
+        }
+        try {
+            return authenticationService.authenticate(username, loginRequest.getPassword())
+                .<ResponseEntity<?>>thenApply(userId -> userId.isPresent()
+                    ? loggedIn(sessionTokenService.principal(userId.get(), username))
+                    : invalidCredentials());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("success", false, "message", "Too many login attempts, try again shortly")));
         }
     }
+
+    // The token goes in "Authorization: Bearer" on later requests
+    private ResponseEntity<?> loggedIn(SessionPrincipal principal) {
+        return ResponseEntity.ok().body(Map.of(
+            "success", true,
+            "username", principal.getUsername(),
+            "token", sessionTokenService.issue(principal),
+            "expiresAt", principal.getExpiresAt()));
+    }
+
+    private static ResponseEntity<?> invalidCredentials() {
+        return ResponseEntity.badRequest().body(Map.of("success", false, "message", "Invalid credentials"));
+    }
     
     @DeleteMapping("/{username}/movies/{movieId}")
     public ResponseEntity<?> removeMovieFromUser(@PathVariable String username, @PathVariable String movieId) {
-        Optional<User> updatedUser = userService.removeMovieFromUser(username, movieId);
-        return updatedUser
-            .map(ResponseEntity::ok)
-            .orElse(ResponseEntity.notFound().build());
+        if (!userService.removeMovieFromUser(username, movieId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().body(Map.of("message", "Movie removed successfully"));
     }
 
     @PutMapping("/{username}/movies/{movieId}")
@@ -98,10 +276,10 @@ public class UserController {
         try {
             String status = (String) updates.get("status");
             Double score = ((Number) updates.get("score")).doubleValue();
-            Optional<User> updatedUser = userService.updateUserMovie(username, movieId, status, score);
-            return updatedUser
-                .map(user -> ResponseEntity.ok().body(Map.of("message", "Movie updated successfully")))
-                .orElse(ResponseEntity.notFound().build());
+            if (!userService.updateUserMovie(username, movieId, status, score)) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok().body(Map.of("message", "Movie updated successfully"));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -109,29 +287,28 @@ public class UserController {
         }
     }
 
-    @GetMapping("/trending")
-    public ResponseEntity<Map<String, Object>> getTrendingMovies() {
-        String apiKey = "e43f973af82ec44359fdd966c0401d8f";
-        String url = String.format("https://api.themoviedb.org/3/trending/movie/week?api_key=%s", apiKey);
+    @PostMapping("/migrations/watchlist")
+    public ResponseEntity<BackgroundJob> startWatchlistMigration() {
+        return ResponseEntity.accepted().body(watchlistMigrationService.start());
+    }
 
-        OkHttpClient client = new OkHttpClient();
-        Request request = new Request.Builder()
-            .url(url)
-            .build();
+    @GetMapping("/migrations/watchlist")
+    public ResponseEntity<BackgroundJob> getWatchlistMigration() {
+        return watchlistMigrationService.status()
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
 
-        try {
-            Response response = client.newCall(request).execute();
-            if (!response.isSuccessful()) {
-                throw new IOException("Unexpected code " + response);
-            }
-            String jsonData = response.body().string();
-            ObjectMapper mapper = new ObjectMapper();
-            Map<String, Object> map = mapper.readValue(jsonData, Map.class);
-            return ResponseEntity.ok(map);
-        } catch (IOException e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("message", "Error fetching trending movies: " + e.getMessage()));
-        }
+    @GetMapping("/trending")
+    public ResponseEntity<?> getTrendingMovies() {
+        return trendingSnapshotService.current()
+            .<ResponseEntity<?>>map(snapshot -> ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.getEtag())
+                .lastModified(snapshot.getFetchedAt())
+                .cacheControl(cachePolicies.trending())
+                .body(snapshot.getBody()))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("message", "Error fetching trending movies")));
     }
 }
@@ -0,0 +1,104 @@
+package com.mymovielist.movieapp.model;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a long-running maintenance job. Written by the job's worker thread
+ * and read by the status endpoint, so every field is safe to read concurrently.
+ */
+public class BackgroundJob {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String type;
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong processed = new AtomicLong();
+    private volatile long total;
+    private volatile State state = State.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile boolean cancelRequested;
+
+    public BackgroundJob(String type) {
+        this.type = type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /** Asks the worker to stop; it finishes the current batch and then marks the job cancelled. */
+    public void requestCancel() {
+        cancelRequested = true;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public void addProcessed(long count) {
+        processed.addAndGet(count);
+    }
+
+    public void complete() {
+        finish(State.COMPLETED, null);
+    }
+
+    public void fail(String error) {
+        finish(State.FAILED, error);
+    }
+
+    public void cancel() {
+        finish(State.CANCELLED, null);
+    }
+
+    private void finish(State state, String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.state = state;
+    }
+}
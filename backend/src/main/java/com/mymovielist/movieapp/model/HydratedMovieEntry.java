@@ -0,0 +1,89 @@
+package com.mymovielist.movieapp.model;
+
+/**
+ * A watchlist entry joined with the TMDB metadata needed to render it. When the
+ * details lookup fails the metadata fields are null and {@code hydrated} is false.
+ */
+public class HydratedMovieEntry {
+    private final String movieId;
+    private final String status;
+    private final Double score;
+    private final String title;
+    private final String originalTitle;
+    private final String posterPath;
+    private final Integer runtime;
+    private final String releaseDate;
+    private final String country;
+    private final String genre;
+    private final boolean hydrated;
+
+    public HydratedMovieEntry(MovieEntry entry, String title, String originalTitle, String posterPath, Integer runtime,
+                              String releaseDate, String country, String genre) {
+        this(entry, title, originalTitle, posterPath, runtime, releaseDate, country, genre, true);
+    }
+
+    private HydratedMovieEntry(MovieEntry entry, String title, String originalTitle, String posterPath, Integer runtime,
+                               String releaseDate, String country, String genre, boolean hydrated) {
+        this.movieId = entry.getMovieId();
+        this.status = entry.getStatus();
+        this.score = entry.getScore();
+        this.title = title;
+        this.originalTitle = originalTitle;
+        this.posterPath = posterPath;
+        this.runtime = runtime;
+        this.releaseDate = releaseDate;
+        this.country = country;
+        this.genre = genre;
+        this.hydrated = hydrated;
+    }
+
+    public static HydratedMovieEntry unavailable(MovieEntry entry) {
+        return new HydratedMovieEntry(entry, null, null, null, null, null, null, null, false);
+    }
+
+    public String getMovieId() {
+        return movieId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getOriginalTitle() {
+        return originalTitle;
+    }
+
+    public String getPosterPath() {
+        return posterPath;
+    }
+
+    public Integer getRuntime() {
+        return runtime;
+    }
+
+    public String getReleaseDate() {
+        return releaseDate;
+    }
+
+    // ISO 3166-1 code of the first production country
+    public String getCountry() {
+        return country;
+    }
+
+    // Name of the first genre
+    public String getGenre() {
+        return genre;
+    }
+
+    public boolean isHydrated() {
+        return hydrated;
+    }
+}
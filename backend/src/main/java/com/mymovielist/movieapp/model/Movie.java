@@ -1,15 +1,139 @@
 package com.mymovielist.movieapp.model;
 
+import java.time.Instant;
+
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+/**
+ * Local catalog copy of a TMDB movie. The raw details response is kept as-is so it
+ * can be served exactly like an upstream response; the extracted fields are there
+ * for querying. {@code version} is bumped only when the upstream content changes,
+ * while {@code fetchedAt} moves on every successful refresh.
+ */
 @Document(collection = "movies")
 public class Movie {
     @Id
     private String id;
     private String title;
+    private String originalTitle;
     private String overview;
-    // Add other fields as needed
+    private String releaseDate;
+    private String posterPath;
+    private Double popularity;
+    private byte[] details;
+    private String etag;
+    private long version;
+    private Instant createdAt;
+    private Instant fetchedAt;
+    private Instant refreshAfter;
+
+    public TmdbPayload toPayload() {
+        return new TmdbPayload(details, fetchedAt);
+    }
 
     // Getters and setters
-}
\ No newline at end of file
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getOriginalTitle() {
+        return originalTitle;
+    }
+
+    public void setOriginalTitle(String originalTitle) {
+        this.originalTitle = originalTitle;
+    }
+
+    public String getOverview() {
+        return overview;
+    }
+
+    public void setOverview(String overview) {
+        this.overview = overview;
+    }
+
+    public String getReleaseDate() {
+        return releaseDate;
+    }
+
+    public void setReleaseDate(String releaseDate) {
+        this.releaseDate = releaseDate;
+    }
+
+    public String getPosterPath() {
+        return posterPath;
+    }
+
+    public void setPosterPath(String posterPath) {
+        this.posterPath = posterPath;
+    }
+
+    public Double getPopularity() {
+        return popularity;
+    }
+
+    public void setPopularity(Double popularity) {
+        this.popularity = popularity;
+    }
+
+    public byte[] getDetails() {
+        return details;
+    }
+
+    public void setDetails(byte[] details) {
+        this.details = details;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public void setFetchedAt(Instant fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+
+    public Instant getRefreshAfter() {
+        return refreshAfter;
+    }
+
+    public void setRefreshAfter(Instant refreshAfter) {
+        this.refreshAfter = refreshAfter;
+    }
+}
@@ -4,6 +4,8 @@ public class MovieEntry {
     private String movieId;
     private String status;
     private Double score;
+    // When the entry was added, in epoch milliseconds; the stable key for "added" order
+    private Long addedAt;
 
     // Constructor
     public MovieEntry(String movieId, String status, Double score) {
@@ -25,6 +27,10 @@ public class MovieEntry {
         return score;
     }
 
+    public Long getAddedAt() {
+        return addedAt;
+    }
+
     // Setters
     public void setMovieId(String movieId) {
         this.movieId = movieId;
@@ -37,4 +43,8 @@ public class MovieEntry {
     public void setScore(Double score) {
         this.score = score;
     }
+
+    public void setAddedAt(Long addedAt) {
+        this.addedAt = addedAt;
+    }
 }
@@ -0,0 +1,68 @@
+package com.mymovielist.movieapp.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Watchlist entries laid out by column, for ?format=columnar: one array per field
+ * instead of an object per entry, so the keys are written once. Statuses are
+ * dictionary-encoded: {@code status} holds an index into {@code statuses}, or -1
+ * for an entry without one.
+ */
+public class MovieEntryColumns {
+    private final List<String> movieId;
+    private final int[] status;
+    private final List<String> statuses;
+    private final List<Double> score;
+    private final String nextCursor;
+
+    private MovieEntryColumns(List<String> movieId, int[] status, List<String> statuses, List<Double> score,
+                              String nextCursor) {
+        this.movieId = movieId;
+        this.status = status;
+        this.statuses = statuses;
+        this.score = score;
+        this.nextCursor = nextCursor;
+    }
+
+    public static MovieEntryColumns of(List<MovieEntry> entries, String nextCursor) {
+        List<String> movieIds = new ArrayList<>(entries.size());
+        int[] codes = new int[entries.size()];
+        List<String> statuses = new ArrayList<>();
+        Map<String, Integer> statusCodes = new HashMap<>();
+        List<Double> scores = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            MovieEntry entry = entries.get(i);
+            movieIds.add(entry.getMovieId());
+            codes[i] = entry.getStatus() == null ? -1 : statusCodes.computeIfAbsent(entry.getStatus(), status -> {
+                statuses.add(status);
+                return statuses.size() - 1;
+            });
+            scores.add(entry.getScore());
+        }
+        return new MovieEntryColumns(movieIds, codes, statuses, scores, nextCursor);
+    }
+
+    public List<String> getMovieId() {
+        return movieId;
+    }
+
+    public int[] getStatus() {
+        return status;
+    }
+
+    public List<String> getStatuses() {
+        return statuses;
+    }
+
+    public List<Double> getScore() {
+        return score;
+    }
+
+    // Null for an unpaged list, or when this is the last page
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
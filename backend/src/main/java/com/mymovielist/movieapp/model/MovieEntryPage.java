@@ -0,0 +1,22 @@
+package com.mymovielist.movieapp.model;
+
+import java.util.List;
+
+public class MovieEntryPage {
+    private final List<MovieEntry> entries;
+    private final String nextCursor;
+
+    public MovieEntryPage(List<MovieEntry> entries, String nextCursor) {
+        this.entries = entries;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<MovieEntry> getEntries() {
+        return entries;
+    }
+
+    // Null when this is the last page
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,82 @@
+package com.mymovielist.movieapp.model;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The movies most similar to one movie, by cosine similarity of the scores users
+ * gave them, as of the last recommendation batch run.
+ */
+@Document(collection = "movie_neighbours")
+public class MovieNeighbours {
+    @Id
+    private String movieId;
+    private List<Neighbour> neighbours;
+    private Instant computedAt;
+
+    public MovieNeighbours() {
+    }
+
+    public MovieNeighbours(String movieId, List<Neighbour> neighbours, Instant computedAt) {
+        this.movieId = movieId;
+        this.neighbours = neighbours;
+        this.computedAt = computedAt;
+    }
+
+    public static class Neighbour {
+        private String movieId;
+        private double similarity;
+
+        public Neighbour() {
+        }
+
+        public Neighbour(String movieId, double similarity) {
+            this.movieId = movieId;
+            this.similarity = similarity;
+        }
+
+        public String getMovieId() {
+            return movieId;
+        }
+
+        public void setMovieId(String movieId) {
+            this.movieId = movieId;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+
+        public void setSimilarity(double similarity) {
+            this.similarity = similarity;
+        }
+    }
+
+    // Getters and setters
+    public String getMovieId() {
+        return movieId;
+    }
+
+    public void setMovieId(String movieId) {
+        this.movieId = movieId;
+    }
+
+    public List<Neighbour> getNeighbours() {
+        return neighbours;
+    }
+
+    public void setNeighbours(List<Neighbour> neighbours) {
+        this.neighbours = neighbours;
+    }
+
+    public Instant getComputedAt() {
+        return computedAt;
+    }
+
+    public void setComputedAt(Instant computedAt) {
+        this.computedAt = computedAt;
+    }
+}
@@ -0,0 +1,46 @@
+package com.mymovielist.movieapp.model;
+
+import java.util.Map;
+
+/**
+ * Aggregates over every user's watchlist for one movie. Scores of 0 mean "not
+ * rated" and are left out of the average.
+ */
+public class MovieStats {
+    private final String movieId;
+    private final int watchers;
+    private final Double averageScore;
+    private final int[] scoreHistogram;
+    private final Map<String, Integer> statusBreakdown;
+
+    public MovieStats(String movieId, int watchers, Double averageScore, int[] scoreHistogram,
+                      Map<String, Integer> statusBreakdown) {
+        this.movieId = movieId;
+        this.watchers = watchers;
+        this.averageScore = averageScore;
+        this.scoreHistogram = scoreHistogram;
+        this.statusBreakdown = statusBreakdown;
+    }
+
+    public String getMovieId() {
+        return movieId;
+    }
+
+    public int getWatchers() {
+        return watchers;
+    }
+
+    // Null when nobody has rated the movie
+    public Double getAverageScore() {
+        return averageScore;
+    }
+
+    // Index i counts entries whose score rounds to i; index 0 is unrated
+    public int[] getScoreHistogram() {
+        return scoreHistogram;
+    }
+
+    public Map<String, Integer> getStatusBreakdown() {
+        return statusBreakdown;
+    }
+}
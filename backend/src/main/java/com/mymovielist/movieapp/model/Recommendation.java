@@ -0,0 +1,29 @@
+package com.mymovielist.movieapp.model;
+
+/**
+ * A movie suggested to a user, with the movie on their list that contributed
+ * most to the suggestion ("because you rated X highly").
+ */
+public class Recommendation {
+    private final String movieId;
+    private final double score;
+    private final String because;
+
+    public Recommendation(String movieId, double score, String because) {
+        this.movieId = movieId;
+        this.score = score;
+        this.because = because;
+    }
+
+    public String getMovieId() {
+        return movieId;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public String getBecause() {
+        return because;
+    }
+}
@@ -0,0 +1,28 @@
+package com.mymovielist.movieapp.model;
+
+import java.time.Instant;
+
+/** The caller identified by a verified session token. */
+public class SessionPrincipal {
+    private final String userId;
+    private final String username;
+    private final Instant expiresAt;
+
+    public SessionPrincipal(String userId, String username, Instant expiresAt) {
+        this.userId = userId;
+        this.username = username;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
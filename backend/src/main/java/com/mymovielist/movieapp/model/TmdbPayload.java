@@ -0,0 +1,47 @@
+package com.mymovielist.movieapp.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import org.springframework.util.DigestUtils;
+
+/**
+ * An immutable, already-serialized TMDB response body. The ETag is a content
+ * hash computed once when the payload is created, so conditional requests can
+ * be answered without hashing or re-serializing on every read.
+ */
+public final class TmdbPayload {
+    private final byte[] body;
+    private final Instant fetchedAt;
+    private final String etag;
+
+    public TmdbPayload(byte[] body, Instant fetchedAt) {
+        this.body = body;
+        this.fetchedAt = fetchedAt;
+        this.etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+
+    public static TmdbPayload of(String json) {
+        return new TmdbPayload(json.getBytes(StandardCharsets.UTF_8), Instant.now());
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * ETag of a projection of this body onto {@code fields}. It changes only with
+     * the body or the field list, so it is derived from those without projecting.
+     */
+    public String getEtag(String fields) {
+        return "\"" + DigestUtils.md5DigestAsHex((etag + fields).getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -1,5 +1,6 @@
 package com.mymovielist.movieapp.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -14,6 +15,8 @@ public class User {
     private String email;
     @Indexed(unique = true)
     private String username;
+    // Accepted on registration, never serialized back out
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
     private List<MovieEntry> movieEntries;
 
@@ -0,0 +1,22 @@
+package com.mymovielist.movieapp.model;
+
+import java.util.List;
+
+public class UserPage {
+    private final List<UserSummary> users;
+    private final String nextCursor;
+
+    public UserPage(List<UserSummary> users, String nextCursor) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<UserSummary> getUsers() {
+        return users;
+    }
+
+    // Null when this is the last page
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
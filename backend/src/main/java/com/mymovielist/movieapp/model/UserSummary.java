@@ -0,0 +1,30 @@
+package com.mymovielist.movieapp.model;
+
+/** The public fields of a user, without password or watchlist. */
+public class UserSummary {
+    private final String id;
+    private final String username;
+    private final String email;
+
+    public UserSummary(String id, String username, String email) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+    }
+
+    public static UserSummary of(User user) {
+        return new UserSummary(user.getId(), user.getUsername(), user.getEmail());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
@@ -0,0 +1,97 @@
+package com.mymovielist.movieapp.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * One watchlist entry stored as its own document, used when
+ * {@code watchlist.storage=collection} (and written alongside the embedded
+ * array while it is {@code migrating}). "Added" order sorts on addedAt, which
+ * the migration copies from the embedded entry, so copied rows keep the order
+ * they had in the array.
+ */
+@Document(collection = "movie_entries")
+@CompoundIndexes({
+    @CompoundIndex(name = "user_movie", def = "{'userId': 1, 'movieId': 1}", unique = true),
+    @CompoundIndex(name = "user_status", def = "{'userId': 1, 'status': 1}"),
+    @CompoundIndex(name = "user_score", def = "{'userId': 1, 'score': -1, 'movieId': 1}"),
+    @CompoundIndex(name = "user_added", def = "{'userId': 1, 'addedAt': 1, 'movieId': 1}")
+})
+public class WatchlistEntry {
+    @Id
+    private String id;
+    private String userId;
+    @Indexed
+    private String movieId;
+    private String status;
+    private Double score;
+    private Long addedAt;
+
+    public WatchlistEntry() {
+    }
+
+    public WatchlistEntry(String userId, String movieId, String status, Double score) {
+        this.userId = userId;
+        this.movieId = movieId;
+        this.status = status;
+        this.score = score;
+    }
+
+    // Getters and setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getMovieId() {
+        return movieId;
+    }
+
+    public void setMovieId(String movieId) {
+        this.movieId = movieId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+
+    public Long getAddedAt() {
+        return addedAt;
+    }
+
+    public void setAddedAt(Long addedAt) {
+        this.addedAt = addedAt;
+    }
+
+    public MovieEntry toMovieEntry() {
+        MovieEntry entry = new MovieEntry(movieId, status, score);
+        entry.setAddedAt(addedAt);
+        return entry;
+    }
+}
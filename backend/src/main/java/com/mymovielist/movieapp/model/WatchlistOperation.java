@@ -0,0 +1,65 @@
+package com.mymovielist.movieapp.model;
+
+import java.util.Locale;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+public class WatchlistOperation {
+    public enum Type {
+        ADD, UPDATE, REMOVE;
+
+        @JsonCreator
+        public static Type fromValue(String value) {
+            return Type.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private Type op;
+    private String movieId;
+    private String status;
+    private Double score;
+
+    public WatchlistOperation() {
+    }
+
+    public WatchlistOperation(Type op, String movieId, String status, Double score) {
+        this.op = op;
+        this.movieId = movieId;
+        this.status = status;
+        this.score = score;
+    }
+
+    // Getters
+    public Type getOp() {
+        return op;
+    }
+
+    public String getMovieId() {
+        return movieId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    // Setters
+    public void setOp(Type op) {
+        this.op = op;
+    }
+
+    public void setMovieId(String movieId) {
+        this.movieId = movieId;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+}
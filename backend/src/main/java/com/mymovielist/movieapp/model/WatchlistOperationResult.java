@@ -0,0 +1,29 @@
+package com.mymovielist.movieapp.model;
+
+public class WatchlistOperationResult {
+    public enum Outcome {
+        ADDED, UPDATED, REMOVED, ALREADY_PRESENT, NOT_IN_LIST, INVALID
+    }
+
+    private final int index;
+    private final String movieId;
+    private final Outcome outcome;
+
+    public WatchlistOperationResult(int index, String movieId, Outcome outcome) {
+        this.index = index;
+        this.movieId = movieId;
+        this.outcome = outcome;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getMovieId() {
+        return movieId;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+}
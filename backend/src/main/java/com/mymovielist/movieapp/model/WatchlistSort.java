@@ -0,0 +1,16 @@
+package com.mymovielist.movieapp.model;
+
+import java.util.Locale;
+
+public enum WatchlistSort {
+    ADDED,
+    SCORE_DESC,
+    SCORE_ASC;
+
+    public static WatchlistSort fromValue(String value) {
+        if (value == null || value.isBlank()) {
+            return ADDED;
+        }
+        return WatchlistSort.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
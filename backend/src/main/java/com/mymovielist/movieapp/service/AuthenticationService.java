@@ -0,0 +1,150 @@
+package com.mymovielist.movieapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mymovielist.movieapp.model.User;
+
+/**
+ * Login path kept apart from the watchlist endpoints. Passwords are stored as
+ * bcrypt hashes and only _id and password are read for a login. The
+ * deliberately slow hash check runs on a small bounded pool: when the pool and
+ * its queue are full, extra logins are rejected at once instead of tying up
+ * request threads. A successful login is remembered for a short time as a keyed
+ * digest of the password, so repeated logins with the same credentials skip
+ * both the database and bcrypt.
+ */
+@Service
+public class AuthenticationService {
+
+    private final MongoTemplate mongoTemplate;
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, Verified> verified;
+    private final byte[] digestKey = new byte[32];
+    // Checked when the username doesn't exist, so a miss costs as much as a wrong password
+    private final String dummyHash;
+
+    private record Verified(String userId, byte[] digest) {
+    }
+
+    @Autowired
+    public AuthenticationService(
+            MongoTemplate mongoTemplate,
+            @Value("${auth.bcrypt.strength:10}") int strength,
+            @Value("${auth.verify.threads:0}") int threads,
+            @Value("${auth.verify.queue-capacity:256}") int queueCapacity,
+            @Value("${auth.verified-cache.ttl:PT5M}") Duration verifiedTtl) {
+        this.mongoTemplate = mongoTemplate;
+        this.passwordEncoder = new BCryptPasswordEncoder(strength);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "auth-verify-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        this.verified = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(verifiedTtl)
+            .build();
+        new SecureRandom().nextBytes(digestKey);
+        this.dummyHash = passwordEncoder.encode("dummy-password");
+    }
+
+    public String hash(String password) {
+        return passwordEncoder.encode(password);
+    }
+
+    /**
+     * Completes with the user's ID, or empty for unknown users and wrong passwords.
+     * Fails with a {@link java.util.concurrent.RejectedExecutionException} when too
+     * many checks are already waiting.
+     */
+    public CompletableFuture<Optional<String>> authenticate(String username, String password) {
+        byte[] digest = digest(password);
+        Verified cached = verified.getIfPresent(username);
+        if (cached != null && MessageDigest.isEqual(cached.digest(), digest)) {
+            return CompletableFuture.completedFuture(Optional.of(cached.userId()));
+        }
+
+        Query query = new Query(Criteria.where("username").is(username));
+        query.fields().include("_id").include("password");
+        User user = mongoTemplate.findOne(query, User.class);
+        return CompletableFuture.supplyAsync(() -> {
+            Optional<String> userId = verify(user, password);
+            userId.ifPresent(id -> verified.put(username, new Verified(id, digest)));
+            return userId;
+        }, executor);
+    }
+
+    /** Forgets cached logins, for users that were deleted or changed password. */
+    public void evict(Collection<String> usernames) {
+        verified.invalidateAll(usernames);
+    }
+
+    private Optional<String> verify(User user, String password) {
+        if (user == null || user.getPassword() == null) {
+            passwordEncoder.matches(password, dummyHash);
+            return Optional.empty();
+        }
+        String stored = user.getPassword();
+        if (isHash(stored)) {
+            return passwordEncoder.matches(password, stored) ? Optional.of(user.getId()) : Optional.empty();
+        }
+        // Accounts created before hashing: compare once, then store the hash in its place
+        if (!MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8), password.getBytes(StandardCharsets.UTF_8))) {
+            return Optional.empty();
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(user.getId()).and("password").is(stored)),
+            new Update().set("password", hash(password)), User.class);
+        return Optional.of(user.getId());
+    }
+
+    private static boolean isHash(String stored) {
+        return stored.startsWith("$2a$") || stored.startsWith("$2b$") || stored.startsWith("$2y$");
+    }
+
+    private byte[] digest(String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(digestKey, "HmacSHA256"));
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
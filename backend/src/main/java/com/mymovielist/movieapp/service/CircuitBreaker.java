@@ -0,0 +1,116 @@
+package com.mymovielist.movieapp.service;
+
+/**
+ * Count-based circuit breaker. While CLOSED it tracks the outcome of the last
+ * {@code window} calls and opens once at least {@code minCalls} have completed
+ * and the failure share reaches {@code failureRate}. OPEN refuses every call for
+ * {@code openNanos}, then HALF_OPEN lets {@code trialCalls} through: if all of
+ * them succeed the breaker closes with a clean window, and any failure opens it
+ * again.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final boolean[] failed;
+    private final int minCalls;
+    private final double failureRate;
+    private final long openNanos;
+    private final int trialCalls;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int count;
+    private int failures;
+    private long openedAt;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    CircuitBreaker(int window, int minCalls, double failureRate, long openNanos, int trialCalls) {
+        this.failed = new boolean[window];
+        this.minCalls = minCalls;
+        this.failureRate = failureRate;
+        this.openNanos = openNanos;
+        this.trialCalls = trialCalls;
+    }
+
+    /** Whether a call may go upstream now; a HALF_OPEN breaker counts it as a trial. */
+    synchronized boolean tryAcquire(long now) {
+        if (state == State.OPEN) {
+            if (now - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= trialCalls) {
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++trialsSucceeded >= trialCalls) {
+                close();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    synchronized void onFailure(long now) {
+        if (state == State.HALF_OPEN) {
+            open(now);
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && count >= minCalls && failures >= failureRate * count) {
+            open(now);
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    /** Nanoseconds until an OPEN breaker lets a trial call through; 0 otherwise. */
+    synchronized long remainingOpenNanos(long now) {
+        return state == State.OPEN ? Math.max(0, openNanos - (now - openedAt)) : 0;
+    }
+
+    private void record(boolean failure) {
+        if (count == failed.length) {
+            if (failed[next]) {
+                failures--;
+            }
+        } else {
+            count++;
+        }
+        failed[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % failed.length;
+    }
+
+    private void open(long now) {
+        state = State.OPEN;
+        openedAt = now;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        count = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,238 @@
+package com.mymovielist.movieapp.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import jakarta.annotation.PostConstruct;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.MovieEntryPage;
+import com.mymovielist.movieapp.model.WatchlistEntry;
+import com.mymovielist.movieapp.model.WatchlistSort;
+
+/**
+ * Watchlist entries stored one per document in movie_entries. Every read and
+ * write goes through the (userId, movieId), (userId, status) or (userId, score)
+ * indexes, so cost depends on the page size rather than the length of the list.
+ *
+ * <p>"Added" order uses the row's addedAt stamp through the (userId, addedAt)
+ * index. Rows written before the field existed are stamped at startup with the
+ * creation time of their ObjectId, which is the order they were listed in before.
+ */
+@Component
+@ConditionalOnProperty(name = "watchlist.storage", havingValue = "collection")
+public class CollectionWatchlistStore implements WatchlistStore {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public CollectionWatchlistStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    void createIndexes() {
+        ensureIndexes(mongoTemplate);
+        stampLegacyEntries(mongoTemplate);
+    }
+
+    static void ensureIndexes(MongoTemplate mongoTemplate) {
+        IndexOperations indexOps = mongoTemplate.indexOps(WatchlistEntry.class);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+            .resolveIndexFor(WatchlistEntry.class)
+            .forEach(indexOps::ensureIndex);
+    }
+
+    // ObjectId timestamps only have second precision; ties fall back to movieId
+    static void stampLegacyEntries(MongoTemplate mongoTemplate) {
+        AggregationOperation stamp = context -> new Document("$set",
+            new Document("addedAt", new Document("$toLong", new Document("$toDate", "$_id"))));
+        mongoTemplate.updateMulti(new Query(Criteria.where("addedAt").exists(false)),
+            AggregationUpdate.from(List.of(stamp)), WatchlistEntry.class);
+    }
+
+    @Override
+    public boolean add(String userId, MovieEntry entry) {
+        try {
+            return mongoTemplate.upsert(entryQuery(userId, entry.getMovieId()), insertUpdate(entry), WatchlistEntry.class)
+                .getUpsertedId() != null;
+        } catch (DuplicateKeyException e) {
+            // A concurrent add of the same movie won the race; the entry exists either way
+            return false;
+        }
+    }
+
+    @Override
+    public void update(String userId, String movieId, String status, Double score) {
+        mongoTemplate.updateFirst(entryQuery(userId, movieId), setUpdate(status, score), WatchlistEntry.class);
+    }
+
+    @Override
+    public void remove(String userId, String movieId) {
+        mongoTemplate.remove(entryQuery(userId, movieId), WatchlistEntry.class);
+    }
+
+    @Override
+    public List<MovieEntry> find(String userId, String status, WatchlistSort sort) {
+        Query query = listQuery(userId, status).with(sortFor(sort));
+        return mongoTemplate.find(query, WatchlistEntry.class).stream()
+            .map(WatchlistEntry::toMovieEntry)
+            .toList();
+    }
+
+    @Override
+    public MovieEntryPage findPage(String userId, String status, WatchlistSort sort, String cursor, int limit) {
+        Query query = listQuery(userId, status);
+        if (cursor != null && !cursor.isBlank()) {
+            query.addCriteria(cursorCriteria(cursor, sort));
+        }
+        query.with(sortFor(sort)).limit(limit + 1);
+
+        List<WatchlistEntry> rows = mongoTemplate.find(query, WatchlistEntry.class);
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            WatchlistEntry last = rows.get(limit - 1);
+            nextCursor = sort == WatchlistSort.ADDED
+                ? WatchlistCursors.encodeAdded(last.getAddedAt() == null ? 0L : last.getAddedAt(), last.getMovieId())
+                : WatchlistCursors.encodeScore(last.getScore() == null ? 0.0 : last.getScore(), last.getMovieId());
+        }
+        return new MovieEntryPage(rows.stream().map(WatchlistEntry::toMovieEntry).toList(), nextCursor);
+    }
+
+    @Override
+    public Set<String> findPresent(String userId, Collection<String> movieIds) {
+        Query query = new Query(Criteria.where("userId").is(userId).and("movieId").in(movieIds));
+        query.fields().include("movieId");
+        return mongoTemplate.find(query, WatchlistEntry.class).stream()
+            .map(WatchlistEntry::getMovieId)
+            .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Batch batch(String userId) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, WatchlistEntry.class);
+        return new Batch() {
+            private int writes;
+
+            @Override
+            public void add(MovieEntry entry) {
+                bulk.upsert(entryQuery(userId, entry.getMovieId()), insertUpdate(entry));
+                writes++;
+            }
+
+            @Override
+            public void update(String movieId, String status, Double score) {
+                bulk.updateOne(entryQuery(userId, movieId), setUpdate(status, score));
+                writes++;
+            }
+
+            @Override
+            public void remove(String movieId) {
+                bulk.remove(entryQuery(userId, movieId));
+                writes++;
+            }
+
+            @Override
+            public void execute() {
+                if (writes > 0) {
+                    bulk.execute();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void removeAll(String userId) {
+        mongoTemplate.remove(new Query(Criteria.where("userId").is(userId)), WatchlistEntry.class);
+    }
+
+    @Override
+    public void removeAll(Collection<String> userIds) {
+        mongoTemplate.remove(new Query(Criteria.where("userId").in(userIds)), WatchlistEntry.class);
+    }
+
+    @Override
+    public void forEachEntry(BiConsumer<String, MovieEntry> consumer) {
+        try (Stream<WatchlistEntry> entries = mongoTemplate.stream(new Query(), WatchlistEntry.class)) {
+            entries.forEach(entry -> consumer.accept(entry.getUserId(), entry.toMovieEntry()));
+        }
+    }
+
+    private static Query entryQuery(String userId, String movieId) {
+        return new Query(Criteria.where("userId").is(userId).and("movieId").is(movieId));
+    }
+
+    private static Query listQuery(String userId, String status) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (status != null && !status.isBlank()) {
+            criteria.and("status").is(status);
+        }
+        return new Query(criteria);
+    }
+
+    // $setOnInsert keeps an upsert from overwriting an entry that already exists
+    private static Update insertUpdate(MovieEntry entry) {
+        if (entry.getAddedAt() == null) {
+            entry.setAddedAt(WatchlistClock.next());
+        }
+        return new Update()
+            .setOnInsert("status", entry.getStatus())
+            .setOnInsert("score", entry.getScore() == null ? 0.0 : entry.getScore())
+            .setOnInsert("addedAt", entry.getAddedAt());
+    }
+
+    private static Update setUpdate(String status, Double score) {
+        Update update = new Update();
+        if (status != null) {
+            update.set("status", status);
+        }
+        if (score != null) {
+            update.set("score", score);
+        }
+        return update;
+    }
+
+    private static Sort sortFor(WatchlistSort sort) {
+        return switch (sort) {
+            case SCORE_DESC -> Sort.by(Sort.Order.desc("score"), Sort.Order.asc("movieId"));
+            case SCORE_ASC -> Sort.by(Sort.Order.asc("score"), Sort.Order.asc("movieId"));
+            default -> Sort.by(Sort.Order.asc("addedAt"), Sort.Order.asc("movieId"));
+        };
+    }
+
+    private static Criteria cursorCriteria(String cursor, WatchlistSort sort) {
+        String raw = WatchlistCursors.decode(cursor);
+        if (sort == WatchlistSort.ADDED) {
+            long addedAt = WatchlistCursors.addedAtOf(raw);
+            return new Criteria().orOperator(Criteria.where("addedAt").gt(addedAt),
+                Criteria.where("addedAt").is(addedAt).and("movieId").gt(WatchlistCursors.movieIdOf(raw)));
+        }
+        double score = WatchlistCursors.scoreOf(raw);
+        Criteria beyondScore = sort == WatchlistSort.SCORE_DESC
+            ? Criteria.where("score").lt(score)
+            : Criteria.where("score").gt(score);
+        return new Criteria().orOperator(beyondScore,
+            Criteria.where("score").is(score).and("movieId").gt(WatchlistCursors.movieIdOf(raw)));
+    }
+}
@@ -0,0 +1,271 @@
+package com.mymovielist.movieapp.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+import jakarta.annotation.PostConstruct;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.MovieEntryPage;
+import com.mymovielist.movieapp.model.User;
+import com.mymovielist.movieapp.model.WatchlistSort;
+
+/**
+ * Watchlist entries stored in the User document's movieEntries array. Every
+ * mutation is a single targeted update ($push guarded by $ne, positional $set,
+ * $pull) rather than a load/modify/save of the whole User.
+ *
+ * <p>"Added" order and its page cursors use each entry's addedAt stamp, not its
+ * array position, which shifts whenever an earlier entry is pulled. Entries stored
+ * before the stamp existed are given their array index at startup, which keeps
+ * them in their old order and ahead of every stamped entry.
+ */
+@Component
+@ConditionalOnProperty(name = "watchlist.storage", havingValue = "embedded", matchIfMissing = true)
+public class EmbeddedWatchlistStore implements WatchlistStore {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public EmbeddedWatchlistStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    void stampLegacyEntries() {
+        stampLegacyEntries(mongoTemplate);
+    }
+
+    // One pipeline update per user with unstamped entries; a no-op once all are stamped
+    static void stampLegacyEntries(MongoTemplate mongoTemplate) {
+        Document entry = new Document("$arrayElemAt", List.of("$movieEntries", "$$i"));
+        Document stamped = new Document("$mergeObjects", List.of("$$entry",
+            new Document("addedAt", new Document("$ifNull", List.of("$$entry.addedAt", new Document("$toLong", "$$i"))))));
+        Document entries = new Document("$map", new Document()
+            .append("input", new Document("$range", List.of(0, new Document("$size", "$movieEntries"))))
+            .append("as", "i")
+            .append("in", new Document("$let", new Document("vars", new Document("entry", entry)).append("in", stamped))));
+        AggregationOperation stamp = context -> new Document("$set", new Document("movieEntries", entries));
+        mongoTemplate.updateMulti(
+            new Query(Criteria.where("movieEntries").elemMatch(Criteria.where("addedAt").exists(false))),
+            AggregationUpdate.from(List.of(stamp)), User.class);
+    }
+
+    @Override
+    public boolean add(String userId, MovieEntry entry) {
+        // The $ne guard makes the update miss when the movie is already on the list
+        return mongoTemplate.updateFirst(addEntryQuery(userId, entry.getMovieId()), addEntryUpdate(entry), User.class)
+            .getModifiedCount() > 0;
+    }
+
+    @Override
+    public void update(String userId, String movieId, String status, Double score) {
+        mongoTemplate.updateFirst(updateEntryQuery(userId, movieId), updateEntryUpdate(status, score), User.class);
+    }
+
+    @Override
+    public void remove(String userId, String movieId) {
+        mongoTemplate.updateFirst(userQuery(userId), removeEntryUpdate(movieId), User.class);
+    }
+
+    @Override
+    public List<MovieEntry> find(String userId, String status, WatchlistSort sort) {
+        return aggregate(userId, status, sort, null, 0).stream()
+            .map(EmbeddedWatchlistStore::toMovieEntry)
+            .toList();
+    }
+
+    /**
+     * Filtering, ordering and the page limit are pushed into one aggregation over
+     * the user's embedded entries, so only the requested page leaves Mongo.
+     */
+    @Override
+    public MovieEntryPage findPage(String userId, String status, WatchlistSort sort, String cursor, int limit) {
+        List<Document> rows = aggregate(userId, status, sort, cursor, limit + 1);
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            Document last = rows.get(limit - 1);
+            nextCursor = sort == WatchlistSort.ADDED
+                ? WatchlistCursors.encodeAdded(((Number) last.get("sortAdded")).longValue(), last.getString("movieId"))
+                : WatchlistCursors.encodeScore(((Number) last.get("sortScore")).doubleValue(), last.getString("movieId"));
+        }
+        return new MovieEntryPage(rows.stream().map(EmbeddedWatchlistStore::toMovieEntry).toList(), nextCursor);
+    }
+
+    @Override
+    public Set<String> findPresent(String userId, Collection<String> movieIds) {
+        Query query = userQuery(userId);
+        query.fields().include("movieEntries.movieId");
+        User user = mongoTemplate.findOne(query, User.class);
+        Set<String> present = new HashSet<>();
+        if (user != null && user.getMovieEntries() != null) {
+            user.getMovieEntries().stream()
+                .map(MovieEntry::getMovieId)
+                .filter(movieIds::contains)
+                .forEach(present::add);
+        }
+        return present;
+    }
+
+    @Override
+    public Batch batch(String userId) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, User.class);
+        return new Batch() {
+            private int writes;
+
+            @Override
+            public void add(MovieEntry entry) {
+                bulk.updateOne(addEntryQuery(userId, entry.getMovieId()), addEntryUpdate(entry));
+                writes++;
+            }
+
+            @Override
+            public void update(String movieId, String status, Double score) {
+                bulk.updateOne(updateEntryQuery(userId, movieId), updateEntryUpdate(status, score));
+                writes++;
+            }
+
+            @Override
+            public void remove(String movieId) {
+                bulk.updateOne(userQuery(userId), removeEntryUpdate(movieId));
+                writes++;
+            }
+
+            @Override
+            public void execute() {
+                if (writes > 0) {
+                    bulk.execute();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void removeAll(String userId) {
+        // Entries live inside the User document and go away with it
+    }
+
+    @Override
+    public void removeAll(Collection<String> userIds) {
+        // Same as removeAll(userId): nothing is stored outside the users collection
+    }
+
+    @Override
+    public void forEachEntry(BiConsumer<String, MovieEntry> consumer) {
+        Query query = new Query();
+        query.fields().include("_id").include("movieEntries");
+        try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+            users.filter(user -> user.getMovieEntries() != null)
+                .forEach(user -> user.getMovieEntries().forEach(entry -> consumer.accept(user.getId(), entry)));
+        }
+    }
+
+    private List<Document> aggregate(String userId, String status, WatchlistSort sort, String cursor, int limit) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(Criteria.where("_id").is(userId)));
+        stages.add(Aggregation.project("movieEntries").andExclude("_id"));
+        stages.add(Aggregation.unwind("movieEntries", "position"));
+        stages.add(Aggregation.project()
+            .and("movieEntries.movieId").as("movieId")
+            .and("movieEntries.status").as("status")
+            .and("movieEntries.score").as("score")
+            .and("movieEntries.addedAt").as("addedAt")
+            .and(ConditionalOperators.ifNull("movieEntries.score").then(0.0)).as("sortScore")
+            // Only an entry not yet stamped at startup falls back to its position
+            .and(ConditionalOperators.ifNull("movieEntries.addedAt").thenValueOf("position")).as("sortAdded"));
+        if (status != null && !status.isBlank()) {
+            stages.add(Aggregation.match(Criteria.where("status").is(status)));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            stages.add(Aggregation.match(cursorCriteria(cursor, sort)));
+        }
+        stages.add(Aggregation.sort(switch (sort) {
+            case SCORE_DESC -> Sort.by(Sort.Order.desc("sortScore"), Sort.Order.asc("movieId"));
+            case SCORE_ASC -> Sort.by(Sort.Order.asc("sortScore"), Sort.Order.asc("movieId"));
+            default -> Sort.by(Sort.Order.asc("sortAdded"), Sort.Order.asc("movieId"));
+        }));
+        if (limit > 0) {
+            stages.add(Aggregation.limit(limit));
+        }
+        return mongoTemplate.aggregate(Aggregation.newAggregation(stages), User.class, Document.class).getMappedResults();
+    }
+
+    private static Criteria cursorCriteria(String cursor, WatchlistSort sort) {
+        String raw = WatchlistCursors.decode(cursor);
+        if (sort == WatchlistSort.ADDED) {
+            long addedAt = WatchlistCursors.addedAtOf(raw);
+            return new Criteria().orOperator(Criteria.where("sortAdded").gt(addedAt),
+                Criteria.where("sortAdded").is(addedAt).and("movieId").gt(WatchlistCursors.movieIdOf(raw)));
+        }
+        double score = WatchlistCursors.scoreOf(raw);
+        Criteria beyondScore = sort == WatchlistSort.SCORE_DESC
+            ? Criteria.where("sortScore").lt(score)
+            : Criteria.where("sortScore").gt(score);
+        return new Criteria().orOperator(beyondScore,
+            Criteria.where("sortScore").is(score).and("movieId").gt(WatchlistCursors.movieIdOf(raw)));
+    }
+
+    private static MovieEntry toMovieEntry(Document row) {
+        Number score = (Number) row.get("score");
+        Number addedAt = (Number) row.get("addedAt");
+        MovieEntry entry = new MovieEntry(row.getString("movieId"), row.getString("status"), score == null ? null : score.doubleValue());
+        entry.setAddedAt(addedAt == null ? null : addedAt.longValue());
+        return entry;
+    }
+
+    private static Query userQuery(String userId) {
+        return new Query(Criteria.where("_id").is(userId));
+    }
+
+    // $push guarded by $ne so the entry is only added if it isn't already there
+    private static Query addEntryQuery(String userId, String movieId) {
+        return new Query(Criteria.where("_id").is(userId).and("movieEntries.movieId").ne(movieId));
+    }
+
+    private static Update addEntryUpdate(MovieEntry entry) {
+        if (entry.getAddedAt() == null) {
+            entry.setAddedAt(WatchlistClock.next());
+        }
+        return new Update().push("movieEntries", entry);
+    }
+
+    private static Query updateEntryQuery(String userId, String movieId) {
+        return new Query(Criteria.where("_id").is(userId).and("movieEntries.movieId").is(movieId));
+    }
+
+    private static Update updateEntryUpdate(String status, Double score) {
+        Update update = new Update();
+        if (status != null) {
+            update.set("movieEntries.$.status", status);
+        }
+        if (score != null) {
+            update.set("movieEntries.$.score", score);
+        }
+        return update;
+    }
+
+    private static Update removeEntryUpdate(String movieId) {
+        return new Update().pull("movieEntries", new Document("movieId", movieId));
+    }
+}
@@ -0,0 +1,173 @@
+package com.mymovielist.movieapp.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Item-item cosine similarity over the sparse user x movie score matrix. Each
+ * movie's neighbours are found by walking only the users who rated it and the
+ * other movies those users rated, so the cost follows the number of co-ratings
+ * rather than movies squared. Movies are split into ranges and scored on a
+ * fork-join pool; every leaf task owns its scratch arrays.
+ */
+final class ItemSimilarity {
+
+    /** Neighbour dense movie IDs and similarities per dense movie ID, best first. */
+    record Result(int[][] neighbours, float[][] similarities) {
+    }
+
+    private ItemSimilarity() {
+    }
+
+    /**
+     * @param k               neighbours kept per movie
+     * @param minCoRaters     users who must have rated both movies before a pair counts
+     * @param maxItemsPerUser ratings used per user; a user's work is quadratic in this
+     */
+    static Result compute(RatingMatrix ratings, int k, int minCoRaters, int maxItemsPerUser, ForkJoinPool pool) {
+        int userCount = ratings.userCount();
+        int movieCount = ratings.movieCount();
+
+        // Rows: the movies each user rated, capped per user
+        int[] rowStart = new int[userCount + 1];
+        for (int i = 0; i < ratings.size(); i++) {
+            int user = ratings.users()[i];
+            if (rowStart[user + 1] < maxItemsPerUser) {
+                rowStart[user + 1]++;
+            }
+        }
+        for (int user = 0; user < userCount; user++) {
+            rowStart[user + 1] += rowStart[user];
+        }
+        int kept = rowStart[userCount];
+        int[] rowMovie = new int[kept];
+        float[] rowScore = new float[kept];
+        int[] rowFill = new int[userCount];
+        for (int i = 0; i < ratings.size(); i++) {
+            int user = ratings.users()[i];
+            int position = rowStart[user] + rowFill[user];
+            if (position < rowStart[user + 1]) {
+                rowMovie[position] = ratings.movies()[i];
+                rowScore[position] = ratings.scores()[i];
+                rowFill[user]++;
+            }
+        }
+
+        // Columns: the users who rated each movie, plus the movie's vector length
+        int[] colStart = new int[movieCount + 1];
+        double[] norms = new double[movieCount];
+        for (int i = 0; i < kept; i++) {
+            colStart[rowMovie[i] + 1]++;
+            norms[rowMovie[i]] += (double) rowScore[i] * rowScore[i];
+        }
+        for (int movie = 0; movie < movieCount; movie++) {
+            colStart[movie + 1] += colStart[movie];
+            norms[movie] = Math.sqrt(norms[movie]);
+        }
+        int[] colUser = new int[kept];
+        float[] colScore = new float[kept];
+        int[] colFill = new int[movieCount];
+        for (int user = 0; user < userCount; user++) {
+            for (int i = rowStart[user]; i < rowStart[user + 1]; i++) {
+                int position = colStart[rowMovie[i]] + colFill[rowMovie[i]]++;
+                colUser[position] = user;
+                colScore[position] = rowScore[i];
+            }
+        }
+
+        Matrix matrix = new Matrix(rowStart, rowMovie, rowScore, colStart, colUser, colScore, norms);
+        Result result = new Result(new int[movieCount][], new float[movieCount][]);
+        int leafSize = Math.max(64, movieCount / (pool.getParallelism() * 8));
+        pool.invoke(new SimilarityTask(matrix, result, k, minCoRaters, 0, movieCount, leafSize));
+        return result;
+    }
+
+    private record Matrix(int[] rowStart, int[] rowMovie, float[] rowScore,
+                          int[] colStart, int[] colUser, float[] colScore, double[] norms) {
+    }
+
+    private static final class SimilarityTask extends RecursiveAction {
+        private final Matrix matrix;
+        private final Result result;
+        private final int k;
+        private final int minCoRaters;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        SimilarityTask(Matrix matrix, Result result, int k, int minCoRaters, int from, int to, int leafSize) {
+            this.matrix = matrix;
+            this.result = result;
+            this.k = k;
+            this.minCoRaters = minCoRaters;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > leafSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SimilarityTask(matrix, result, k, minCoRaters, from, middle, leafSize),
+                    new SimilarityTask(matrix, result, k, minCoRaters, middle, to, leafSize));
+                return;
+            }
+
+            int movieCount = matrix.norms().length;
+            double[] dot = new double[movieCount];
+            int[] coRaters = new int[movieCount];
+            int[] touched = new int[movieCount];
+            int[] topMovie = new int[k];
+            float[] topSimilarity = new float[k];
+            for (int movie = from; movie < to; movie++) {
+                int touchedCount = 0;
+                for (int c = matrix.colStart()[movie]; c < matrix.colStart()[movie + 1]; c++) {
+                    int user = matrix.colUser()[c];
+                    float score = matrix.colScore()[c];
+                    for (int r = matrix.rowStart()[user]; r < matrix.rowStart()[user + 1]; r++) {
+                        int other = matrix.rowMovie()[r];
+                        if (other == movie) {
+                            continue;
+                        }
+                        if (coRaters[other]++ == 0) {
+                            touched[touchedCount++] = other;
+                        }
+                        dot[other] += (double) score * matrix.rowScore()[r];
+                    }
+                }
+
+                int size = 0;
+                for (int t = 0; t < touchedCount; t++) {
+                    int other = touched[t];
+                    if (coRaters[other] >= minCoRaters) {
+                        float similarity = (float) (dot[other] / (matrix.norms()[movie] * matrix.norms()[other]));
+                        size = offer(topMovie, topSimilarity, size, other, similarity);
+                    }
+                    dot[other] = 0;
+                    coRaters[other] = 0;
+                }
+                result.neighbours()[movie] = Arrays.copyOf(topMovie, size);
+                result.similarities()[movie] = Arrays.copyOf(topSimilarity, size);
+            }
+        }
+
+        // Insertion into a descending top-k; k is small, so this beats a heap
+        private static int offer(int[] movies, float[] similarities, int size, int movie, float similarity) {
+            int k = movies.length;
+            if (size == k && similarity <= similarities[k - 1]) {
+                return size;
+            }
+            int position = size < k ? size++ : k - 1;
+            while (position > 0 && similarities[position - 1] < similarity) {
+                movies[position] = movies[position - 1];
+                similarities[position] = similarities[position - 1];
+                position--;
+            }
+            movies[position] = movie;
+            similarities[position] = similarity;
+            return size;
+        }
+    }
+}
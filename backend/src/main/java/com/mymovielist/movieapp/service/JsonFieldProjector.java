@@ -0,0 +1,86 @@
+package com.mymovielist.movieapp.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.filter.FilteringGeneratorDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Trims a JSON document down to a set of requested fields by filtering the
+ * token stream, without materializing an object tree. Fields are dotted paths
+ * ("title", "results.poster_path"); arrays are transparent, so a path applies
+ * to every element of an array it passes through.
+ */
+@Component
+public class JsonFieldProjector {
+
+    private final JsonFactory jsonFactory;
+
+    @Autowired
+    public JsonFieldProjector(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public byte[] project(byte[] json, String fields) throws IOException {
+        PathFilter filter = PathFilter.parse(fields);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(json.length, 8192));
+
+        try (JsonParser parser = jsonFactory.createParser(json);
+             JsonGenerator generator = new FilteringGeneratorDelegate(
+                     jsonFactory.createGenerator(out), filter, TokenFilter.Inclusion.INCLUDE_ALL_AND_PATH, true)) {
+            if (parser.nextToken() != null) {
+                generator.copyCurrentStructure(parser);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static final class PathFilter extends TokenFilter {
+        private final Map<String, PathFilter> children = new HashMap<>();
+        private boolean leaf;
+
+        static PathFilter parse(String fields) {
+            PathFilter root = new PathFilter();
+            for (String field : fields.split(",")) {
+                String path = field.trim();
+                if (path.isEmpty()) {
+                    continue;
+                }
+                PathFilter node = root;
+                for (String name : path.split("\\.")) {
+                    node = node.children.computeIfAbsent(name, n -> new PathFilter());
+                }
+                node.leaf = true;
+            }
+            return root;
+        }
+
+        @Override
+        public TokenFilter includeProperty(String name) {
+            PathFilter child = children.get(name);
+            if (child == null) {
+                return null;
+            }
+            return child.leaf ? TokenFilter.INCLUDE_ALL : child;
+        }
+
+        @Override
+        public TokenFilter includeElement(int index) {
+            return this;
+        }
+
+        @Override
+        protected boolean _includeScalar() {
+            return false;
+        }
+    }
+}
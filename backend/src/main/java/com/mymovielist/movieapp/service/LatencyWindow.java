@@ -0,0 +1,47 @@
+package com.mymovielist.movieapp.service;
+
+import java.util.Arrays;
+
+/**
+ * The latencies of the last {@code capacity} calls on a route, for reading
+ * percentiles. The sorted copy is rebuilt lazily, at most once every
+ * {@code RESORT_EVERY} samples, so a percentile read is usually a single array
+ * lookup.
+ */
+final class LatencyWindow {
+
+    private static final int RESORT_EVERY = 16;
+
+    private final long[] samples;
+    private final int minSamples;
+    private long[] sorted = new long[0];
+    private int next;
+    private int size;
+    private int sinceSort;
+
+    LatencyWindow(int capacity, int minSamples) {
+        this.samples = new long[capacity];
+        this.minSamples = minSamples;
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+        sinceSort++;
+    }
+
+    /** The p-th percentile in nanoseconds, or -1 until there are enough samples. */
+    synchronized long percentile(double p) {
+        if (size < minSamples) {
+            return -1;
+        }
+        if (sorted.length != size || sinceSort >= RESORT_EVERY) {
+            sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            sinceSort = 0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(rank, sorted.length - 1))];
+    }
+}
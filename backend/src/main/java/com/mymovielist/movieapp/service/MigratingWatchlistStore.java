@@ -0,0 +1,132 @@
+package com.mymovielist.movieapp.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.MovieEntryPage;
+import com.mymovielist.movieapp.model.WatchlistSort;
+
+/**
+ * Used while {@code watchlist.storage=migrating}: the embedded array stays the
+ * source of truth for reads, and every write goes to both layouts. Once
+ * {@link WatchlistMigrationService} has copied the existing entries, the
+ * movie_entries rows are kept current by the writes themselves, so the switch to
+ * {@code collection} needs no write freeze.
+ *
+ * <p>Embedded writes go first and stamp addedAt on a new entry, so the row copied
+ * to movie_entries carries the same stamp and pages in the same order.
+ */
+@Component
+@ConditionalOnProperty(name = "watchlist.storage", havingValue = "migrating")
+public class MigratingWatchlistStore implements WatchlistStore {
+
+    private final MongoTemplate mongoTemplate;
+    private final EmbeddedWatchlistStore embedded;
+    private final CollectionWatchlistStore collection;
+
+    @Autowired
+    public MigratingWatchlistStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.embedded = new EmbeddedWatchlistStore(mongoTemplate);
+        this.collection = new CollectionWatchlistStore(mongoTemplate);
+    }
+
+    @PostConstruct
+    void prepare() {
+        EmbeddedWatchlistStore.stampLegacyEntries(mongoTemplate);
+        CollectionWatchlistStore.ensureIndexes(mongoTemplate);
+        CollectionWatchlistStore.stampLegacyEntries(mongoTemplate);
+    }
+
+    @Override
+    public boolean add(String userId, MovieEntry entry) {
+        boolean added = embedded.add(userId, entry);
+        collection.add(userId, entry);
+        return added;
+    }
+
+    @Override
+    public void update(String userId, String movieId, String status, Double score) {
+        embedded.update(userId, movieId, status, score);
+        collection.update(userId, movieId, status, score);
+    }
+
+    @Override
+    public void remove(String userId, String movieId) {
+        embedded.remove(userId, movieId);
+        collection.remove(userId, movieId);
+    }
+
+    @Override
+    public List<MovieEntry> find(String userId, String status, WatchlistSort sort) {
+        return embedded.find(userId, status, sort);
+    }
+
+    @Override
+    public MovieEntryPage findPage(String userId, String status, WatchlistSort sort, String cursor, int limit) {
+        return embedded.findPage(userId, status, sort, cursor, limit);
+    }
+
+    @Override
+    public Set<String> findPresent(String userId, Collection<String> movieIds) {
+        return embedded.findPresent(userId, movieIds);
+    }
+
+    @Override
+    public Batch batch(String userId) {
+        Batch embeddedBatch = embedded.batch(userId);
+        Batch collectionBatch = collection.batch(userId);
+        return new Batch() {
+            @Override
+            public void add(MovieEntry entry) {
+                embeddedBatch.add(entry);
+                collectionBatch.add(entry);
+            }
+
+            @Override
+            public void update(String movieId, String status, Double score) {
+                embeddedBatch.update(movieId, status, score);
+                collectionBatch.update(movieId, status, score);
+            }
+
+            @Override
+            public void remove(String movieId) {
+                embeddedBatch.remove(movieId);
+                collectionBatch.remove(movieId);
+            }
+
+            @Override
+            public void execute() {
+                embeddedBatch.execute();
+                collectionBatch.execute();
+            }
+        };
+    }
+
+    @Override
+    public void removeAll(String userId) {
+        embedded.removeAll(userId);
+        collection.removeAll(userId);
+    }
+
+    @Override
+    public void removeAll(Collection<String> userIds) {
+        embedded.removeAll(userIds);
+        collection.removeAll(userIds);
+    }
+
+    @Override
+    public void forEachEntry(BiConsumer<String, MovieEntry> consumer) {
+        embedded.forEachEntry(consumer);
+    }
+}
@@ -0,0 +1,143 @@
+package com.mymovielist.movieapp.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mymovielist.movieapp.model.Movie;
+import com.mymovielist.movieapp.model.TmdbPayload;
+import com.mymovielist.movieapp.repository.MovieRepository;
+
+/**
+ * Reads and writes the local movie catalog. Catalog failures are logged and
+ * treated as a miss, so a Mongo hiccup degrades to an upstream call instead of
+ * failing the request.
+ */
+@Service
+public class MovieCatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieCatalogService.class);
+
+    private final MovieRepository movieRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final MovieSearchIndex searchIndex;
+    private final Duration ttl;
+
+    @Autowired
+    public MovieCatalogService(
+            MovieRepository movieRepository,
+            MongoTemplate mongoTemplate,
+            ObjectMapper objectMapper,
+            MovieSearchIndex searchIndex,
+            @Value("${movies.catalog.ttl:P7D}") Duration ttl) {
+        this.movieRepository = movieRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.searchIndex = searchIndex;
+        this.ttl = ttl;
+    }
+
+    @PostConstruct
+    void createIndexes() {
+        try {
+            ensureIndexes(mongoTemplate);
+        } catch (DataAccessException e) {
+            log.warn("Could not create catalog indexes", e);
+        }
+    }
+
+    // Index auto-creation is off, so the index the stale sweep reads is created here
+    static void ensureIndexes(MongoTemplate mongoTemplate) {
+        mongoTemplate.indexOps(Movie.class).ensureIndex(new Index("refreshAfter", Sort.Direction.ASC));
+    }
+
+    public Optional<Movie> find(String movieId) {
+        try {
+            return movieRepository.findById(movieId);
+        } catch (DataAccessException e) {
+            log.warn("Catalog lookup failed for movie {}", movieId, e);
+            return Optional.empty();
+        }
+    }
+
+    public boolean isStale(Movie movie) {
+        return movie.getRefreshAfter() == null || !movie.getRefreshAfter().isAfter(Instant.now());
+    }
+
+    /**
+     * Stores a freshly fetched details response. If the content hash is unchanged only
+     * the refresh timestamps move; otherwise the document is rewritten and its version
+     * incremented.
+     */
+    public void save(String movieId, TmdbPayload payload) {
+        Instant fetchedAt = payload.getFetchedAt();
+        try {
+            Query unchanged = new Query(Criteria.where("_id").is(movieId).and("etag").is(payload.getEtag()));
+            Update touch = new Update()
+                .set("fetchedAt", fetchedAt)
+                .set("refreshAfter", fetchedAt.plus(ttl));
+            if (mongoTemplate.updateFirst(unchanged, touch, Movie.class).getMatchedCount() > 0) {
+                return;
+            }
+
+            JsonNode details = objectMapper.readTree(payload.getBody());
+            Movie movie = new Movie();
+            movie.setId(movieId);
+            movie.setTitle(details.path("title").asText(null));
+            movie.setOriginalTitle(details.path("original_title").asText(null));
+            movie.setOverview(details.path("overview").asText(null));
+            movie.setReleaseDate(details.path("release_date").asText(null));
+            movie.setPosterPath(details.path("poster_path").asText(null));
+            movie.setPopularity(details.hasNonNull("popularity") ? details.get("popularity").asDouble() : null);
+
+            Update update = new Update()
+                .set("title", movie.getTitle())
+                .set("originalTitle", movie.getOriginalTitle())
+                .set("overview", movie.getOverview())
+                .set("releaseDate", movie.getReleaseDate())
+                .set("posterPath", movie.getPosterPath())
+                .set("popularity", movie.getPopularity())
+                .set("details", payload.getBody())
+                .set("etag", payload.getEtag())
+                .set("fetchedAt", fetchedAt)
+                .set("refreshAfter", fetchedAt.plus(ttl))
+                .setOnInsert("createdAt", fetchedAt)
+                .inc("version", 1);
+            mongoTemplate.upsert(new Query(Criteria.where("_id").is(movieId)), update, Movie.class);
+            searchIndex.add(movie);
+        } catch (IOException | DataAccessException e) {
+            log.warn("Could not store movie {} in the catalog", movieId, e);
+        }
+    }
+
+    /** IDs of the movies whose refresh is due, oldest first. */
+    public List<String> findDueForRefresh(int limit) {
+        Query query = new Query(Criteria.where("refreshAfter").lte(Instant.now()))
+            .with(Sort.by(Sort.Order.asc("refreshAfter")))
+            .limit(limit);
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Movie.class).stream()
+            .map(Movie::getId)
+            .toList();
+    }
+}
@@ -0,0 +1,54 @@
+package com.mymovielist.movieapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refreshes catalog entries whose refresh time has passed, a batch per run, so
+ * reads rarely find a stale entry and have to go upstream themselves.
+ */
+@Component
+public class MovieCatalogSync {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieCatalogSync.class);
+
+    private final MovieCatalogService movieCatalog;
+    private final MovieService movieService;
+    private final int batchSize;
+
+    @Autowired
+    public MovieCatalogSync(
+            MovieCatalogService movieCatalog,
+            MovieService movieService,
+            @Value("${movies.catalog.sync-batch-size:100}") int batchSize) {
+        this.movieCatalog = movieCatalog;
+        this.movieService = movieService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${movies.catalog.sync-interval:PT1H}",
+            fixedDelayString = "${movies.catalog.sync-interval:PT1H}")
+    public void refreshDue() {
+        int refreshed = 0;
+        for (String movieId : movieCatalog.findDueForRefresh(batchSize)) {
+            try {
+                movieService.refreshMovieDetails(movieId);
+                refreshed++;
+            } catch (RuntimeException e) {
+                if (e.getCause() instanceof TmdbUnavailableException) {
+                    // Out of TMDB budget (or TMDB is down); the rest stay due for the next run
+                    log.info("Catalog refresh stopped after {} entries: {}", refreshed, e.getCause().getMessage());
+                    break;
+                }
+                log.warn("Catalog refresh failed for movie {}", movieId, e);
+            }
+        }
+        if (refreshed > 0) {
+            log.info("Refreshed {} catalog entries", refreshed);
+        }
+    }
+}
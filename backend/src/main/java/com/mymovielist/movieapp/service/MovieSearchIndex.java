@@ -0,0 +1,473 @@
+package com.mymovielist.movieapp.service;
+
+import java.io.IOException;
+import java.text.Normalizer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mymovielist.movieapp.model.Movie;
+import com.mymovielist.movieapp.model.TmdbPayload;
+
+/**
+ * In-memory title index for type-ahead search. Titles come from the movie catalog
+ * at startup and from every catalog write or TMDB search result afterwards.
+ *
+ * <p>Reads go against an immutable snapshot, so searching never takes a lock.
+ * Additions land in a concurrent map and are folded into a new snapshot by a
+ * short scheduled rebuild. Within a snapshot document IDs are assigned in
+ * descending popularity, so every postings list is already in popularity order.
+ *
+ * <p>Each query token must match a title token exactly, as a prefix, or (from
+ * three characters on) within a small edit distance found through a trigram
+ * index over the vocabulary.
+ */
+@Component
+public class MovieSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieSearchIndex.class);
+
+    private static final int MAX_PREFIX = 12;
+    private static final int MAX_CANDIDATES = 2_000;
+    private static final float EXACT = 3f;
+    private static final float PREFIX = 2f;
+    private static final float FUZZY = 1f;
+    private static final float POPULARITY_WEIGHT = 0.25f;
+    // Too common in titles to vouch for a hit on their own
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "at", "by", "for", "from", "in", "is",
+        "of", "on", "or", "the", "to", "with");
+
+    record IndexedMovie(String id, String title, String originalTitle, String releaseDate, String posterPath,
+                        double popularity) {
+    }
+
+    private record Hit(int doc, float score) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final Map<String, IndexedMovie> movies = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.build(List.of()));
+
+    @Autowired
+    public MovieSearchIndex(
+            MongoTemplate mongoTemplate,
+            ObjectMapper objectMapper,
+            @Value("${movies.search.max-entries:500000}") int maxEntries) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCatalog() {
+        Query query = new Query();
+        query.fields().include("_id", "title", "originalTitle", "releaseDate", "posterPath", "popularity");
+        try {
+            for (Movie movie : mongoTemplate.find(query, Movie.class)) {
+                add(new IndexedMovie(movie.getId(), movie.getTitle(), movie.getOriginalTitle(), movie.getReleaseDate(),
+                    movie.getPosterPath(), movie.getPopularity() == null ? 0.0 : movie.getPopularity()));
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not load the movie catalog into the search index", e);
+        }
+        rebuild();
+    }
+
+    public void add(Movie movie) {
+        add(new IndexedMovie(movie.getId(), movie.getTitle(), movie.getOriginalTitle(), movie.getReleaseDate(),
+            movie.getPosterPath(), movie.getPopularity() == null ? 0.0 : movie.getPopularity()));
+    }
+
+    /** Indexes the results of a TMDB search response. */
+    public void addSearchResults(TmdbPayload payload) {
+        try {
+            for (JsonNode result : objectMapper.readTree(payload.getBody()).path("results")) {
+                if (result.hasNonNull("id") && result.hasNonNull("title")) {
+                    add(new IndexedMovie(result.get("id").asText(), result.get("title").asText(),
+                        result.path("original_title").asText(null), result.path("release_date").asText(null),
+                        result.path("poster_path").asText(null), result.path("popularity").asDouble(0.0)));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not index TMDB search results", e);
+        }
+    }
+
+    void add(IndexedMovie movie) {
+        if (movie.id() == null || movie.title() == null) {
+            return;
+        }
+        if (movies.size() >= maxEntries && !movies.containsKey(movie.id())) {
+            return;
+        }
+        movies.put(movie.id(), movie);
+        dirty.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${movies.search.rebuild-interval:PT1M}")
+    public void rebuildIfChanged() {
+        if (dirty.get()) {
+            rebuild();
+        }
+    }
+
+    void rebuild() {
+        dirty.set(false);
+        snapshot.set(Snapshot.build(new ArrayList<>(movies.values())));
+    }
+
+    public int size() {
+        return snapshot.get().movies.length;
+    }
+
+    public List<IndexedMovie> search(String query, int limit) {
+        return snapshot.get().search(query, limit);
+    }
+
+    /**
+     * Local results in the shape of a TMDB search response, or empty when the caller
+     * should ask TMDB instead. The index only holds titles seen before, so it stands
+     * in for TMDB only with a full page of hits in which every hit contains every
+     * query word other than stop words exactly; a prefix or fuzzy hit would hide
+     * TMDB's results. The index can't know how many matches TMDB has, so the
+     * response carries no total_results or total_pages.
+     */
+    public Optional<TmdbPayload> searchPayload(String query, int limit) {
+        List<String> queryTokens = tokenize(query).stream()
+            .filter(token -> !STOP_WORDS.contains(token))
+            .toList();
+        if (queryTokens.isEmpty()) {
+            return Optional.empty();
+        }
+        List<IndexedMovie> hits = search(query, limit);
+        if (hits.size() < limit || !allExactMatches(queryTokens, hits)) {
+            return Optional.empty();
+        }
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("page", 1);
+        ArrayNode results = body.putArray("results");
+        for (IndexedMovie hit : hits) {
+            results.addObject()
+                .put("id", parseId(hit.id()))
+                .put("title", hit.title())
+                .put("original_title", hit.originalTitle())
+                .put("release_date", hit.releaseDate())
+                .put("poster_path", hit.posterPath())
+                .put("popularity", hit.popularity());
+        }
+        try {
+            return Optional.of(new TmdbPayload(objectMapper.writeValueAsBytes(body), Instant.now()));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize search results", e);
+        }
+    }
+
+    private static boolean allExactMatches(List<String> queryTokens, List<IndexedMovie> hits) {
+        for (IndexedMovie hit : hits) {
+            Set<String> titleTokens = new HashSet<>(tokenize(hit.title()));
+            titleTokens.addAll(tokenize(hit.originalTitle()));
+            if (!titleTokens.containsAll(queryTokens)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseId(String id) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+            .replaceAll("\\p{M}", "")
+            .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static int maxEdits(String token) {
+        if (token.length() < 3) {
+            return 0;
+        }
+        return token.length() < 6 ? 1 : 2;
+    }
+
+    private static Set<String> trigrams(String token) {
+        String padded = "$" + token;
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /** Levenshtein distance, giving up once it is certain to exceed {@code max}. */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    // How well a query token matches one title token; 0 for no match
+    private static float matchScore(String queryToken, String titleToken) {
+        if (titleToken.equals(queryToken)) {
+            return EXACT;
+        }
+        if (titleToken.startsWith(queryToken)) {
+            return PREFIX;
+        }
+        int max = maxEdits(queryToken);
+        if (max == 0) {
+            return 0f;
+        }
+        // Typos in a partly typed word are compared against the same-length prefix
+        String prefix = titleToken.substring(0, Math.min(titleToken.length(), queryToken.length()));
+        if (distance(queryToken, titleToken, max) <= max || distance(queryToken, prefix, max) <= max) {
+            return FUZZY;
+        }
+        return 0f;
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class Snapshot {
+        private final IndexedMovie[] movies;
+        private final String[][] tokens;
+        private final float[] popularityBoost;
+        private final Map<String, int[]> prefixPostings;
+        private final Map<String, int[]> termPostings;
+        private final Map<String, String[]> trigramTerms;
+
+        private Snapshot(IndexedMovie[] movies, String[][] tokens, float[] popularityBoost,
+                         Map<String, int[]> prefixPostings, Map<String, int[]> termPostings,
+                         Map<String, String[]> trigramTerms) {
+            this.movies = movies;
+            this.tokens = tokens;
+            this.popularityBoost = popularityBoost;
+            this.prefixPostings = prefixPostings;
+            this.termPostings = termPostings;
+            this.trigramTerms = trigramTerms;
+        }
+
+        static Snapshot build(List<IndexedMovie> source) {
+            IndexedMovie[] movies = source.stream()
+                .sorted(Comparator.comparingDouble(IndexedMovie::popularity).reversed())
+                .toArray(IndexedMovie[]::new);
+            String[][] tokens = new String[movies.length][];
+            float[] popularityBoost = new float[movies.length];
+            Map<String, IntList> prefixes = new HashMap<>();
+            Map<String, IntList> terms = new HashMap<>();
+
+            for (int doc = 0; doc < movies.length; doc++) {
+                Set<String> docTokens = new LinkedHashSet<>(tokenize(movies[doc].title()));
+                docTokens.addAll(tokenize(movies[doc].originalTitle()));
+                tokens[doc] = docTokens.toArray(String[]::new);
+                popularityBoost[doc] = (float) (POPULARITY_WEIGHT * Math.log1p(Math.max(0, movies[doc].popularity())));
+
+                Set<String> docPrefixes = new HashSet<>();
+                for (String token : docTokens) {
+                    addPosting(terms, token, doc);
+                    for (int length = 1; length <= Math.min(MAX_PREFIX, token.length()); length++) {
+                        docPrefixes.add(token.substring(0, length));
+                    }
+                }
+                for (String prefix : docPrefixes) {
+                    addPosting(prefixes, prefix, doc);
+                }
+            }
+
+            Map<String, List<String>> trigramTerms = new HashMap<>();
+            for (String term : terms.keySet()) {
+                for (String gram : trigrams(term)) {
+                    trigramTerms.computeIfAbsent(gram, key -> new ArrayList<>()).add(term);
+                }
+            }
+
+            Map<String, String[]> trigramIndex = new HashMap<>(trigramTerms.size() * 2);
+            trigramTerms.forEach((gram, list) -> trigramIndex.put(gram, list.toArray(String[]::new)));
+            return new Snapshot(movies, tokens, popularityBoost, toArrays(prefixes), toArrays(terms), trigramIndex);
+        }
+
+        private static void addPosting(Map<String, IntList> postings, String key, int doc) {
+            postings.computeIfAbsent(key, k -> new IntList()).add(doc);
+        }
+
+        private static Map<String, int[]> toArrays(Map<String, IntList> postings) {
+            Map<String, int[]> arrays = new HashMap<>(postings.size() * 2);
+            postings.forEach((key, docs) -> arrays.put(key, docs.toArray()));
+            return arrays;
+        }
+
+        List<IndexedMovie> search(String query, int limit) {
+            List<String> queryTokens = tokenize(query);
+            if (queryTokens.isEmpty() || movies.length == 0) {
+                return List.of();
+            }
+
+            // Drive the search from the most selective token; the rest are checked per document
+            int[] driver = null;
+            for (String token : queryTokens) {
+                int[] candidates = candidates(token);
+                if (driver == null || candidates.length < driver.length) {
+                    driver = candidates;
+                }
+            }
+
+            PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble(Hit::score));
+            float bestMatch = EXACT * queryTokens.size();
+            int scanned = 0;
+            for (int doc : driver) {
+                // Boosts only fall as doc IDs rise, so once even a perfect match here
+                // can't beat the current top results nothing later can either
+                if (++scanned > MAX_CANDIDATES
+                        || (best.size() == limit && bestMatch + popularityBoost[doc] <= best.peek().score())) {
+                    break;
+                }
+                float score = score(doc, queryTokens);
+                if (score <= 0f) {
+                    continue;
+                }
+                best.add(new Hit(doc, score + popularityBoost[doc]));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+
+            IndexedMovie[] ranked = new IndexedMovie[best.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = movies[best.poll().doc()];
+            }
+            return Arrays.asList(ranked);
+        }
+
+        private float score(int doc, List<String> queryTokens) {
+            float total = 0f;
+            for (String queryToken : queryTokens) {
+                float tokenScore = 0f;
+                for (String titleToken : tokens[doc]) {
+                    tokenScore = Math.max(tokenScore, matchScore(queryToken, titleToken));
+                    if (tokenScore == EXACT) {
+                        break;
+                    }
+                }
+                if (tokenScore == 0f) {
+                    return 0f;
+                }
+                total += tokenScore;
+            }
+            return total;
+        }
+
+        // Documents that could match the token, in popularity order
+        private int[] candidates(String token) {
+            int[] prefixDocs = prefixPostings.getOrDefault(
+                token.length() <= MAX_PREFIX ? token : token.substring(0, MAX_PREFIX), new int[0]);
+            int max = maxEdits(token);
+            if (max == 0 || prefixDocs.length >= MAX_CANDIDATES) {
+                return prefixDocs;
+            }
+
+            Set<String> grams = trigrams(token);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String gram : grams) {
+                for (String term : trigramTerms.getOrDefault(gram, new String[0])) {
+                    shared.merge(term, 1, Integer::sum);
+                }
+            }
+            // One edit can break up to three trigrams
+            int required = Math.max(1, grams.size() - 3 * max);
+            BitSet docs = new BitSet(movies.length);
+            for (int doc : prefixDocs) {
+                docs.set(doc);
+            }
+            shared.forEach((term, count) -> {
+                if (count >= required && matchScore(token, term) > 0f) {
+                    for (int doc : termPostings.get(term)) {
+                        docs.set(doc);
+                    }
+                }
+            });
+            return docs.stream().toArray();
+        }
+    }
+}
@@ -1,53 +1,170 @@
 package com.mymovielist.movieapp.service;
 
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
+import com.mymovielist.movieapp.model.Movie;
+import com.mymovielist.movieapp.model.TmdbPayload;
+import com.mymovielist.movieapp.service.TmdbRateLimiter.Priority;
+import com.mymovielist.movieapp.service.TmdbResponseCache.Endpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
 public class MovieService {
 
-    private final OkHttpClient client;
+    private static final Logger log = LoggerFactory.getLogger(MovieService.class);
+    private static final int SEARCH_PAGE_SIZE = 20;
 
-    @Value("${tmdb.api.key}")
-    private String apiKey;
-
-    private static final String BASE_URL = "https://api.themoviedb.org/3/movie/";
+    private final TmdbGateway tmdbGateway;
+    private final TmdbResponseCache responseCache;
+    private final TmdbRequestCoalescer coalescer;
+    private final MovieCatalogService movieCatalog;
+    private final MovieSearchIndex searchIndex;
 
     @Autowired
-    public MovieService(OkHttpClient client) {
-        this.client = client;
+    public MovieService(TmdbGateway tmdbGateway, TmdbResponseCache responseCache, TmdbRequestCoalescer coalescer,
+                        MovieCatalogService movieCatalog, MovieSearchIndex searchIndex) {
+        this.tmdbGateway = tmdbGateway;
+        this.responseCache = responseCache;
+        this.coalescer = coalescer;
+        this.movieCatalog = movieCatalog;
+        this.searchIndex = searchIndex;
+    }
+
+    // Answered from the local title index when it has a full page with an exact
+    // match; otherwise TMDB is asked, and its results are indexed for next time
+    public TmdbPayload searchMovies(String query) {
+        Optional<TmdbPayload> local = searchIndex.searchPayload(query, SEARCH_PAGE_SIZE);
+        if (local.isPresent()) {
+            return local.get();
+        }
+        // TMDB search is case-insensitive, so normalize the key to share entries
+        String key = query.trim().toLowerCase(Locale.ROOT);
+        return cached(Endpoint.SEARCH, key, () -> {
+            TmdbPayload payload = tmdbGateway.get("search/movie", Map.of("query", query), Priority.SEARCH);
+            searchIndex.addSearchResults(payload);
+            return payload;
+        }, "Failed to search movies");
+    }
+
+    public TmdbPayload getMovieDetails(String movieId) {
+        return cached(Endpoint.DETAILS, movieId, detailsCall(movieId, Priority.INTERACTIVE),
+                "Failed to fetch movie details");
+    }
+
+    /**
+     * Details lookup for callers fetching many movies at once. A cached entry completes
+     * immediately without touching the executor; a miss is loaded on the executor, so
+     * the caller decides how many lookups run in parallel. Misses queue for the TMDB
+     * budget behind single detail views, at search priority.
+     */
+    public CompletableFuture<TmdbPayload> getMovieDetailsAsync(String movieId, Executor executor) {
+        Optional<TmdbPayload> cachedPayload = responseCache.get(Endpoint.DETAILS, movieId);
+        if (cachedPayload.isPresent()) {
+            return CompletableFuture.completedFuture(cachedPayload.get());
+        }
+        return CompletableFuture.supplyAsync(
+                () -> load(Endpoint.DETAILS, movieId, detailsCall(movieId, Priority.SEARCH), "Failed to fetch movie details"),
+                executor);
+    }
+
+    public TmdbPayload getMovieVideos(String movieId) {
+        return cached(Endpoint.VIDEOS, movieId, () -> tmdbGateway.get("movie/" + movieId + "/videos", Map.of(), Priority.INTERACTIVE),
+                "Failed to fetch movie videos");
     }
 
-    public String getMovieDetails(String movieId) {
-        Request request = new Request.Builder()
-                .url(BASE_URL + movieId + "?api_key=" + apiKey + "&language=en-US")
-                .get()
-                .build();
+    /**
+     * Loads a movie's details and videos into the cache at background priority, for
+     * the warm-up. Whatever is already cached isn't fetched again.
+     */
+    public void prefetch(String movieId) {
+        cached(Endpoint.DETAILS, movieId, detailsCall(movieId, Priority.BACKGROUND), "Failed to prefetch movie details");
+        cached(Endpoint.VIDEOS, movieId,
+                () -> tmdbGateway.get("movie/" + movieId + "/videos", Map.of(), Priority.BACKGROUND),
+                "Failed to prefetch movie videos");
+    }
 
-        try (Response response = client.newCall(request).execute()) {
-            return response.body().string();
+    /** Fetches details from TMDB regardless of what is cached and stores the result. */
+    public TmdbPayload refreshMovieDetails(String movieId) {
+        try {
+            TmdbPayload payload = fetchDetails(movieId, Priority.BACKGROUND);
+            movieCatalog.save(movieId, payload);
+            responseCache.put(Endpoint.DETAILS, movieId, payload);
+            return payload;
         } catch (IOException e) {
             throw new RuntimeException("Failed to fetch movie details", e);
         }
     }
 
-    public String getTrendingMovies() {
-        String url = "https://api.themoviedb.org/3/trending/movie/week?api_key=" + apiKey;
-        Request request = new Request.Builder()
-                .url(url)
-                .get()
-                .build();
-    
-        try (Response response = client.newCall(request).execute()) {
-            return response.body().string();
+    public TmdbPayload getTrendingMovies() {
+        try {
+            return tmdbGateway.get("trending/movie/week", Map.of(), Priority.BACKGROUND);
         } catch (IOException e) {
             throw new RuntimeException("Failed to fetch trending movies", e);
         }
     }
+
+    // Read-through the local catalog: a fresh copy is served without going upstream,
+    // and a stale one is still served if TMDB can't be reached
+    private TmdbCall<TmdbPayload> detailsCall(String movieId, Priority priority) {
+        return () -> {
+            Optional<Movie> stored = movieCatalog.find(movieId);
+            if (stored.isPresent() && !movieCatalog.isStale(stored.get())) {
+                return stored.get().toPayload();
+            }
+            try {
+                TmdbPayload payload = fetchDetails(movieId, priority);
+                movieCatalog.save(movieId, payload);
+                return payload;
+            } catch (IOException e) {
+                if (stored.isPresent()) {
+                    log.warn("TMDB unavailable, serving stale catalog entry for movie {}", movieId, e);
+                    return stored.get().toPayload();
+                }
+                throw e;
+            }
+        };
+    }
+
+    private TmdbPayload fetchDetails(String movieId, Priority priority) throws IOException {
+        return tmdbGateway.get("movie/" + movieId, Map.of("language", "en-US"), priority);
+    }
+
+    private TmdbPayload cached(Endpoint endpoint, String key, TmdbCall<TmdbPayload> call, String errorMessage) {
+        return responseCache.get(endpoint, key).orElseGet(() -> load(endpoint, key, call, errorMessage));
+    }
+
+    // When TMDB can't be reached (out of budget, circuit open, bulkhead full, timeout
+    // or a 5xx), the last copy fetched for the key is served even if it has expired
+    private TmdbPayload load(Endpoint endpoint, String key, TmdbCall<TmdbPayload> call, String errorMessage) {
+        try {
+            // Concurrent misses for the same key share one upstream call. The leader
+            // re-checks the cache in case a previous flight finished just before it.
+            return coalescer.execute(endpoint + ":" + key, () -> {
+                Optional<TmdbPayload> cachedPayload = responseCache.peek(endpoint, key);
+                if (cachedPayload.isPresent()) {
+                    return cachedPayload.get();
+                }
+                TmdbPayload payload = call.execute();
+                responseCache.put(endpoint, key, payload);
+                return payload;
+            });
+        } catch (IOException e) {
+            if (!(e instanceof TmdbResponseException response) || response.isUpstreamFault()) {
+                Optional<TmdbPayload> stale = responseCache.stale(endpoint, key);
+                if (stale.isPresent()) {
+                    log.warn("TMDB unavailable, serving stale {} entry for {}: {}", endpoint, key, e.getMessage());
+                    return stale.get();
+                }
+            }
+            throw new RuntimeException(errorMessage, e);
+        }
+    }
 }
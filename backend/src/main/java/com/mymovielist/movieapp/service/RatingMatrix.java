@@ -0,0 +1,13 @@
+package com.mymovielist.movieapp.service;
+
+/**
+ * Point-in-time copy of every rated watchlist entry as parallel arrays of dense
+ * user IDs, dense movie IDs and scores. {@code movieKeys} maps a dense movie ID
+ * back to the movie's real ID.
+ */
+record RatingMatrix(int[] users, int[] movies, float[] scores, int size, int userCount, String[] movieKeys) {
+
+    int movieCount() {
+        return movieKeys.length;
+    }
+}
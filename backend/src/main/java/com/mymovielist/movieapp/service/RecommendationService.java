@@ -0,0 +1,283 @@
+package com.mymovielist.movieapp.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.MovieNeighbours;
+import com.mymovielist.movieapp.model.MovieNeighbours.Neighbour;
+import com.mymovielist.movieapp.model.Recommendation;
+import com.mymovielist.movieapp.model.WatchlistSort;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * "Users who liked this also liked" recommendations. A scheduled batch job computes
+ * the top-K most similar movies for every movie from the analytics index's copy of
+ * the scores and persists them in movie_neighbours. Online, a user's recommendations
+ * are ranked from their own rated movies and those neighbour lists only; no request
+ * ever looks at other users. Each user's scores are cached and patched in place as
+ * they change, so re-ranking after an edit needs no database read.
+ */
+@Service
+public class RecommendationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
+    private static final int MAX_RECOMMENDATIONS = 50;
+    private static final int WRITE_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final WatchlistStore watchlistStore;
+    private final WatchlistAnalyticsIndex analyticsIndex;
+    private final int neighbourCount;
+    private final int minCoRaters;
+    private final int maxItemsPerUser;
+    private final ForkJoinPool pool;
+    private final Cache<String, Profile> profiles;
+    private volatile Map<String, List<Neighbour>> neighbours = Map.of();
+
+    @Autowired
+    public RecommendationService(
+            MongoTemplate mongoTemplate,
+            WatchlistStore watchlistStore,
+            WatchlistAnalyticsIndex analyticsIndex,
+            @Value("${recommendations.neighbours:50}") int neighbourCount,
+            @Value("${recommendations.min-co-raters:2}") int minCoRaters,
+            @Value("${recommendations.max-items-per-user:500}") int maxItemsPerUser,
+            @Value("${recommendations.parallelism:0}") int parallelism,
+            @Value("${recommendations.cache.max-users:100000}") long maxUsers,
+            @Value("${recommendations.cache.ttl:PT1H}") Duration cacheTtl) {
+        this.mongoTemplate = mongoTemplate;
+        this.watchlistStore = watchlistStore;
+        this.analyticsIndex = analyticsIndex;
+        this.neighbourCount = neighbourCount;
+        this.minCoRaters = minCoRaters;
+        this.maxItemsPerUser = maxItemsPerUser;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.profiles = Caffeine.newBuilder()
+            .maximumSize(maxUsers)
+            .expireAfterAccess(cacheTtl)
+            .build();
+    }
+
+    @PostConstruct
+    void createIndexes() {
+        try {
+            ensureIndexes(mongoTemplate);
+        } catch (DataAccessException e) {
+            log.warn("Could not create movie neighbour indexes", e);
+        }
+    }
+
+    // Index auto-creation is off; the rebuild's cleanup of stale lists reads this one
+    static void ensureIndexes(MongoTemplate mongoTemplate) {
+        mongoTemplate.indexOps(MovieNeighbours.class).ensureIndex(new Index("computedAt", Sort.Direction.ASC));
+    }
+
+    // Serve the last persisted neighbours until the first batch run finishes
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            Map<String, List<Neighbour>> loaded = new HashMap<>();
+            mongoTemplate.findAll(MovieNeighbours.class)
+                .forEach(doc -> loaded.put(doc.getMovieId(), doc.getNeighbours()));
+            neighbours = loaded;
+        } catch (DataAccessException e) {
+            log.warn("Could not load movie neighbours", e);
+        }
+    }
+
+    /** Recomputes and persists every movie's neighbours, then re-ranks users on their next request. */
+    @Scheduled(initialDelayString = "${recommendations.initial-delay:PT10M}",
+            fixedDelayString = "${recommendations.rebuild-interval:PT6H}")
+    public void rebuild() {
+        long started = System.nanoTime();
+        RatingMatrix ratings = analyticsIndex.ratings();
+        ItemSimilarity.Result result = ItemSimilarity.compute(ratings, neighbourCount, minCoRaters, maxItemsPerUser, pool);
+
+        Map<String, List<Neighbour>> fresh = new HashMap<>();
+        for (int movie = 0; movie < ratings.movieCount(); movie++) {
+            int[] ids = result.neighbours()[movie];
+            if (ids.length == 0) {
+                continue;
+            }
+            List<Neighbour> list = new ArrayList<>(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                list.add(new Neighbour(ratings.movieKeys()[ids[i]], result.similarities()[movie][i]));
+            }
+            fresh.put(ratings.movieKeys()[movie], list);
+        }
+
+        try {
+            persist(fresh);
+        } catch (DataAccessException e) {
+            log.warn("Could not persist movie neighbours, serving them from memory only", e);
+        }
+        neighbours = fresh;
+        profiles.asMap().values().forEach(Profile::invalidateRanking);
+        log.info("Computed neighbours for {} movies from {} ratings in {} ms",
+            fresh.size(), ratings.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public List<Neighbour> similar(String movieId) {
+        return neighbours.getOrDefault(movieId, List.of());
+    }
+
+    public List<Recommendation> recommend(String userId, int limit) {
+        // Not profiles.get(userId, loader): that runs the Mongo read while holding a
+        // map lock, which blocks other users' lookups and pins a virtual thread's carrier
+        Profile profile = profiles.getIfPresent(userId);
+        if (profile == null) {
+            Profile loaded = loadProfile(userId);
+            profile = profiles.asMap().putIfAbsent(userId, loaded);
+            if (profile == null) {
+                profile = loaded;
+            }
+        }
+        List<Recommendation> ranked = profile.ranking(neighbours);
+        return ranked.subList(0, Math.min(limit, ranked.size()));
+    }
+
+    // Incremental updates: only profiles already cached are patched; anyone else is
+    // read fresh from the store on their next request
+
+    public void onAdd(String userId, MovieEntry entry) {
+        Profile profile = profiles.getIfPresent(userId);
+        if (profile != null) {
+            profile.put(entry.getMovieId(), entry.getScore());
+        }
+    }
+
+    public void onUpdate(String userId, String movieId, Double score) {
+        Profile profile = profiles.getIfPresent(userId);
+        if (profile != null && score != null) {
+            profile.put(movieId, score);
+        }
+    }
+
+    public void onRemove(String userId, String movieId) {
+        Profile profile = profiles.getIfPresent(userId);
+        if (profile != null) {
+            profile.remove(movieId);
+        }
+    }
+
+    public void removeUsers(Collection<String> userIds) {
+        profiles.invalidateAll(userIds);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void persist(Map<String, List<Neighbour>> fresh) {
+        Instant computedAt = Instant.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MovieNeighbours.class);
+        int pending = 0;
+        for (Map.Entry<String, List<Neighbour>> entry : fresh.entrySet()) {
+            bulk.replaceOne(new Query(Criteria.where("_id").is(entry.getKey())),
+                new MovieNeighbours(entry.getKey(), entry.getValue(), computedAt),
+                FindAndReplaceOptions.options().upsert());
+            if (++pending == WRITE_BATCH_SIZE) {
+                bulk.execute();
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MovieNeighbours.class);
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+        // Movies that lost all their neighbours since the last run
+        mongoTemplate.remove(new Query(Criteria.where("computedAt").lt(computedAt)), MovieNeighbours.class);
+    }
+
+    private Profile loadProfile(String userId) {
+        Profile profile = new Profile();
+        watchlistStore.find(userId, null, WatchlistSort.ADDED)
+            .forEach(entry -> profile.put(entry.getMovieId(), entry.getScore()));
+        return profile;
+    }
+
+    /** One user's scores by movie (0 = on the list but unrated) and their last ranking. */
+    private static final class Profile {
+        private final Map<String, Double> scores = new HashMap<>();
+        private List<Recommendation> ranking;
+
+        synchronized void put(String movieId, Double score) {
+            scores.put(movieId, score == null ? 0.0 : score);
+            ranking = null;
+        }
+
+        synchronized void remove(String movieId) {
+            scores.remove(movieId);
+            ranking = null;
+        }
+
+        synchronized void invalidateRanking() {
+            ranking = null;
+        }
+
+        // Each candidate scores the sum of similarity x the user's score over the rated
+        // movies it neighbours; movies already on the list are never suggested
+        synchronized List<Recommendation> ranking(Map<String, List<Neighbour>> neighbours) {
+            if (ranking != null) {
+                return ranking;
+            }
+            Map<String, double[]> candidates = new HashMap<>();
+            Map<String, String> because = new HashMap<>();
+            scores.forEach((movieId, score) -> {
+                if (score <= 0) {
+                    return;
+                }
+                for (Neighbour neighbour : neighbours.getOrDefault(movieId, List.of())) {
+                    if (scores.containsKey(neighbour.getMovieId())) {
+                        continue;
+                    }
+                    double contribution = neighbour.getSimilarity() * score;
+                    double[] total = candidates.computeIfAbsent(neighbour.getMovieId(), id -> new double[2]);
+                    total[0] += contribution;
+                    if (contribution > total[1]) {
+                        total[1] = contribution;
+                        because.put(neighbour.getMovieId(), movieId);
+                    }
+                }
+            });
+            ranking = candidates.entrySet().stream()
+                .sorted((a, b) -> {
+                    int byScore = Double.compare(b.getValue()[0], a.getValue()[0]);
+                    return byScore != 0 ? byScore : a.getKey().compareTo(b.getKey());
+                })
+                .limit(MAX_RECOMMENDATIONS)
+                .map(e -> new Recommendation(e.getKey(), e.getValue()[0], because.get(e.getKey())))
+                .toList();
+            return ranking;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.mymovielist.movieapp.service;
+
+import java.util.Optional;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.mymovielist.movieapp.model.SessionPrincipal;
+
+/** The verified caller of the current request, as stored by the session token filter. */
+public final class SessionContext {
+
+    public static final String PRINCIPAL_ATTRIBUTE = SessionContext.class.getName() + ".principal";
+
+    private SessionContext() {
+    }
+
+    public static Optional<SessionPrincipal> current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((SessionPrincipal) attributes.getAttribute(PRINCIPAL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+    }
+}
@@ -0,0 +1,136 @@
+package com.mymovielist.movieapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mymovielist.movieapp.model.SessionPrincipal;
+
+/**
+ * Issues and checks stateless session tokens of the form
+ * {@code base64url(userId \n username \n expiry) "." base64url(HMAC-SHA256)}.
+ * Verification is a local HMAC check, so every instance that shares
+ * {@code auth.token.secret} accepts every other instance's tokens without a
+ * database call or sticky sessions.
+ *
+ * <p>Without a secret the service refuses to start, since tokens from a random
+ * per-process key stop verifying after a restart and on every other instance. Set
+ * {@code auth.token.allow-random-secret=true} to accept that, e.g. for a single
+ * local instance.
+ *
+ * <p>Deleting a user revokes the tokens carrying its ID, so an unexpired token
+ * can't write to a user that no longer exists (or to a new user registered under
+ * the same name). Revocations are kept in memory on the instance that handled the
+ * delete, for one token lifetime; other instances keep accepting the token until it
+ * expires, so {@code auth.token.ttl} bounds how long that can go on.
+ */
+@Component
+public class SessionTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionTokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Clock clock;
+    // User IDs whose tokens no longer verify; after one TTL every such token has expired anyway
+    private final Cache<String, Boolean> revokedUserIds;
+
+    @Autowired
+    public SessionTokenService(@Value("${auth.token.secret:}") String secret,
+                               @Value("${auth.token.allow-random-secret:false}") boolean allowRandomSecret,
+                               @Value("${auth.token.ttl:PT12H}") Duration ttl) {
+        this(secret, allowRandomSecret, ttl, Clock.systemUTC());
+    }
+
+    SessionTokenService(String secret, boolean allowRandomSecret, Duration ttl, Clock clock) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            if (!allowRandomSecret) {
+                throw new IllegalStateException(
+                    "auth.token.secret is not set; set it, or auth.token.allow-random-secret=true for a single instance");
+            }
+            // Tokens then only verify on this instance and die with it
+            log.warn("auth.token.secret is not set, using a random per-process key");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = Base64.getDecoder().decode(secret);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttl = ttl;
+        this.clock = clock;
+        this.revokedUserIds = Caffeine.newBuilder().expireAfterWrite(ttl).build();
+    }
+
+    public SessionPrincipal principal(String userId, String username) {
+        return new SessionPrincipal(userId, username, clock.instant().plus(ttl));
+    }
+
+    public String issue(SessionPrincipal principal) {
+        String payload = principal.getUserId() + "\n" + principal.getUsername() + "\n" + principal.getExpiresAt().getEpochSecond();
+        String encoded = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encoded + "." + ENCODER.encodeToString(sign(encoded));
+    }
+
+    /** Makes every token issued so far for these users fail verification. */
+    public void revoke(Collection<String> userIds) {
+        userIds.forEach(userId -> revokedUserIds.put(userId, Boolean.TRUE));
+    }
+
+    /** Empty for malformed, forged, expired or revoked tokens. */
+    public Optional<SessionPrincipal> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return Optional.empty();
+        }
+        String encoded = token.substring(0, dot);
+        try {
+            if (!MessageDigest.isEqual(sign(encoded), DECODER.decode(token.substring(dot + 1)))) {
+                return Optional.empty();
+            }
+            String[] fields = new String(DECODER.decode(encoded), StandardCharsets.UTF_8).split("\n", -1);
+            if (fields.length != 3) {
+                return Optional.empty();
+            }
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(fields[2]));
+            if (!clock.instant().isBefore(expiresAt) || revokedUserIds.getIfPresent(fields[0]) != null) {
+                return Optional.empty();
+            }
+            return Optional.of(new SessionPrincipal(fields[0], fields[1], expiresAt));
+        } catch (IllegalArgumentException e) {
+            // Bad base64 or expiry
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String encodedPayload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " unavailable", e);
+        }
+    }
+}
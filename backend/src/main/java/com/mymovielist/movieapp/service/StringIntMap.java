@@ -0,0 +1,97 @@
+package com.mymovielist.movieapp.service;
+
+/**
+ * Open-addressing map from String keys to non-negative int values, the string
+ * counterpart of {@link LongIntMap}: two arrays and no per-entry node or boxed
+ * Integer, for the dense-ID dictionaries that hold one key per user or movie.
+ */
+final class StringIntMap {
+
+    private String[] keys;
+    private int[] values;
+    private int size;
+
+    StringIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        keys = new String[capacity];
+        values = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Returns the value for the key, or -1 if absent. */
+    int get(String key) {
+        int mask = keys.length - 1;
+        for (int i = index(key, mask); ; i = (i + 1) & mask) {
+            if (keys[i] == null) {
+                return -1;
+            }
+            if (keys[i].equals(key)) {
+                return values[i];
+            }
+        }
+    }
+
+    void put(String key, int value) {
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (keys[i] != null && !keys[i].equals(key)) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == null) {
+            size++;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    /** Removes the key and returns its value, or -1 if it was absent. */
+    int remove(String key) {
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (!key.equals(keys[i])) {
+            if (keys[i] == null) {
+                return -1;
+            }
+            i = (i + 1) & mask;
+        }
+        int removed = values[i];
+        size--;
+        // Backward-shift deletion, as in LongIntMap
+        int hole = i;
+        for (int j = (hole + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+            int home = index(keys[j], mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = null;
+        return removed;
+    }
+
+    private void resize() {
+        String[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new String[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    // String hashes of similar IDs differ mostly in the low bits; spread them first
+    private static int index(String key, int mask) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
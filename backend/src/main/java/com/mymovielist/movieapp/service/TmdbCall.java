@@ -0,0 +1,8 @@
+package com.mymovielist.movieapp.service;
+
+import java.io.IOException;
+
+@FunctionalInterface
+interface TmdbCall<T> {
+    T execute() throws IOException;
+}
@@ -0,0 +1,241 @@
+package com.mymovielist.movieapp.service;
+
+import com.mymovielist.movieapp.model.TmdbPayload;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Single entry point for every outbound TMDB call. Builds the request URL
+ * (with proper query encoding) and executes it on the shared OkHttpClient,
+ * inside the route's bulkhead, circuit breaker and adaptive timeout from
+ * {@link TmdbResilience}. Each call first takes a token from the
+ * {@link TmdbRateLimiter} at the caller's priority.
+ */
+@Component
+public class TmdbGateway {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final OkHttpClient client;
+    private final TmdbResilience resilience;
+    private final TmdbRateLimiter rateLimiter;
+    private final String apiKey;
+    private final HttpUrl baseUrl;
+
+    @Autowired
+    public TmdbGateway(OkHttpClient client, TmdbResilience resilience, TmdbRateLimiter rateLimiter,
+                       @Value("${tmdb.api.key}") String apiKey,
+                       @Value("${tmdb.api.base-url:https://api.themoviedb.org/3/}") String baseUrl) {
+        this.client = client;
+        this.resilience = resilience;
+        this.rateLimiter = rateLimiter;
+        this.apiKey = apiKey;
+        this.baseUrl = HttpUrl.get(baseUrl);
+    }
+
+    public TmdbPayload get(String path, Map<String, String> queryParams) throws IOException {
+        return get(path, queryParams, TmdbRateLimiter.Priority.INTERACTIVE);
+    }
+
+    /**
+     * Throws {@link TmdbUnavailableException} without calling TMDB when the call is
+     * shed by the rate limiter or the route is refusing calls,
+     * {@link TmdbResponseException} for a non-2xx answer, and
+     * {@link InterruptedIOException} when the adaptive timeout runs out.
+     */
+    public TmdbPayload get(String path, Map<String, String> queryParams, TmdbRateLimiter.Priority priority)
+            throws IOException {
+        HttpUrl.Builder url = baseUrl.newBuilder()
+                .addPathSegments(path)
+                .addQueryParameter("api_key", apiKey);
+        queryParams.forEach(url::addQueryParameter);
+
+        Request request = new Request.Builder()
+                .url(url.build())
+                .get()
+                .build();
+
+        // Before the bulkhead, so a call waiting for its token doesn't hold a slot
+        rateLimiter.acquire(priority);
+        try (TmdbResilience.Permit permit = resilience.acquire(path)) {
+            try {
+                TmdbPayload payload = execute(request, permit, priority);
+                permit.succeeded();
+                return payload;
+            } catch (TmdbResponseException e) {
+                if (e.getCode() == TOO_MANY_REQUESTS) {
+                    rateLimiter.backOff(e.getRetryAfter());
+                }
+                if (e.isUpstreamFault()) {
+                    permit.failed(false);
+                } else {
+                    permit.succeeded();
+                }
+                throw e;
+            } catch (InterruptedIOException e) {
+                permit.failed(true);
+                throw e;
+            } catch (IOException e) {
+                permit.failed(false);
+                throw e;
+            }
+        }
+    }
+
+    // The primary attempt runs on the calling thread. A timer cancels it at the
+    // deadline, and another may start a hedged attempt once the hedge delay passes;
+    // whichever attempt answers first cancels the other.
+    private TmdbPayload execute(Request request, TmdbResilience.Permit permit, TmdbRateLimiter.Priority priority)
+            throws IOException {
+        Call primary = client.newCall(request);
+        Hedge hedge = new Hedge(request, permit, priority, primary);
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> deadline = resilience.schedule(() -> {
+            timedOut.set(true);
+            primary.cancel();
+            hedge.cancel();
+        }, permit.timeout());
+        ScheduledFuture<?> hedgeTimer = permit.hedgeDelay()
+                .map(delay -> resilience.schedule(hedge::start, delay))
+                .orElse(null);
+        try (Response response = primary.execute()) {
+            TmdbPayload payload = read(response);
+            hedge.cancel();
+            return payload;
+        } catch (TmdbResponseException e) {
+            hedge.cancel();
+            throw e;
+        } catch (IOException e) {
+            // Also how a primary cancelled by a winning hedge ends up here
+            Optional<TmdbPayload> hedged = hedge.await();
+            if (hedged.isPresent()) {
+                return hedged.get();
+            }
+            if (timedOut.get()) {
+                throw new InterruptedIOException("TMDB call timed out after " + permit.timeout().toMillis() + " ms");
+            }
+            throw e;
+        } finally {
+            deadline.cancel(false);
+            if (hedgeTimer != null) {
+                hedgeTimer.cancel(false);
+            }
+        }
+    }
+
+    private static TmdbPayload read(Response response) throws IOException {
+        ResponseBody body = response.body();
+        if (!response.isSuccessful() || body == null) {
+            throw new TmdbResponseException(response.code(), "Unexpected code " + response,
+                    retryAfter(response.header("Retry-After")));
+        }
+        // Keep the raw bytes; callers pass them through without re-encoding
+        return new TmdbPayload(body.bytes(), Instant.now());
+    }
+
+    // TMDB sends Retry-After in seconds; anything else is ignored
+    static Duration retryAfter(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The second attempt of a hedged GET, run asynchronously on OkHttp's dispatcher.
+     * It is only sent if a rate limit token is free right away, so hedging never
+     * pushes traffic past the outbound budget.
+     */
+    private final class Hedge implements Callback {
+        private final Request request;
+        private final TmdbResilience.Permit permit;
+        private final TmdbRateLimiter.Priority priority;
+        private final Call primary;
+        private final CompletableFuture<TmdbPayload> result = new CompletableFuture<>();
+        private Call call;
+        private boolean cancelled;
+
+        private Hedge(Request request, TmdbResilience.Permit permit, TmdbRateLimiter.Priority priority, Call primary) {
+            this.request = request;
+            this.permit = permit;
+            this.priority = priority;
+            this.primary = primary;
+        }
+
+        synchronized void start() {
+            if (cancelled || !permit.tryHedge(() -> rateLimiter.tryAcquire(priority))) {
+                return;
+            }
+            call = client.newCall(request);
+            call.enqueue(this);
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (call != null) {
+                call.cancel();
+            }
+        }
+
+        /** The hedge's payload if it was sent and succeeded; waits for it if still running. */
+        Optional<TmdbPayload> await() {
+            synchronized (this) {
+                if (call == null) {
+                    cancelled = true;
+                    return Optional.empty();
+                }
+            }
+            try {
+                // Bounded: the deadline timer cancels the hedge too
+                return Optional.of(result.get());
+            } catch (ExecutionException e) {
+                return Optional.empty();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            }
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+            try (response) {
+                if (result.complete(read(response))) {
+                    primary.cancel();
+                }
+            } catch (IOException e) {
+                result.completeExceptionally(e);
+            } finally {
+                permit.releaseHedge();
+            }
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            result.completeExceptionally(e);
+            permit.releaseHedge();
+        }
+    }
+}
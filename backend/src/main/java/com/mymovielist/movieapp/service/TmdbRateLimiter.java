@@ -0,0 +1,259 @@
+package com.mymovielist.movieapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket in front of every outbound TMDB call, so our own spikes stay under
+ * the per-key limit instead of all failing on 429s together. Tokens refill at a
+ * steady rate up to a burst. Callers that find the bucket empty queue by priority:
+ * a token always goes to the oldest waiter of the highest waiting priority, so
+ * background work only gets what interactive lookups and searches leave over.
+ * <p>
+ * Each priority has a queue capacity and a longest wait. A call is shed with
+ * {@link TmdbUnavailableException} straight away when its queue is full or the
+ * tokens owed to everyone ahead of it can't refill within its wait, and when its
+ * wait runs out in the queue.
+ */
+@Component
+public class TmdbRateLimiter {
+
+    private static final Duration DEFAULT_BACK_OFF = Duration.ofSeconds(1);
+
+    public enum Priority {
+        /** A user waiting on one movie: details and videos. */
+        INTERACTIVE,
+        /** Type-ahead search, and the many lookups behind one watchlist page. */
+        SEARCH,
+        /** Nobody is waiting: prefetch, catalog sync, the trending refresh. */
+        BACKGROUND
+    }
+
+    public record Limits(int queueCapacity, Duration maxWait) {
+    }
+
+    /** See the tmdb.ratelimit.* properties. */
+    public record Settings(double permitsPerSecond, int burst, Limits interactive, Limits search, Limits background) {
+        Limits limits(Priority priority) {
+            return switch (priority) {
+                case INTERACTIVE -> interactive;
+                case SEARCH -> search;
+                case BACKGROUND -> background;
+            };
+        }
+    }
+
+    private final Settings settings;
+    private final double tokensPerNano;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<Priority, ArrayDeque<Object>> waiting = new EnumMap<>(Priority.class);
+    private final Map<Priority, Timer> waits = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> shedFull = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> shedWait = new EnumMap<>(Priority.class);
+    private double tokens;
+    // May lie in the future while backing off after a 429; nothing refills until then
+    private long refilledAt;
+
+    @Autowired
+    public TmdbRateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${tmdb.ratelimit.rate:40}") double permitsPerSecond,
+            @Value("${tmdb.ratelimit.burst:40}") int burst,
+            @Value("${tmdb.ratelimit.interactive.queue-capacity:200}") int interactiveQueue,
+            @Value("${tmdb.ratelimit.interactive.max-wait:2s}") Duration interactiveWait,
+            @Value("${tmdb.ratelimit.search.queue-capacity:100}") int searchQueue,
+            @Value("${tmdb.ratelimit.search.max-wait:1s}") Duration searchWait,
+            @Value("${tmdb.ratelimit.background.queue-capacity:50}") int backgroundQueue,
+            @Value("${tmdb.ratelimit.background.max-wait:30s}") Duration backgroundWait) {
+        this(new Settings(permitsPerSecond, burst, new Limits(interactiveQueue, interactiveWait),
+                new Limits(searchQueue, searchWait), new Limits(backgroundQueue, backgroundWait)), meterRegistry);
+    }
+
+    public TmdbRateLimiter(Settings settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.tokensPerNano = settings.permitsPerSecond() / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = settings.burst();
+        this.refilledAt = System.nanoTime();
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            ArrayDeque<Object> queue = new ArrayDeque<>();
+            waiting.put(priority, queue);
+            Gauge.builder("tmdb.ratelimit.queue.depth", this, limiter -> limiter.queued(priority))
+                    .tag("priority", tag)
+                    .description("TMDB calls waiting for a rate limit token")
+                    .register(meterRegistry);
+            waits.put(priority, Timer.builder("tmdb.ratelimit.wait")
+                    .tag("priority", tag)
+                    .description("Time admitted TMDB calls spent waiting for a token")
+                    .register(meterRegistry));
+            shedFull.put(priority, shed(meterRegistry, tag, "queue_full"));
+            shedWait.put(priority, shed(meterRegistry, tag, "max_wait"));
+        }
+    }
+
+    private static Counter shed(MeterRegistry meterRegistry, String priority, String reason) {
+        return Counter.builder("tmdb.ratelimit.shed")
+                .tag("priority", priority)
+                .tag("reason", reason)
+                .description("TMDB calls dropped because the request budget was exhausted")
+                .register(meterRegistry);
+    }
+
+    /** Blocks until the call may go upstream, or throws if it is shed. */
+    public void acquire(Priority priority) throws TmdbUnavailableException, InterruptedIOException {
+        Limits limits = settings.limits(priority);
+        long started = System.nanoTime();
+        long deadline = started + limits.maxWait().toNanos();
+        Object ticket = new Object();
+        lock.lock();
+        try {
+            refill(started);
+            if (isNext(priority, ticket) && tokens >= 1) {
+                tokens--;
+                waits.get(priority).record(0, TimeUnit.NANOSECONDS);
+                return;
+            }
+            ArrayDeque<Object> queue = waiting.get(priority);
+            if (queue.size() >= limits.queueCapacity()) {
+                shedFull.get(priority).increment();
+                throw budgetExhausted(priority, nanosUntilToken(started, ahead(priority) + 1));
+            }
+            long expectedWait = nanosUntilToken(started, ahead(priority) + 1);
+            if (expectedWait > limits.maxWait().toNanos()) {
+                shedWait.get(priority).increment();
+                throw budgetExhausted(priority, expectedWait);
+            }
+            queue.addLast(ticket);
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    refill(now);
+                    boolean next = isNext(priority, ticket);
+                    if (next && tokens >= 1) {
+                        tokens--;
+                        waits.get(priority).record(now - started, TimeUnit.NANOSECONDS);
+                        return;
+                    }
+                    long remaining = deadline - now;
+                    if (remaining <= 0) {
+                        shedWait.get(priority).increment();
+                        throw budgetExhausted(priority, nanosUntilToken(now, ahead(priority)));
+                    }
+                    // The next in line sleeps until its token is due; the rest wait to be signalled
+                    changed.awaitNanos(next ? Math.min(remaining, nanosUntilToken(now, 1)) : remaining);
+                }
+            } finally {
+                queue.remove(ticket);
+                changed.signalAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a TMDB rate limit token");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a token only if one is free now and nobody of this or a higher priority
+     * is queued for it; never waits and never sheds. For optional extra calls such
+     * as hedges, which are better skipped than queued.
+     */
+    public boolean tryAcquire(Priority priority) {
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            if (ahead(priority) > 0 || tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Empties the bucket and stops refilling it for {@code duration}, after TMDB
+     * answered 429. A null duration (no Retry-After header) backs off for a second.
+     */
+    public void backOff(Duration duration) {
+        long resumeAt = System.nanoTime() + (duration == null ? DEFAULT_BACK_OFF : duration).toNanos();
+        lock.lock();
+        try {
+            tokens = 0;
+            refilledAt = Math.max(refilledAt, resumeAt);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int queued(Priority priority) {
+        lock.lock();
+        try {
+            return waiting.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill(long now) {
+        if (now > refilledAt) {
+            tokens = Math.min(settings.burst(), tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+
+    // Head of its own queue, with nobody of a higher priority waiting
+    private boolean isNext(Priority priority, Object ticket) {
+        for (Priority higher : Priority.values()) {
+            ArrayDeque<Object> queue = waiting.get(higher);
+            if (higher == priority) {
+                return queue.isEmpty() || queue.peekFirst() == ticket;
+            }
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    // Waiters that get a token before a new caller of this priority
+    private int ahead(Priority priority) {
+        int ahead = 0;
+        for (Priority higher : Priority.values()) {
+            ahead += waiting.get(higher).size();
+            if (higher == priority) {
+                break;
+            }
+        }
+        return ahead;
+    }
+
+    private long nanosUntilToken(long now, int needed) {
+        double missing = needed - tokens;
+        long pause = Math.max(0, refilledAt - now);
+        return missing <= 0 ? pause : pause + (long) Math.ceil(missing / tokensPerNano);
+    }
+
+    private static TmdbUnavailableException budgetExhausted(Priority priority, long retryAfterNanos) {
+        return new TmdbUnavailableException("TMDB request budget exhausted for " + priority.name().toLowerCase(Locale.ROOT)
+                + " calls", Duration.ofNanos(retryAfterNanos));
+    }
+}
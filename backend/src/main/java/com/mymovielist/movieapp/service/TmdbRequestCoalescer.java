@@ -0,0 +1,83 @@
+package com.mymovielist.movieapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Collapses concurrent identical TMDB lookups into a single upstream call
+ * ("single-flight"). The first caller for a key performs the call; everyone
+ * who arrives while it is in flight waits for and shares the same result.
+ */
+@Component
+public class TmdbRequestCoalescer {
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter merged;
+
+    @Autowired
+    public TmdbRequestCoalescer(MeterRegistry meterRegistry) {
+        this.leaders = Counter.builder("tmdb.requests.coalesced")
+                .tag("role", "leader")
+                .description("Lookups that performed the upstream TMDB call")
+                .register(meterRegistry);
+        this.merged = Counter.builder("tmdb.requests.coalesced")
+                .tag("role", "follower")
+                .description("Lookups that joined an identical in-flight TMDB call")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("tmdb.requests.in_flight", List.of(), inFlight);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T execute(String key, TmdbCall<T> call) throws IOException {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            merged.increment();
+            return (T) await(existing);
+        }
+
+        leaders.increment();
+        try {
+            T result = call.execute();
+            future.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for TMDB response", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.mymovielist.movieapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Per-route protection for outbound TMDB calls. A route is the request path with
+ * the movie ID folded away ("movie/{id}/videos"), so one slow endpoint can't take
+ * the others down with it. Paths outside the known routes share one "other" route,
+ * so the IDs callers pass in can't grow the set of routes and their meters. Each
+ * route has:
+ * <ul>
+ *   <li>a bulkhead capping concurrent calls, so a brownout ties up at most that
+ *   many request threads;</li>
+ *   <li>a circuit breaker that refuses calls outright while the route is failing;</li>
+ *   <li>a timeout derived from recent latency (p99 times a multiplier, between the
+ *   configured bounds) instead of a fixed worst case;</li>
+ *   <li>a hedge delay (recent p95): a GET still running after that long gets a
+ *   second, parallel attempt, and the first answer wins.</li>
+ * </ul>
+ */
+@Component
+public class TmdbResilience {
+
+    private static final Pattern MOVIE_ID = Pattern.compile("^movie/[^/]+");
+    private static final Set<String> ROUTES = Set.of("movie/{id}", "movie/{id}/videos", "search/movie",
+            "trending/movie/week");
+    private static final String OTHER_ROUTE = "other";
+    private static final int LATENCY_WINDOW = 200;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+
+    /** Tuning for every route; see the tmdb.resilience.* properties. */
+    public record Settings(
+            int maxConcurrent,
+            Duration maxWait,
+            int breakerWindow,
+            int breakerMinCalls,
+            double breakerFailureRate,
+            Duration breakerOpenFor,
+            int breakerTrialCalls,
+            Duration minTimeout,
+            Duration maxTimeout,
+            double timeoutMultiplier,
+            boolean hedge,
+            Duration minHedgeDelay) {
+    }
+
+    private final Settings settings;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Route> routes = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor timers;
+
+    @Autowired
+    public TmdbResilience(
+            MeterRegistry meterRegistry,
+            @Value("${tmdb.resilience.bulkhead.max-concurrent:32}") int maxConcurrent,
+            @Value("${tmdb.resilience.bulkhead.max-wait:100ms}") Duration maxWait,
+            @Value("${tmdb.resilience.breaker.window:50}") int breakerWindow,
+            @Value("${tmdb.resilience.breaker.min-calls:20}") int breakerMinCalls,
+            @Value("${tmdb.resilience.breaker.failure-rate:0.5}") double breakerFailureRate,
+            @Value("${tmdb.resilience.breaker.open-for:30s}") Duration breakerOpenFor,
+            @Value("${tmdb.resilience.breaker.trial-calls:3}") int breakerTrialCalls,
+            @Value("${tmdb.resilience.timeout.min:500ms}") Duration minTimeout,
+            @Value("${tmdb.http.call-timeout:8s}") Duration maxTimeout,
+            @Value("${tmdb.resilience.timeout.multiplier:2.0}") double timeoutMultiplier,
+            @Value("${tmdb.resilience.hedge.enabled:true}") boolean hedge,
+            @Value("${tmdb.resilience.hedge.min-delay:50ms}") Duration minHedgeDelay) {
+        this(new Settings(maxConcurrent, maxWait, breakerWindow, breakerMinCalls, breakerFailureRate, breakerOpenFor,
+                breakerTrialCalls, minTimeout, maxTimeout, timeoutMultiplier, hedge, minHedgeDelay), meterRegistry);
+    }
+
+    public TmdbResilience(Settings settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+        this.timers = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "tmdb-resilience-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Nearly every timer is cancelled because the call finished first
+        timers.setRemoveOnCancelPolicy(true);
+    }
+
+    static String route(String path) {
+        String route = MOVIE_ID.matcher(path).replaceFirst("movie/{id}");
+        return ROUTES.contains(route) ? route : OTHER_ROUTE;
+    }
+
+    /**
+     * Admits a call on the route of {@code path}, or throws if the breaker is open or
+     * the bulkhead stays full for longer than the configured wait. The permit must be
+     * closed once the call is over.
+     */
+    public Permit acquire(String path) throws TmdbUnavailableException {
+        Route route = routes.computeIfAbsent(route(path), Route::new);
+        long now = System.nanoTime();
+        if (route.breaker.remainingOpenNanos(now) > 0) {
+            throw circuitOpen(route, now);
+        }
+        boolean admitted;
+        try {
+            admitted = route.bulkhead.tryAcquire(settings.maxWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            route.rejectedFull.increment();
+            throw new TmdbUnavailableException("Too many concurrent TMDB calls on " + route.name, Duration.ofSeconds(1));
+        }
+        // Only now, holding a slot, so a half-open trial is never taken by a call that then can't run
+        if (!route.breaker.tryAcquire(System.nanoTime())) {
+            route.bulkhead.release();
+            throw circuitOpen(route, System.nanoTime());
+        }
+        return new Permit(route, System.nanoTime());
+    }
+
+    private static TmdbUnavailableException circuitOpen(Route route, long now) {
+        route.rejectedOpen.increment();
+        return new TmdbUnavailableException("Circuit open for TMDB " + route.name,
+                Duration.ofNanos(Math.max(route.breaker.remainingOpenNanos(now), TimeUnit.SECONDS.toNanos(1))));
+    }
+
+    ScheduledFuture<?> schedule(Runnable task, Duration delay) {
+        return timers.schedule(task, delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    CircuitBreaker.State state(String path) {
+        Route route = routes.get(route(path));
+        return route == null ? CircuitBreaker.State.CLOSED : route.breaker.state();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timers.shutdownNow();
+    }
+
+    /** One admitted call. Closing it releases the bulkhead slot. */
+    public final class Permit implements AutoCloseable {
+        private final Route route;
+        private final long startedAt;
+        private final Duration timeout;
+        private final Duration hedgeDelay;
+        private boolean recorded;
+        private boolean released;
+
+        private Permit(Route route, long startedAt) {
+            this.route = route;
+            this.startedAt = startedAt;
+            long p99 = route.latencies.percentile(0.99);
+            this.timeout = p99 < 0
+                    ? settings.maxTimeout()
+                    : clamp(Duration.ofNanos((long) (p99 * settings.timeoutMultiplier())),
+                            settings.minTimeout(), settings.maxTimeout());
+            long p95 = route.latencies.percentile(0.95);
+            // No hedging while the breaker is probing or there is no latency history yet
+            this.hedgeDelay = !settings.hedge() || p95 < 0 || route.breaker.state() != CircuitBreaker.State.CLOSED
+                    ? null
+                    : clamp(Duration.ofNanos(p95), settings.minHedgeDelay(), timeout);
+        }
+
+        public Duration timeout() {
+            return timeout;
+        }
+
+        public Optional<Duration> hedgeDelay() {
+            return Optional.ofNullable(hedgeDelay);
+        }
+
+        /**
+         * Takes a second bulkhead slot for a hedged attempt, without waiting. A full
+         * bulkhead means the route is already busy, and then no hedge is sent; nor is
+         * one when {@code budget} (checked only once the slot is held) says no.
+         */
+        boolean tryHedge(BooleanSupplier budget) {
+            if (!route.bulkhead.tryAcquire()) {
+                return false;
+            }
+            if (!budget.getAsBoolean()) {
+                route.bulkhead.release();
+                return false;
+            }
+            route.hedged.increment();
+            return true;
+        }
+
+        void releaseHedge() {
+            route.bulkhead.release();
+        }
+
+        void succeeded() {
+            recorded = true;
+            route.latencies.record(System.nanoTime() - startedAt);
+            route.breaker.onSuccess();
+        }
+
+        /**
+         * A timed-out call is recorded at its timeout, so that when TMDB slows down
+         * the percentiles (and the next timeouts) rise with it.
+         */
+        void failed(boolean timedOut) {
+            recorded = true;
+            long now = System.nanoTime();
+            if (timedOut) {
+                route.latencies.record(now - startedAt);
+            }
+            route.breaker.onFailure(now);
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                // Ended without an outcome (an unexpected exception): counted as a failure
+                // so a half-open breaker isn't left waiting for its trial forever
+                if (!recorded) {
+                    failed(false);
+                }
+                route.bulkhead.release();
+            }
+        }
+    }
+
+    private final class Route {
+        private final String name;
+        private final Semaphore bulkhead;
+        private final CircuitBreaker breaker;
+        private final LatencyWindow latencies = new LatencyWindow(LATENCY_WINDOW, MIN_LATENCY_SAMPLES);
+        private final Counter rejectedOpen;
+        private final Counter rejectedFull;
+        private final Counter hedged;
+
+        private Route(String name) {
+            this.name = name;
+            this.bulkhead = new Semaphore(settings.maxConcurrent());
+            this.breaker = new CircuitBreaker(settings.breakerWindow(), settings.breakerMinCalls(),
+                    settings.breakerFailureRate(), settings.breakerOpenFor().toNanos(), settings.breakerTrialCalls());
+            this.rejectedOpen = rejections("circuit_open");
+            this.rejectedFull = rejections("bulkhead_full");
+            this.hedged = Counter.builder("tmdb.resilience.hedged")
+                    .tag("route", name)
+                    .description("Second attempts sent for slow TMDB calls")
+                    .register(meterRegistry);
+            Gauge.builder("tmdb.resilience.breaker.open", breaker, b -> b.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                    .tag("route", name)
+                    .description("1 while the route's circuit breaker is open or half-open")
+                    .register(meterRegistry);
+            Gauge.builder("tmdb.resilience.bulkhead.in_use", bulkhead, b -> settings.maxConcurrent() - b.availablePermits())
+                    .tag("route", name)
+                    .register(meterRegistry);
+        }
+
+        private Counter rejections(String reason) {
+            return Counter.builder("tmdb.resilience.rejected")
+                    .tag("route", name)
+                    .tag("reason", reason)
+                    .description("TMDB calls refused without going upstream")
+                    .register(meterRegistry);
+        }
+    }
+
+    private static Duration clamp(Duration value, Duration min, Duration max) {
+        return value.compareTo(min) < 0 ? min : value.compareTo(max) > 0 ? max : value;
+    }
+}
@@ -0,0 +1,128 @@
+package com.mymovielist.movieapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mymovielist.movieapp.model.TmdbPayload;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-process cache of raw TMDB response bodies. Caffeine's W-TinyLFU admission
+ * keeps frequently requested titles resident even when a burst of one-off
+ * searches passes through, and each endpoint gets its own time-to-live.
+ * <p>
+ * Every body is also kept as the last known copy for {@code tmdb.cache.stale-for}
+ * past its time-to-live. That copy is only read when TMDB can't be reached. It
+ * shares the body arrays with the main cache, so it costs entries, not bytes.
+ */
+@Component
+public class TmdbResponseCache {
+
+    public enum Endpoint {
+        DETAILS,
+        VIDEOS,
+        SEARCH
+    }
+
+    private record Key(Endpoint endpoint, String id) {
+    }
+
+    private final Cache<Key, TmdbPayload> cache;
+    private final Cache<Key, TmdbPayload> lastKnown;
+    private final Counter staleServed;
+    private final Map<Endpoint, Duration> ttls = new EnumMap<>(Endpoint.class);
+
+    @Autowired
+    public TmdbResponseCache(
+            @Value("${tmdb.cache.ttl.details:6h}") Duration detailsTtl,
+            @Value("${tmdb.cache.ttl.videos:6h}") Duration videosTtl,
+            @Value("${tmdb.cache.ttl.search:10m}") Duration searchTtl,
+            @Value("${tmdb.cache.max-entries:20000}") long maxEntries,
+            @Value("${tmdb.cache.max-bytes:134217728}") long maxBytes,
+            @Value("${tmdb.cache.stale-for:24h}") Duration staleFor,
+            MeterRegistry meterRegistry) {
+        ttls.put(Endpoint.DETAILS, detailsTtl);
+        ttls.put(Endpoint.VIDEOS, videosTtl);
+        ttls.put(Endpoint.SEARCH, searchTtl);
+
+        // Caffeine bounds either by count or by weight, not both. Giving every entry a
+        // minimum weight of maxBytes / maxEntries enforces the entry limit as well.
+        long minWeight = Math.max(1, maxBytes / maxEntries);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, TmdbPayload payload) -> (int) Math.max(minWeight, payload.getBody().length))
+                .expireAfter(afterWrite(Duration.ZERO))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tmdb.responses");
+
+        this.lastKnown = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, TmdbPayload payload) -> (int) Math.max(minWeight, payload.getBody().length))
+                .expireAfter(afterWrite(staleFor))
+                .build();
+        this.staleServed = Counter.builder("tmdb.responses.stale")
+                .description("Expired TMDB responses served because TMDB could not be reached")
+                .register(meterRegistry);
+    }
+
+    // The endpoint's time-to-live plus grace, counted from the last write; reads don't extend it
+    private Expiry<Key, TmdbPayload> afterWrite(Duration grace) {
+        return new Expiry<Key, TmdbPayload>() {
+            @Override
+            public long expireAfterCreate(Key key, TmdbPayload body, long currentTime) {
+                return ttls.get(key.endpoint()).plus(grace).toNanos();
+            }
+
+            @Override
+            public long expireAfterUpdate(Key key, TmdbPayload body, long currentTime, long currentDuration) {
+                return ttls.get(key.endpoint()).plus(grace).toNanos();
+            }
+
+            @Override
+            public long expireAfterRead(Key key, TmdbPayload body, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    public Optional<TmdbPayload> get(Endpoint endpoint, String id) {
+        return Optional.ofNullable(cache.getIfPresent(new Key(endpoint, id)));
+    }
+
+    /** Looks up an entry without recording a hit or miss. */
+    public Optional<TmdbPayload> peek(Endpoint endpoint, String id) {
+        return Optional.ofNullable(cache.policy().getIfPresentQuietly(new Key(endpoint, id)));
+    }
+
+    public void put(Endpoint endpoint, String id, TmdbPayload payload) {
+        Key key = new Key(endpoint, id);
+        cache.put(key, payload);
+        lastKnown.put(key, payload);
+    }
+
+    /**
+     * The last copy stored for the key, even past its time-to-live. For use only
+     * when a fresh copy can't be fetched.
+     */
+    public Optional<TmdbPayload> stale(Endpoint endpoint, String id) {
+        Optional<TmdbPayload> payload = Optional.ofNullable(lastKnown.getIfPresent(new Key(endpoint, id)));
+        payload.ifPresent(p -> staleServed.increment());
+        return payload;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,35 @@
+package com.mymovielist.movieapp.service;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/** TMDB answered, but with a non-2xx status. */
+public class TmdbResponseException extends IOException {
+
+    private final int code;
+    private final Duration retryAfter;
+
+    public TmdbResponseException(int code, String message) {
+        this(code, message, null);
+    }
+
+    public TmdbResponseException(int code, String message, Duration retryAfter) {
+        super(message);
+        this.code = code;
+        this.retryAfter = retryAfter;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /** TMDB's Retry-After, or null when the response had none. */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    // A 404 for an unknown ID says nothing about TMDB's health; 429 and 5xx do
+    boolean isUpstreamFault() {
+        return code == 429 || code >= 500;
+    }
+}
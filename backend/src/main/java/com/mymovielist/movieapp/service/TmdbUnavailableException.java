@@ -0,0 +1,23 @@
+package com.mymovielist.movieapp.service;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * A TMDB call refused locally without going upstream, because the request
+ * budget is exhausted, or the route's circuit breaker is open or its bulkhead is
+ * full. {@code retryAfter} is how long until a call is likely to be accepted again.
+ */
+public class TmdbUnavailableException extends IOException {
+
+    private final Duration retryAfter;
+
+    public TmdbUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
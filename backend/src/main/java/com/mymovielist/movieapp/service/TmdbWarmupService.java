@@ -0,0 +1,212 @@
+package com.mymovielist.movieapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mymovielist.movieapp.model.TmdbPayload;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills the TMDB response cache with the titles most likely to be asked for, so
+ * the first users after a deploy or cache flush don't pay TMDB's latency. The hot
+ * set is the current trending list plus the movies on the most watchlists. Each
+ * title's details and videos are fetched at background priority, so the warm-up
+ * only uses the request budget that interactive traffic leaves over.
+ * <p>
+ * Runs shortly after startup and then on a schedule; later runs only fetch what has
+ * dropped out of the cache. The instance reports ready once the configured share
+ * of the hot set is cached, or once the ready timeout has passed so a TMDB outage
+ * during a deploy can't keep every instance out of rotation.
+ */
+@Service
+public class TmdbWarmupService {
+
+    private static final Logger log = LoggerFactory.getLogger(TmdbWarmupService.class);
+
+    /** Where the latest run stands. {@code cached} counts titles with both details and videos loaded. */
+    public record Progress(int hotSet, int cached, int failed, boolean running) {
+
+        public double cachedShare() {
+            return hotSet == 0 ? 1.0 : (double) cached / hotSet;
+        }
+    }
+
+    private final MovieService movieService;
+    private final TrendingSnapshotService trendingSnapshot;
+    private final WatchlistAnalyticsIndex analyticsIndex;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int mostWatched;
+    private final double readyShare;
+    private final long readyDeadline;
+    private final ExecutorService executor;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean warmedUp = new AtomicBoolean();
+    private final AtomicInteger cached = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile int hotSetSize;
+    // False when the latest run couldn't get the trending list; its hot set is then
+    // too thin to vouch for the instance, so readiness waits for the timeout
+    private volatile boolean trendingLoaded;
+
+    @Autowired
+    public TmdbWarmupService(
+            MovieService movieService,
+            TrendingSnapshotService trendingSnapshot,
+            WatchlistAnalyticsIndex analyticsIndex,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${tmdb.warmup.enabled:true}") boolean enabled,
+            @Value("${tmdb.warmup.most-watched:200}") int mostWatched,
+            @Value("${tmdb.warmup.parallelism:8}") int parallelism,
+            @Value("${tmdb.warmup.ready-share:0.8}") double readyShare,
+            @Value("${tmdb.warmup.ready-timeout:PT5M}") Duration readyTimeout) {
+        this.movieService = movieService;
+        this.trendingSnapshot = trendingSnapshot;
+        this.analyticsIndex = analyticsIndex;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.mostWatched = mostWatched;
+        this.readyShare = readyShare;
+        this.readyDeadline = System.nanoTime() + readyTimeout.toNanos();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "tmdb-warmup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("tmdb.warmup.hot_set", this, warmup -> warmup.hotSetSize)
+                .description("Titles in the latest warm-up's hot set")
+                .register(meterRegistry);
+        Gauge.builder("tmdb.warmup.cached", cached, AtomicInteger::get)
+                .description("Hot set titles the latest warm-up has cached")
+                .register(meterRegistry);
+    }
+
+    // The delay gives the trending snapshot and the watchlist analytics index their first load
+    @Scheduled(initialDelayString = "${tmdb.warmup.initial-delay:PT10S}",
+            fixedDelayString = "${tmdb.warmup.interval:PT30M}")
+    public void warmUp() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<String> hotSet = hotSet();
+            cached.set(0);
+            failed.set(0);
+            hotSetSize = hotSet.size();
+            log.info("TMDB warm-up started for {} titles", hotSet.size());
+            long started = System.nanoTime();
+
+            AtomicInteger nextReport = new AtomicInteger(1);
+            List<CompletableFuture<Void>> lookups = new ArrayList<>(hotSet.size());
+            for (String movieId : hotSet) {
+                lookups.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        movieService.prefetch(movieId);
+                        cached.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                        log.debug("Warm-up could not load movie {}: {}", movieId, e.getMessage());
+                    }
+                    reportQuarter(progress(), nextReport);
+                }, executor));
+            }
+            CompletableFuture.allOf(lookups.toArray(CompletableFuture[]::new)).join();
+
+            if (warmEnough(progress())) {
+                warmedUp.set(true);
+            }
+            log.info("TMDB warm-up finished in {} ms: {} of {} titles cached, {} failed",
+                    Duration.ofNanos(System.nanoTime() - started).toMillis(), cached.get(), hotSet.size(), failed.get());
+        } catch (RuntimeException e) {
+            log.warn("TMDB warm-up failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Logs at 25%, 50% and 75% of the hot set done
+    private static void reportQuarter(Progress current, AtomicInteger nextReport) {
+        int done = current.cached() + current.failed();
+        int quarter = nextReport.get();
+        if (quarter < 4 && done * 4 >= current.hotSet() * quarter && nextReport.compareAndSet(quarter, quarter + 1)) {
+            log.info("TMDB warm-up {}% done: {} of {} titles cached, {} failed",
+                    quarter * 25, current.cached(), current.hotSet(), current.failed());
+        }
+    }
+
+    /** Trending titles first, then the most watchlisted ones, without duplicates. */
+    List<String> hotSet() {
+        Set<String> ids = new LinkedHashSet<>(trendingIds());
+        ids.addAll(analyticsIndex.mostWatched(mostWatched));
+        return List.copyOf(ids);
+    }
+
+    private List<String> trendingIds() {
+        Optional<TmdbPayload> trending = trendingSnapshot.current();
+        if (trending.isEmpty()) {
+            trendingLoaded = false;
+            return List.of();
+        }
+        List<String> ids = new ArrayList<>();
+        try {
+            for (JsonNode result : objectMapper.readTree(trending.get().getBody()).path("results")) {
+                if (result.hasNonNull("id")) {
+                    ids.add(result.get("id").asText());
+                }
+            }
+            trendingLoaded = true;
+        } catch (IOException e) {
+            trendingLoaded = false;
+            log.warn("Could not read the trending list for the warm-up", e);
+        }
+        return ids;
+    }
+
+    public Progress progress() {
+        return new Progress(hotSetSize, cached.get(), failed.get(), running.get());
+    }
+
+    /** Whether enough of the hot set is cached for this instance to take traffic. */
+    public boolean isReady() {
+        if (!enabled || warmedUp.get()) {
+            return true;
+        }
+        if (warmEnough(progress())) {
+            warmedUp.set(true);
+            return true;
+        }
+        return System.nanoTime() - readyDeadline > 0;
+    }
+
+    // An empty hot set has nothing cached, so it never counts as warm
+    private boolean warmEnough(Progress current) {
+        return trendingLoaded && current.hotSet() > 0 && current.cachedShare() >= readyShare;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,81 @@
+package com.mymovielist.movieapp.service;
+
+import com.mymovielist.movieapp.model.TmdbPayload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps a pre-serialized copy of TMDB's weekly trending list in memory. A
+ * scheduled job swaps in a fresh snapshot; if TMDB fails the last good copy
+ * keeps being served. Before the first good copy, a failed fetch is remembered
+ * for a short while so callers get an empty answer instead of each retrying TMDB.
+ */
+@Service
+public class TrendingSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingSnapshotService.class);
+
+    private final MovieService movieService;
+    private final long coldRetryNanos;
+    private final AtomicReference<TmdbPayload> snapshot = new AtomicReference<>();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    // System.nanoTime() before which a cold current() doesn't try TMDB again
+    private volatile long coldRetryAt;
+    private volatile boolean failed;
+
+    @Autowired
+    public TrendingSnapshotService(MovieService movieService,
+                                   @Value("${tmdb.trending.cold-retry:PT10S}") Duration coldRetry) {
+        this.movieService = movieService;
+        this.coldRetryNanos = coldRetry.toNanos();
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${tmdb.trending.refresh-interval:PT30M}")
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            snapshot.set(movieService.getTrendingMovies());
+        } catch (RuntimeException e) {
+            failed = true;
+            coldRetryAt = System.nanoTime() + coldRetryNanos;
+            log.warn("Trending refresh failed, keeping previous snapshot", e);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    public Optional<TmdbPayload> current() {
+        TmdbPayload current = snapshot.get();
+        if (current == null) {
+            // Only reached before the first successful refresh. Callers queue on the
+            // lock so a cold start triggers a single upstream fetch, and everyone
+            // queued behind a failed fetch gives up instead of repeating it.
+            if (coolingDown()) {
+                return Optional.empty();
+            }
+            refreshLock.lock();
+            try {
+                if (snapshot.get() == null && !coolingDown()) {
+                    refresh();
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+            current = snapshot.get();
+        }
+        return Optional.ofNullable(current);
+    }
+
+    private boolean coolingDown() {
+        return failed && System.nanoTime() - coldRetryAt < 0;
+    }
+}
@@ -0,0 +1,128 @@
+package com.mymovielist.movieapp.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.mymovielist.movieapp.model.BackgroundJob;
+import com.mymovielist.movieapp.model.User;
+
+/**
+ * Deletes every user as a background job instead of one unbounded deleteAll()
+ * inside the request. Users go in batches of {@code users.purge.batch-size}, and
+ * the worker sleeps between batches to stay under {@code users.purge.max-per-second},
+ * which keeps the write load (and replication lag) on the primary predictable.
+ * A cancelled job stops after the batch in progress.
+ */
+@Service
+public class UserPurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserPurgeService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final UserService userService;
+    private final int batchSize;
+    private final int maxPerSecond;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<BackgroundJob> current = new AtomicReference<>();
+
+    @Autowired
+    public UserPurgeService(
+            MongoTemplate mongoTemplate,
+            UserService userService,
+            @Value("${users.purge.batch-size:500}") int batchSize,
+            @Value("${users.purge.max-per-second:2000}") int maxPerSecond) {
+        this.mongoTemplate = mongoTemplate;
+        this.userService = userService;
+        this.batchSize = batchSize;
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    /** Starts a purge, or returns the one already running. */
+    public BackgroundJob start() {
+        BackgroundJob job = new BackgroundJob("user-purge");
+        BackgroundJob previous = current.getAndUpdate(existing -> existing != null && existing.isRunning() ? existing : job);
+        if (previous != null && previous.isRunning()) {
+            return previous;
+        }
+        executor.execute(() -> run(job));
+        return job;
+    }
+
+    public Optional<BackgroundJob> status() {
+        return Optional.ofNullable(current.get());
+    }
+
+    /** Asks the running purge to stop; empty when nothing is running. */
+    public Optional<BackgroundJob> cancel() {
+        BackgroundJob job = current.get();
+        if (job == null || !job.isRunning()) {
+            return Optional.empty();
+        }
+        job.requestCancel();
+        return Optional.of(job);
+    }
+
+    void run(BackgroundJob job) {
+        try {
+            job.setTotal(mongoTemplate.count(new Query(), User.class));
+            long started = System.nanoTime();
+            while (!job.isCancelRequested()) {
+                // Deleted users drop out of the next query, so the first page is always the next batch
+                Query page = new Query().with(Sort.by(Sort.Order.asc("_id"))).limit(batchSize);
+                page.fields().include("_id").include("username");
+                List<User> users = mongoTemplate.find(page, User.class);
+                if (users.isEmpty()) {
+                    job.complete();
+                    return;
+                }
+                userService.deleteUsers(users);
+                job.addProcessed(users.size());
+                throttle(started, job.getProcessed());
+            }
+            job.cancel();
+            log.info("User purge cancelled after {} users", job.getProcessed());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.cancel();
+        } catch (RuntimeException e) {
+            log.error("User purge failed", e);
+            job.fail(e.getMessage());
+        }
+    }
+
+    // Sleeps until the average rate since the start is back under the limit
+    private void throttle(long startedNanos, long processed) throws InterruptedException {
+        if (maxPerSecond <= 0) {
+            return;
+        }
+        long dueNanos = startedNanos + TimeUnit.SECONDS.toNanos(processed) / maxPerSecond;
+        long waitNanos = dueNanos - System.nanoTime();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,23 +1,83 @@
 package com.mymovielist.movieapp.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mymovielist.movieapp.repository.UserRepository;
 import com.mymovielist.movieapp.model.User;
 import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.MovieEntryPage;
+import com.mymovielist.movieapp.model.Recommendation;
+import com.mymovielist.movieapp.model.SessionPrincipal;
+import com.mymovielist.movieapp.model.UserPage;
+import com.mymovielist.movieapp.model.UserSummary;
+import com.mymovielist.movieapp.model.WatchlistOperation;
+import com.mymovielist.movieapp.model.WatchlistOperationResult;
+import com.mymovielist.movieapp.model.WatchlistOperationResult.Outcome;
+import com.mymovielist.movieapp.model.WatchlistSort;
 
 @Service
 public class UserService {
+    private static final String DEFAULT_STATUS = "Plan To Watch";
+    private static final double DEFAULT_SCORE = 0.0;
+    private static final int EXPORT_BATCH_SIZE = 500;
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private WatchlistStore watchlistStore;
+
+    @Autowired
+    private WatchlistAnalyticsIndex analyticsIndex;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    // username -> user _id. Usernames never change, so an entry is only
+    // invalidated when the user is deleted.
+    private final Cache<String, String> userIds = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterAccess(Duration.ofHours(1))
+        .build();
+
+    // Only the bcrypt hash of the password is stored
     public User createUser(User user) {
+        if (user.getPassword() != null) {
+            user.setPassword(authenticationService.hash(user.getPassword()));
+        }
         return userRepository.save(user);
     }
 
@@ -25,69 +85,245 @@ public class UserService {
         return userRepository.findByUsername(username);
     }
 
-    public Optional<User> addMovieToUser(String username, String movieId) {
-        return userRepository.findByUsername(username)
-            .map(user -> {
-                if (user.getMovieEntries().stream().noneMatch(entry -> entry.getMovieId().equals(movieId))) {
-                    MovieEntry newEntry = new MovieEntry(movieId, "Plan To Watch", 0.0); // Default values
-                    user.addMovieEntry(newEntry);
-                    return userRepository.save(user);
-                }
-                return user;
-            });
+    // Watchlist mutations are single targeted writes rather than a load/modify/save
+    // of the whole User, so each costs one round trip and concurrent edits don't
+    // overwrite each other. They return whether the user exists; an add returns,
+    // for an existing user, whether the movie was added or already on the list.
+    public Optional<Boolean> addMovieToUser(String username, String movieId) {
+        return resolveUserId(username).map(id -> {
+            MovieEntry entry = new MovieEntry(movieId, DEFAULT_STATUS, DEFAULT_SCORE);
+            boolean added = watchlistStore.add(id, entry);
+            if (added) {
+                analyticsIndex.add(id, entry);
+                recommendationService.onAdd(id, entry);
+            }
+            return added;
+        });
     }
 
     public List<MovieEntry> getUserMovies(String username) {
-        return userRepository.findByUsername(username)
-            .map(User::getMovieEntries)
+        return getUserMovies(username, null, WatchlistSort.ADDED);
+    }
+
+    public List<MovieEntry> getUserMovies(String username, String status, WatchlistSort sort) {
+        return resolveUserId(username)
+            .map(userId -> watchlistStore.find(userId, status, sort))
             .orElse(List.of());
     }
 
-    public Optional<User> updateUserMovie(String username, String movieId, String status, Double score) {
-        return userRepository.findByUsername(username)
-            .map(user -> {
-                user.getMovieEntries().stream()
-                    .filter(entry -> entry.getMovieId().equals(movieId))
-                    .findFirst()
-                    .ifPresent(entry -> {
-                        entry.setStatus(status);
-                        entry.setScore(score);
-                    });
-                return userRepository.save(user);
-            });
+    /**
+     * Keyset-paginated watchlist read. Filtering, ordering and the page limit are all
+     * pushed into the store's query, so only the requested page (never the password
+     * or the rest of the list) leaves Mongo.
+     */
+    public MovieEntryPage getUserMoviesPage(String username, String status, WatchlistSort sort, String cursor, int limit) {
+        return resolveUserId(username)
+            .map(userId -> watchlistStore.findPage(userId, status, sort, cursor, limit))
+            .orElse(new MovieEntryPage(List.of(), null));
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    // Ranked from the user's own scores and the precomputed movie neighbours
+    public Optional<List<Recommendation>> getRecommendations(String username, int limit) {
+        return resolveUserId(username).map(userId -> recommendationService.recommend(userId, limit));
     }
 
-    public void deleteUser(String username) {
-        userRepository.findByUsername(username)
-            .ifPresent(userRepository::delete);
+    public boolean updateUserMovie(String username, String movieId, String status, Double score) {
+        Optional<String> userId = resolveUserId(username);
+        userId.ifPresent(id -> {
+            watchlistStore.update(id, movieId, status, score);
+            analyticsIndex.update(id, movieId, status, score);
+            recommendationService.onUpdate(id, movieId, score);
+        });
+        return userId.isPresent();
     }
 
-    public void deleteAllUsers() {
-        userRepository.deleteAll();
+    /**
+     * Applies a list of add/update/remove operations to one user's watchlist in a
+     * single ordered bulkWrite. Outcomes are resolved against the movie IDs read
+     * (projection only) before the write; every write keeps its own guard so a
+     * concurrent edit can't produce duplicates or resurrect a removed entry.
+     */
+    public Optional<List<WatchlistOperationResult>> applyWatchlistBatch(String username, List<WatchlistOperation> operations) {
+        Optional<String> userId = resolveUserId(username);
+        if (userId.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Set<String> present = new HashSet<>(watchlistStore.findPresent(userId.get(), operations.stream()
+            .filter(UserService::isValid)
+            .map(WatchlistOperation::getMovieId)
+            .toList()));
+
+        String id = userId.get();
+        WatchlistStore.Batch batch = watchlistStore.batch(id);
+        List<Runnable> indexUpdates = new ArrayList<>();
+        List<WatchlistOperationResult> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            WatchlistOperation operation = operations.get(i);
+            String movieId = operation.getMovieId();
+            Outcome outcome;
+            if (!isValid(operation)) {
+                outcome = Outcome.INVALID;
+            } else {
+                switch (operation.getOp()) {
+                    case ADD -> {
+                        if (present.add(movieId)) {
+                            MovieEntry entry = new MovieEntry(movieId,
+                                operation.getStatus() != null ? operation.getStatus() : DEFAULT_STATUS,
+                                operation.getScore() != null ? operation.getScore() : DEFAULT_SCORE);
+                            batch.add(entry);
+                            indexUpdates.add(() -> {
+                                analyticsIndex.add(id, entry);
+                                recommendationService.onAdd(id, entry);
+                            });
+                            outcome = Outcome.ADDED;
+                        } else {
+                            outcome = Outcome.ALREADY_PRESENT;
+                        }
+                    }
+                    case UPDATE -> {
+                        if (present.contains(movieId)) {
+                            batch.update(movieId, operation.getStatus(), operation.getScore());
+                            indexUpdates.add(() -> {
+                                analyticsIndex.update(id, movieId, operation.getStatus(), operation.getScore());
+                                recommendationService.onUpdate(id, movieId, operation.getScore());
+                            });
+                            outcome = Outcome.UPDATED;
+                        } else {
+                            outcome = Outcome.NOT_IN_LIST;
+                        }
+                    }
+                    default -> {
+                        if (present.remove(movieId)) {
+                            batch.remove(movieId);
+                            indexUpdates.add(() -> {
+                                analyticsIndex.remove(id, movieId);
+                                recommendationService.onRemove(id, movieId);
+                            });
+                            outcome = Outcome.REMOVED;
+                        } else {
+                            outcome = Outcome.NOT_IN_LIST;
+                        }
+                    }
+                }
+            }
+            results.add(new WatchlistOperationResult(i, movieId, outcome));
+        }
+
+        batch.execute();
+        indexUpdates.forEach(Runnable::run);
+        return Optional.of(results);
     }
 
-    public User authenticateUser(String username, String password) {
-        Optional<User> userOptional = userRepository.findByUsername(username);
-        if (userOptional.isPresent()) {
-            User user = userOptional.get();
-            if (user.getPassword().equals(password)) {
-                return user;
+    /**
+     * One page of users in _id order, starting after {@code cursor} (the last _id of
+     * the previous page). Only _id, username and email are read.
+     */
+    public UserPage getUsersPage(String cursor, int limit) {
+        Query query = summaryQuery().limit(limit + 1).with(Sort.by(Sort.Direction.ASC, "_id"));
+        if (cursor != null && !cursor.isBlank()) {
+            query.addCriteria(Criteria.where("_id").gt(new ObjectId(cursor)));
+        }
+        List<User> users = mongoTemplate.find(query, User.class);
+        boolean hasMore = users.size() > limit;
+        List<UserSummary> page = users.stream().limit(limit).map(UserSummary::of).toList();
+        return new UserPage(page, hasMore ? page.get(page.size() - 1).getId() : null);
+    }
+
+    /**
+     * Writes every user as one JSON object per line, reading them through a Mongo
+     * cursor so only the current batch is ever in memory.
+     */
+    public void exportUsers(OutputStream out) throws IOException {
+        Query query = summaryQuery().cursorBatchSize(EXPORT_BATCH_SIZE);
+        try (Stream<User> users = mongoTemplate.stream(query, User.class);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            Iterator<User> iterator = users.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                generator.writeObject(UserSummary.of(iterator.next()));
+                generator.writeRaw('\n');
+                if (++written % EXPORT_BATCH_SIZE == 0) {
+                    generator.flush();
+                }
             }
         }
-        return null;
     }
 
-    public Optional<User> removeMovieFromUser(String username, String movieId) {
-        return userRepository.findByUsername(username)
-            .map(user -> {
-                user.setMovieEntries(user.getMovieEntries().stream()
-                    .filter(entry -> !entry.getMovieId().equals(movieId))
-                    .collect(Collectors.toList()));
-                return userRepository.save(user);
+    public void deleteUser(String username) {
+        userRepository.findByUsername(username)
+            .ifPresent(user -> {
+                watchlistStore.removeAll(user.getId());
+                userRepository.delete(user);
+                analyticsIndex.removeUser(user.getId());
+                recommendationService.removeUsers(List.of(user.getId()));
+                authenticationService.evict(List.of(username));
+                userIds.invalidate(username);
+                sessionTokenService.revoke(List.of(user.getId()));
             });
     }
-}
\ No newline at end of file
+
+    /**
+     * Deletes one batch of users (each with at least _id and username) and their
+     * watchlists with two ranged deletes. Used by the purge job, which decides how
+     * big a batch is and how often one runs.
+     */
+    public void deleteUsers(List<User> users) {
+        List<String> ids = users.stream().map(User::getId).toList();
+        watchlistStore.removeAll(ids);
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), User.class);
+        analyticsIndex.removeUsers(ids);
+        recommendationService.removeUsers(ids);
+        List<String> usernames = users.stream().map(User::getUsername).toList();
+        userIds.invalidateAll(usernames);
+        authenticationService.evict(usernames);
+        sessionTokenService.revoke(ids);
+    }
+
+
+    public boolean removeMovieFromUser(String username, String movieId) {
+        Optional<String> userId = resolveUserId(username);
+        userId.ifPresent(id -> {
+            watchlistStore.remove(id, movieId);
+            analyticsIndex.remove(id, movieId);
+            recommendationService.onRemove(id, movieId);
+        });
+        return userId.isPresent();
+    }
+
+    private static Query summaryQuery() {
+        Query query = new Query();
+        query.fields().include("_id").include("username").include("email");
+        return query;
+    }
+
+    // Reads only the _id of the user; misses are not cached so a user registered
+    // after a failed lookup is found on the next request
+    private Optional<String> resolveUserId(String username) {
+        // A verified session token for this user already carries the ID
+        Optional<SessionPrincipal> principal = SessionContext.current();
+        if (principal.isPresent() && principal.get().getUsername().equals(username)) {
+            return Optional.of(principal.get().getUserId());
+        }
+        String cached = userIds.getIfPresent(username);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Query query = new Query(Criteria.where("username").is(username));
+        query.fields().include("_id");
+        User user = mongoTemplate.findOne(query, User.class);
+        if (user == null) {
+            return Optional.empty();
+        }
+        userIds.put(username, user.getId());
+        return Optional.of(user.getId());
+    }
+
+    private static boolean isValid(WatchlistOperation operation) {
+        if (operation.getOp() == null || operation.getMovieId() == null || operation.getMovieId().isBlank()) {
+            return false;
+        }
+        return operation.getOp() != WatchlistOperation.Type.UPDATE
+            || operation.getStatus() != null || operation.getScore() != null;
+    }
+}
@@ -0,0 +1,90 @@
+package com.mymovielist.movieapp.service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Virtual-thread support for a codebase that still compiles for Java 17. The Java
+ * 21 APIs are looked up reflectively, so {@code spring.threads.virtual.enabled=true}
+ * switches the blocking TMDB and Mongo paths to virtual threads when the runtime
+ * has them and is a harmless no-op when it doesn't.
+ */
+public final class VirtualThreads {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreads.class);
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method perTask = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ReflectiveOperationException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = perTask;
+    }
+
+    private VirtualThreads() {
+    }
+
+    public static boolean available() {
+        return OF_VIRTUAL != null;
+    }
+
+    /** Whether virtual threads should be used: requested in configuration and supported by the JVM. */
+    public static boolean use(boolean requested) {
+        if (requested && !available()) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; using platform threads",
+                Runtime.version().feature());
+        }
+        return requested && available();
+    }
+
+    /** Starts one virtual thread per task, named {@code prefix0}, {@code prefix1}, ... */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        try {
+            Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 0L);
+            ThreadFactory factory = (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+        } catch (ReflectiveOperationException | NullPointerException e) {
+            throw new IllegalStateException("Virtual threads are not available", e);
+        }
+    }
+
+    /**
+     * Runs at most {@code permits} tasks at once on {@code delegate}. Tasks wait for a
+     * permit on their own (virtual) thread, and a Semaphore parks without pinning
+     * the carrier the way a monitor would.
+     */
+    public static Executor bounded(Executor delegate, int permits) {
+        Semaphore semaphore = new Semaphore(permits);
+        return task -> delegate.execute(() -> {
+            semaphore.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                semaphore.release();
+            }
+        });
+    }
+}
@@ -0,0 +1,402 @@
+package com.mymovielist.movieapp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.MovieStats;
+
+/**
+ * Per-movie aggregates over every user's watchlist, kept in memory and updated
+ * on each watchlist mutation so questions like "how many users have movie X" never
+ * load users from Mongo.
+ *
+ * <p>Users and movies get dense int IDs from open-addressing String-to-int maps;
+ * a removed user's ID is reused by the next new user. Entries live in parallel
+ * primitive arrays (user, movie, status as a byte, score as a float) located
+ * through a long-keyed open-addressing map, and the aggregates are flat
+ * int/double arrays indexed by movie ID, so the heap holds a handful of large
+ * arrays rather than an object per entry. A scheduled rebuild from the store
+ * corrects any drift.
+ */
+@Component
+public class WatchlistAnalyticsIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchlistAnalyticsIndex.class);
+
+    static final int MAX_STATUSES = 16;
+    static final int SCORE_BUCKETS = 11;
+    private static final String OTHER_STATUS = "Other";
+
+    private final WatchlistStore watchlistStore;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+    // Mutations seen while a rebuild is reading the store, replayed onto the new state
+    private List<Consumer<State>> replayLog;
+
+    @Autowired
+    public WatchlistAnalyticsIndex(WatchlistStore watchlistStore) {
+        this.watchlistStore = watchlistStore;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${watchlist.analytics.rebuild-interval:P1D}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            replayLog = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        State fresh = new State();
+        try {
+            watchlistStore.forEachEntry((userId, entry) ->
+                fresh.add(userId, entry.getMovieId(), entry.getStatus(), entry.getScore()));
+        } catch (RuntimeException e) {
+            log.warn("Watchlist analytics rebuild failed, keeping the current index", e);
+            lock.writeLock().lock();
+            try {
+                replayLog = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            replayLog.forEach(mutation -> mutation.accept(fresh));
+            replayLog = null;
+            state = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Watchlist analytics index rebuilt with {} entries", fresh.entries.size());
+    }
+
+    public void add(String userId, MovieEntry entry) {
+        mutate(s -> s.add(userId, entry.getMovieId(), entry.getStatus(), entry.getScore()));
+    }
+
+    public void update(String userId, String movieId, String status, Double score) {
+        mutate(s -> s.update(userId, movieId, status, score));
+    }
+
+    public void remove(String userId, String movieId) {
+        mutate(s -> s.remove(userId, movieId));
+    }
+
+    public void removeUser(String userId) {
+        removeUsers(List.of(userId));
+    }
+
+    public void removeUsers(Collection<String> userIds) {
+        mutate(s -> s.removeUsers(userIds));
+    }
+
+    public MovieStats stats(String movieId) {
+        lock.readLock().lock();
+        try {
+            return state.stats(movieId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** IDs of the movies on the most watchlists, most first. */
+    public List<String> mostWatched(int limit) {
+        lock.readLock().lock();
+        try {
+            return state.mostWatched(limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Copies every rated entry (score above 0) for the recommendation batch job. */
+    RatingMatrix ratings() {
+        lock.readLock().lock();
+        try {
+            return state.ratings();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void mutate(Consumer<State> mutation) {
+        lock.writeLock().lock();
+        try {
+            mutation.accept(state);
+            if (replayLog != null) {
+                replayLog.add(mutation);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static int scoreBucket(float score) {
+        return Math.max(0, Math.min(SCORE_BUCKETS - 1, Math.round(score)));
+    }
+
+    private static final class State {
+        private final StringIntMap userIds = new StringIntMap(1024);
+        private int userCount;
+        private int[] freeUsers = new int[64];
+        private int freeUserCount;
+        private final StringIntMap movieIds = new StringIntMap(1024);
+        private String[] movieKeys = new String[1024];
+        private final Map<String, Byte> statusCodes = new HashMap<>();
+        private final List<String> statusNames = new ArrayList<>();
+
+        // Entry slots; a free slot has entryMovie == -1
+        private final LongIntMap entries = new LongIntMap(1024);
+        private int[] entryUser = new int[1024];
+        private int[] entryMovie = new int[1024];
+        private byte[] entryStatus = new byte[1024];
+        private float[] entryScore = new float[1024];
+        private int slotCount;
+        private int[] freeSlots = new int[64];
+        private int freeCount;
+
+        // Aggregates indexed by movie ID
+        private int[] watchers = new int[1024];
+        private int[] statusCounts = new int[1024 * MAX_STATUSES];
+        private int[] histogram = new int[1024 * SCORE_BUCKETS];
+        private double[] scoreSum = new double[1024];
+        private int[] ratedCount = new int[1024];
+
+        void add(String userId, String movieId, String status, Double score) {
+            int user = userIndex(userId);
+            int movie = movieIndex(movieId);
+            long key = key(user, movie);
+            if (entries.get(key) >= 0) {
+                return;
+            }
+            int slot = allocateSlot();
+            entries.put(key, slot);
+            entryUser[slot] = user;
+            entryMovie[slot] = movie;
+            entryStatus[slot] = statusCode(status);
+            entryScore[slot] = score == null ? 0f : score.floatValue();
+            account(slot, 1);
+        }
+
+        void update(String userId, String movieId, String status, Double score) {
+            int slot = slotOf(userId, movieId);
+            if (slot < 0) {
+                return;
+            }
+            account(slot, -1);
+            if (status != null) {
+                entryStatus[slot] = statusCode(status);
+            }
+            if (score != null) {
+                entryScore[slot] = score.floatValue();
+            }
+            account(slot, 1);
+        }
+
+        void remove(String userId, String movieId) {
+            int slot = slotOf(userId, movieId);
+            if (slot >= 0) {
+                release(slot);
+            }
+        }
+
+        // One pass over the slots however many users are removed; their IDs are
+        // free for reuse once none of their entries is left
+        void removeUsers(Collection<String> removed) {
+            boolean[] users = new boolean[userCount];
+            boolean any = false;
+            for (String userId : removed) {
+                int user = userIds.get(userId);
+                if (user >= 0) {
+                    users[user] = true;
+                    any = true;
+                }
+            }
+            if (!any) {
+                return;
+            }
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (entryMovie[slot] >= 0 && users[entryUser[slot]]) {
+                    release(slot);
+                }
+            }
+            for (String userId : removed) {
+                int user = userIds.remove(userId);
+                if (user >= 0) {
+                    if (freeUserCount == freeUsers.length) {
+                        freeUsers = Arrays.copyOf(freeUsers, freeUserCount * 2);
+                    }
+                    freeUsers[freeUserCount++] = user;
+                }
+            }
+        }
+
+        MovieStats stats(String movieId) {
+            int movie = movieIds.get(movieId);
+            if (movie < 0) {
+                return new MovieStats(movieId, 0, null, new int[SCORE_BUCKETS], Map.of());
+            }
+            Map<String, Integer> breakdown = new LinkedHashMap<>();
+            for (int code = 0; code < statusNames.size(); code++) {
+                int count = statusCounts[movie * MAX_STATUSES + code];
+                if (count > 0) {
+                    breakdown.put(statusNames.get(code), count);
+                }
+            }
+            int[] movieHistogram = Arrays.copyOfRange(histogram, movie * SCORE_BUCKETS, (movie + 1) * SCORE_BUCKETS);
+            Double average = ratedCount[movie] == 0 ? null : scoreSum[movie] / ratedCount[movie];
+            return new MovieStats(movieId, watchers[movie], average, movieHistogram, breakdown);
+        }
+
+        List<String> mostWatched(int limit) {
+            PriorityQueue<Integer> top = new PriorityQueue<>(
+                (a, b) -> watchers[a] != watchers[b] ? Integer.compare(watchers[a], watchers[b]) : Integer.compare(b, a));
+            for (int movie = 0; movie < movieIds.size(); movie++) {
+                if (watchers[movie] == 0) {
+                    continue;
+                }
+                top.add(movie);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            String[] ranked = new String[top.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = movieKeys[top.poll()];
+            }
+            return Arrays.asList(ranked);
+        }
+
+        RatingMatrix ratings() {
+            int[] users = new int[slotCount];
+            int[] movies = new int[slotCount];
+            float[] scores = new float[slotCount];
+            int size = 0;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (entryMovie[slot] >= 0 && scoreBucket(entryScore[slot]) > 0) {
+                    users[size] = entryUser[slot];
+                    movies[size] = entryMovie[slot];
+                    scores[size] = entryScore[slot];
+                    size++;
+                }
+            }
+            return new RatingMatrix(users, movies, scores, size, userCount,
+                Arrays.copyOf(movieKeys, movieIds.size()));
+        }
+
+        private int slotOf(String userId, String movieId) {
+            int user = userIds.get(userId);
+            int movie = movieIds.get(movieId);
+            return user < 0 || movie < 0 ? -1 : entries.get(key(user, movie));
+        }
+
+        private void release(int slot) {
+            account(slot, -1);
+            entries.remove(key(entryUser[slot], entryMovie[slot]));
+            entryMovie[slot] = -1;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        }
+
+        private void account(int slot, int delta) {
+            int movie = entryMovie[slot];
+            float score = entryScore[slot];
+            int bucket = scoreBucket(score);
+            watchers[movie] += delta;
+            statusCounts[movie * MAX_STATUSES + entryStatus[slot]] += delta;
+            histogram[movie * SCORE_BUCKETS + bucket] += delta;
+            if (bucket > 0) {
+                scoreSum[movie] += delta * score;
+                ratedCount[movie] += delta;
+            }
+        }
+
+        private int allocateSlot() {
+            if (freeCount > 0) {
+                return freeSlots[--freeCount];
+            }
+            if (slotCount == entryUser.length) {
+                int capacity = slotCount * 2;
+                entryUser = Arrays.copyOf(entryUser, capacity);
+                entryMovie = Arrays.copyOf(entryMovie, capacity);
+                entryStatus = Arrays.copyOf(entryStatus, capacity);
+                entryScore = Arrays.copyOf(entryScore, capacity);
+            }
+            return slotCount++;
+        }
+
+        private int userIndex(String userId) {
+            int existing = userIds.get(userId);
+            if (existing >= 0) {
+                return existing;
+            }
+            int user = freeUserCount > 0 ? freeUsers[--freeUserCount] : userCount++;
+            userIds.put(userId, user);
+            return user;
+        }
+
+        private int movieIndex(String movieId) {
+            int existing = movieIds.get(movieId);
+            if (existing >= 0) {
+                return existing;
+            }
+            int movie = movieIds.size();
+            movieIds.put(movieId, movie);
+            if (movie == movieKeys.length) {
+                int capacity = movie * 2;
+                movieKeys = Arrays.copyOf(movieKeys, capacity);
+                watchers = Arrays.copyOf(watchers, capacity);
+                statusCounts = Arrays.copyOf(statusCounts, capacity * MAX_STATUSES);
+                histogram = Arrays.copyOf(histogram, capacity * SCORE_BUCKETS);
+                scoreSum = Arrays.copyOf(scoreSum, capacity);
+                ratedCount = Arrays.copyOf(ratedCount, capacity);
+            }
+            movieKeys[movie] = movieId;
+            return movie;
+        }
+
+        // Statuses are free-form strings; the first MAX_STATUSES - 1 distinct values
+        // get their own code and anything beyond that is counted as "Other"
+        private byte statusCode(String status) {
+            String name = status == null ? "None" : status;
+            Byte code = statusCodes.get(name);
+            if (code != null) {
+                return code;
+            }
+            if (statusNames.size() == MAX_STATUSES - 1) {
+                statusNames.add(OTHER_STATUS);
+            }
+            if (statusNames.size() >= MAX_STATUSES) {
+                return MAX_STATUSES - 1;
+            }
+            byte assigned = (byte) statusNames.size();
+            statusNames.add(name);
+            statusCodes.put(name, assigned);
+            return assigned;
+        }
+
+        private static long key(int user, int movie) {
+            return ((long) user << 32) | movie;
+        }
+    }
+}
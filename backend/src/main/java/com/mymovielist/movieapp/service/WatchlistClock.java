@@ -0,0 +1,22 @@
+package com.mymovielist.movieapp.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out {@link com.mymovielist.movieapp.model.MovieEntry#getAddedAt() addedAt}
+ * stamps: wall-clock milliseconds, bumped so that two adds on this instance never
+ * share one. Entries that still tie (added on different instances in the same
+ * millisecond) are ordered by movieId.
+ */
+final class WatchlistClock {
+
+    private static final AtomicLong last = new AtomicLong();
+
+    private WatchlistClock() {
+    }
+
+    static long next() {
+        long now = System.currentTimeMillis();
+        return last.updateAndGet(previous -> Math.max(previous + 1, now));
+    }
+}
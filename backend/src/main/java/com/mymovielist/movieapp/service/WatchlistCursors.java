@@ -0,0 +1,55 @@
+package com.mymovielist.movieapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Page cursors are opaque to clients: the keyset position of the last entry on
+ * a page, base64url-encoded. Score-ordered cursors are "score|movieId", and
+ * added-ordered ones "addedAt|movieId".
+ */
+final class WatchlistCursors {
+
+    private WatchlistCursors() {
+    }
+
+    static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String encodeScore(double score, String movieId) {
+        return encode(score + "|" + movieId);
+    }
+
+    static String encodeAdded(long addedAt, String movieId) {
+        return encode(addedAt + "|" + movieId);
+    }
+
+    static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    static double scoreOf(String raw) {
+        return Double.parseDouble(keyOf(raw));
+    }
+
+    static long addedAtOf(String raw) {
+        return Long.parseLong(keyOf(raw));
+    }
+
+    private static String keyOf(String raw) {
+        int separator = raw.indexOf('|');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return raw.substring(0, separator);
+    }
+
+    static String movieIdOf(String raw) {
+        return raw.substring(raw.indexOf('|') + 1);
+    }
+}
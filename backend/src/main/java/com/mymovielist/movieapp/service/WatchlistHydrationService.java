@@ -0,0 +1,132 @@
+package com.mymovielist.movieapp.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mymovielist.movieapp.model.HydratedMovieEntry;
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.TmdbPayload;
+
+/**
+ * Joins watchlist entries with their TMDB details server-side, replacing one
+ * browser request per entry. Cached details are used without any I/O; misses are
+ * fetched concurrently on a fixed pool so a long list costs roughly one upstream
+ * round trip while never holding more than {@code watchlist.hydrate.parallelism}
+ * calls open at once.
+ */
+@Service
+public class WatchlistHydrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchlistHydrationService.class);
+
+    private final MovieService movieService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+    private final Executor lookups;
+
+    @Autowired
+    public WatchlistHydrationService(
+            MovieService movieService,
+            ObjectMapper objectMapper,
+            @Value("${watchlist.hydrate.parallelism:16}") int parallelism,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.movieService = movieService;
+        this.objectMapper = objectMapper;
+        if (VirtualThreads.use(virtualThreads)) {
+            // One cheap thread per lookup; the semaphore still caps open TMDB calls
+            this.executor = VirtualThreads.newThreadPerTaskExecutor("watchlist-hydrate-");
+            this.lookups = VirtualThreads.bounded(executor, parallelism);
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "watchlist-hydrate-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.lookups = executor;
+        }
+    }
+
+    // A details lookup and the entry hydrated from it. Only the lookup itself can be
+    // cancelled before it runs; cancelling the derived entry leaves it queued.
+    private record Lookup(CompletableFuture<TmdbPayload> details, CompletableFuture<HydratedMovieEntry> entry) {
+    }
+
+    /** Starts a details lookup for every entry; the futures never complete exceptionally. */
+    public List<CompletableFuture<HydratedMovieEntry>> hydrate(List<MovieEntry> entries) {
+        return lookup(entries).stream().map(Lookup::entry).toList();
+    }
+
+    private List<Lookup> lookup(List<MovieEntry> entries) {
+        return entries.stream()
+            .map(entry -> {
+                CompletableFuture<TmdbPayload> details = movieService.getMovieDetailsAsync(entry.getMovieId(), lookups);
+                return new Lookup(details, details
+                    .thenApply(payload -> toHydrated(entry, payload))
+                    .exceptionally(e -> {
+                        log.warn("Could not hydrate movie {}: {}", entry.getMovieId(), e.getMessage());
+                        return HydratedMovieEntry.unavailable(entry);
+                    }));
+            })
+            .toList();
+    }
+
+    /**
+     * Writes the hydrated entries as a JSON array in list order, flushing each one
+     * as soon as it and everything before it are ready.
+     */
+    public void writeHydrated(List<MovieEntry> entries, OutputStream out) throws IOException {
+        List<Lookup> pending = lookup(entries);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            for (Lookup lookup : pending) {
+                generator.writeObject(lookup.entry().join());
+                generator.flush();
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            // Client went away; don't keep fetching for nobody. Lookups still queued
+            // on the pool see the cancellation and never call TMDB.
+            pending.forEach(lookup -> lookup.details().cancel(false));
+            throw e;
+        }
+    }
+
+    HydratedMovieEntry toHydrated(MovieEntry entry, TmdbPayload details) {
+        try {
+            JsonNode movie = objectMapper.readTree(details.getBody());
+            return new HydratedMovieEntry(entry,
+                movie.path("title").asText(null),
+                movie.path("original_title").asText(null),
+                movie.path("poster_path").asText(null),
+                movie.hasNonNull("runtime") ? movie.get("runtime").asInt() : null,
+                movie.path("release_date").asText(null),
+                movie.path("production_countries").path(0).path("iso_3166_1").asText(null),
+                movie.path("genres").path(0).path("name").asText(null));
+        } catch (IOException e) {
+            throw new RuntimeException("Unreadable movie details", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,138 @@
+package com.mymovielist.movieapp.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.mymovielist.movieapp.model.BackgroundJob;
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.User;
+import com.mymovielist.movieapp.model.WatchlistEntry;
+
+/**
+ * Copies embedded movieEntries arrays into the movie_entries collection while the
+ * application keeps serving traffic. Users are walked in _id order in batches,
+ * and each batch becomes one unordered bulk that reconciles every user's rows
+ * with their array: upserts keyed on (userId, movieId) for the entries in it, and
+ * a delete of the rows no longer in it. The job can be re-run or resumed without
+ * creating duplicates, and an entry removed from the array doesn't survive in the
+ * copy. Each row gets the entry's addedAt, or its array index for an entry not
+ * yet stamped, so "added" order in the collection matches the array.
+ *
+ * <p>Switch {@code watchlist.storage} to {@code migrating} first, so every write
+ * reaches both layouts, then run the job; a second run reconciles any user whose
+ * entries changed while the first was copying them. From then on the copy stays
+ * current and the property can move to {@code collection} without a write
+ * freeze. After that switch the array is stale, so a run refuses to start instead
+ * of bringing back entries that were removed in collection mode.
+ */
+@Service
+public class WatchlistMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(WatchlistMigrationService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private final boolean embeddedIsSource;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "watchlist-migration");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<BackgroundJob> current = new AtomicReference<>();
+
+    @Autowired
+    public WatchlistMigrationService(
+            MongoTemplate mongoTemplate,
+            @Value("${watchlist.migration.batch-size:500}") int batchSize,
+            @Value("${watchlist.storage:embedded}") String storage) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+        this.embeddedIsSource = !"collection".equals(storage);
+    }
+
+    /** Starts a migration, or returns the one already running. */
+    public BackgroundJob start() {
+        BackgroundJob job = new BackgroundJob("watchlist-migration");
+        BackgroundJob previous = current.getAndUpdate(existing -> existing != null && existing.isRunning() ? existing : job);
+        if (previous != null && previous.isRunning()) {
+            return previous;
+        }
+        executor.execute(() -> run(job));
+        return job;
+    }
+
+    public Optional<BackgroundJob> status() {
+        return Optional.ofNullable(current.get());
+    }
+
+    void run(BackgroundJob job) {
+        if (!embeddedIsSource) {
+            job.fail("watchlist.storage is collection; the embedded arrays are no longer the source of truth");
+            return;
+        }
+        try {
+            CollectionWatchlistStore.ensureIndexes(mongoTemplate);
+            job.setTotal(mongoTemplate.count(new Query(), User.class));
+
+            String lastId = null;
+            while (true) {
+                Query page = lastId == null ? new Query() : new Query(Criteria.where("_id").gt(lastId));
+                page.fields().include("_id").include("movieEntries");
+                page.with(Sort.by(Sort.Order.asc("_id"))).limit(batchSize);
+                List<User> users = mongoTemplate.find(page, User.class);
+                if (users.isEmpty()) {
+                    break;
+                }
+                copy(users);
+                job.addProcessed(users.size());
+                lastId = users.get(users.size() - 1).getId();
+            }
+            job.complete();
+        } catch (RuntimeException e) {
+            log.error("Watchlist migration failed", e);
+            job.fail(e.getMessage());
+        }
+    }
+
+    private void copy(List<User> users) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WatchlistEntry.class);
+        for (User user : users) {
+            List<MovieEntry> entries = user.getMovieEntries() == null ? List.of() : user.getMovieEntries();
+            List<String> movieIds = entries.stream().map(MovieEntry::getMovieId).toList();
+            // Rows the upserts below don't touch, so the bulk can stay unordered
+            bulk.remove(new Query(Criteria.where("userId").is(user.getId()).and("movieId").nin(movieIds)));
+            for (int i = 0; i < entries.size(); i++) {
+                MovieEntry entry = entries.get(i);
+                Query query = new Query(Criteria.where("userId").is(user.getId()).and("movieId").is(entry.getMovieId()));
+                double score = entry.getScore() == null ? 0.0 : entry.getScore();
+                long addedAt = entry.getAddedAt() == null ? i : entry.getAddedAt();
+                bulk.upsert(query, new Update().set("status", entry.getStatus()).set("score", score).set("addedAt", addedAt));
+            }
+        }
+        if (!users.isEmpty()) {
+            bulk.execute();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,58 @@
+package com.mymovielist.movieapp.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.MovieEntryPage;
+import com.mymovielist.movieapp.model.WatchlistSort;
+
+/**
+ * Storage for users' watchlist entries, keyed by the user's primary key. The
+ * layout is chosen with {@code watchlist.storage}: {@code embedded} keeps entries
+ * in the User document's movieEntries array, {@code collection} keeps them as
+ * individual documents in the indexed movie_entries collection, and
+ * {@code migrating} reads the array while writing both, for the move from one to
+ * the other.
+ */
+public interface WatchlistStore {
+
+    /** Adds the entry unless the user already has that movie, and returns whether it did. */
+    boolean add(String userId, MovieEntry entry);
+
+    /** Sets status and/or score on an existing entry; null values are left unchanged. */
+    void update(String userId, String movieId, String status, Double score);
+
+    void remove(String userId, String movieId);
+
+    List<MovieEntry> find(String userId, String status, WatchlistSort sort);
+
+    MovieEntryPage findPage(String userId, String status, WatchlistSort sort, String cursor, int limit);
+
+    /** Returns which of the given movie IDs are on the user's list. */
+    Set<String> findPresent(String userId, Collection<String> movieIds);
+
+    /** Starts an ordered batch of writes that is sent in one round trip on {@link Batch#execute()}. */
+    Batch batch(String userId);
+
+    /** Drops every entry belonging to the user. */
+    void removeAll(String userId);
+
+    /** Drops every entry of the given users. */
+    void removeAll(Collection<String> userIds);
+
+    /** Streams every entry of every user, for building in-memory indexes. */
+    void forEachEntry(BiConsumer<String, MovieEntry> consumer);
+
+    interface Batch {
+        void add(MovieEntry entry);
+
+        void update(String movieId, String status, Double score);
+
+        void remove(String movieId);
+
+        void execute();
+    }
+}
@@ -0,0 +1,86 @@
+package com.mymovielist.movieapp.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.UriUtils;
+
+import com.mymovielist.movieapp.model.SessionPrincipal;
+import com.mymovielist.movieapp.service.SessionContext;
+import com.mymovielist.movieapp.service.SessionTokenService;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link SessionTokenFilter} for the reactive build. The verified caller goes into
+ * the exchange attributes, where the reactive controllers look for it, since there
+ * is no request-bound thread to hang it on.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSessionTokenFilter implements WebFilter {
+
+    private final SessionTokenService tokenService;
+    private final boolean required;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    public ReactiveSessionTokenFilter(SessionTokenService tokenService, @Value("${auth.token.required:false}") boolean required) {
+        this.tokenService = tokenService;
+        this.required = required;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (HttpMethod.OPTIONS.equals(exchange.getRequest().getMethod())) {
+            return chain.filter(exchange);
+        }
+
+        Optional<SessionPrincipal> principal = Optional.empty();
+        String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(SessionTokenFilter.BEARER)) {
+            principal = tokenService.verify(header.substring(SessionTokenFilter.BEARER.length()).trim());
+            if (principal.isEmpty() && required) {
+                return reject(exchange, HttpStatus.UNAUTHORIZED);
+            }
+        }
+
+        String username = pathUsername(exchange);
+        if (username != null) {
+            if (principal.isPresent() && principal.get().getUsername().equals(username)) {
+                exchange.getAttributes().put(SessionContext.PRINCIPAL_ATTRIBUTE, principal.get());
+            } else if (required) {
+                return reject(exchange, principal.isPresent() ? HttpStatus.FORBIDDEN : HttpStatus.UNAUTHORIZED);
+            }
+        }
+        return chain.filter(exchange);
+    }
+
+    private String pathUsername(ServerWebExchange exchange) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (!pathMatcher.match(SessionTokenFilter.USER_PATH, path)) {
+            return null;
+        }
+        Map<String, String> variables = pathMatcher.extractUriTemplateVariables(SessionTokenFilter.USER_PATH, path);
+        // The raw path is still percent-encoded, unlike the servlet request path
+        String username = UriUtils.decode(variables.get("username"), StandardCharsets.UTF_8);
+        return SessionTokenFilter.RESERVED.contains(username) ? null : username;
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange, HttpStatus status) {
+        exchange.getResponse().setStatusCode(status);
+        return exchange.getResponse().setComplete();
+    }
+}
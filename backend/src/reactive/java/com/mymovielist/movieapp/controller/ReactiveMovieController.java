@@ -0,0 +1,144 @@
+package com.mymovielist.movieapp.controller;
+
+import com.mymovielist.movieapp.config.MovieCachePolicies;
+import com.mymovielist.movieapp.model.MovieNeighbours.Neighbour;
+import com.mymovielist.movieapp.model.MovieStats;
+import com.mymovielist.movieapp.model.TmdbPayload;
+import com.mymovielist.movieapp.service.JsonFieldProjector;
+import com.mymovielist.movieapp.service.ReactiveMovieService;
+import com.mymovielist.movieapp.service.RecommendationService;
+import com.mymovielist.movieapp.service.TrendingSnapshotService;
+import com.mymovielist.movieapp.service.WatchlistAnalyticsIndex;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// Same routes and responses as MovieController, for the reactive build, including
+// its mapping of TMDB failures to 503, 504 and 404
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/movies")
+public class ReactiveMovieController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveMovieController.class);
+
+    @Autowired
+    private ReactiveMovieService movieService;
+
+    @Autowired
+    private TrendingSnapshotService trendingSnapshotService;
+
+    @Autowired
+    private JsonFieldProjector jsonFieldProjector;
+
+    @Autowired
+    private WatchlistAnalyticsIndex watchlistAnalyticsIndex;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private MovieCachePolicies cachePolicies;
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<?>> searchMovies(@RequestParam String query, @RequestParam(required = false) String fields,
+                                                ServerWebExchange exchange) {
+        return passthrough(movieService.searchMovies(query), fields, cachePolicies.search(), exchange)
+            .onErrorResume(e -> {
+                log.warn("Search for '{}' failed", query, e);
+                return Mono.just(MovieController.failure(e)
+                    .body(Map.of("message", "Error searching for movie: " + e.getMessage())));
+            });
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<?>> getMovieDetails(@PathVariable String id, @RequestParam(required = false) String fields,
+                                                   ServerWebExchange exchange) {
+        return passthrough(movieService.getMovieDetails(id), fields, cachePolicies.details(), exchange)
+            .onErrorResume(e -> {
+                log.warn("Details for movie {} failed", id, e);
+                return Mono.just(MovieController.failure(e).build());
+            });
+    }
+
+    // A cold snapshot is fetched from TMDB under a lock, so this stays off the event loop
+    @GetMapping("/trending")
+    public Mono<ResponseEntity<?>> getTrendingMovies() {
+        return Mono.fromCallable(trendingSnapshotService::current)
+            .subscribeOn(Schedulers.boundedElastic())
+            .map(current -> current.<ResponseEntity<?>>map(snapshot -> ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.getEtag())
+                .lastModified(snapshot.getFetchedAt())
+                .cacheControl(cachePolicies.trending())
+                .body(snapshot.getBody()))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error fetching trending movies"))));
+    }
+
+    @GetMapping("/{id}/videos")
+    public Mono<ResponseEntity<?>> getMovieVideos(@PathVariable String id, @RequestParam(required = false) String fields,
+                                                  ServerWebExchange exchange) {
+        return passthrough(movieService.getMovieVideos(id), fields, cachePolicies.videos(), exchange)
+            .onErrorResume(e -> {
+                log.warn("Videos for movie {} failed", id, e);
+                return Mono.just(MovieController.failure(e).build());
+            });
+    }
+
+    // In-memory reads, answered on the event loop
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<MovieStats> getMovieStats(@PathVariable String id) {
+        return ResponseEntity.ok()
+            .cacheControl(cachePolicies.stats())
+            .body(watchlistAnalyticsIndex.stats(id));
+    }
+
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<Neighbour>> getSimilarMovies(@PathVariable String id) {
+        return ResponseEntity.ok()
+            .cacheControl(cachePolicies.similar())
+            .body(recommendationService.similar(id));
+    }
+
+    private Mono<ResponseEntity<?>> passthrough(Mono<TmdbPayload> payload, String fields, CacheControl cacheControl,
+                                                ServerWebExchange exchange) {
+        return payload.handle((details, sink) -> {
+            try {
+                boolean projected = fields != null && !fields.isBlank();
+                String etag = projected ? details.getEtag(fields) : details.getEtag();
+                if (exchange.checkNotModified(etag, details.getFetchedAt())) {
+                    sink.next(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(cacheControl)
+                        .build());
+                    return;
+                }
+                byte[] body = projected ? jsonFieldProjector.project(details.getBody(), fields) : details.getBody();
+                sink.next(ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag(etag)
+                    .lastModified(details.getFetchedAt())
+                    .cacheControl(cacheControl)
+                    .body(body));
+            } catch (IOException e) {
+                sink.error(e);
+            }
+        });
+    }
+}
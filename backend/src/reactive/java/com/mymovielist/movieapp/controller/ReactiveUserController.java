@@ -0,0 +1,360 @@
+package com.mymovielist.movieapp.controller;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.mymovielist.movieapp.config.MovieCachePolicies;
+import com.mymovielist.movieapp.model.BackgroundJob;
+import com.mymovielist.movieapp.model.HydratedMovieEntry;
+import com.mymovielist.movieapp.model.LoginRequest;
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.MovieEntryColumns;
+import com.mymovielist.movieapp.model.MovieEntryPage;
+import com.mymovielist.movieapp.model.Recommendation;
+import com.mymovielist.movieapp.model.SessionPrincipal;
+import com.mymovielist.movieapp.model.User;
+import com.mymovielist.movieapp.model.UserSummary;
+import com.mymovielist.movieapp.model.WatchlistOperation;
+import com.mymovielist.movieapp.model.WatchlistSort;
+import com.mymovielist.movieapp.repository.ReactiveUserRepository;
+import com.mymovielist.movieapp.service.AuthenticationService;
+import com.mymovielist.movieapp.service.ReactiveMovieService;
+import com.mymovielist.movieapp.service.SessionContext;
+import com.mymovielist.movieapp.service.SessionTokenService;
+import com.mymovielist.movieapp.service.TrendingSnapshotService;
+import com.mymovielist.movieapp.service.UserPurgeService;
+import com.mymovielist.movieapp.service.UserService;
+import com.mymovielist.movieapp.service.WatchlistMigrationService;
+import com.mymovielist.movieapp.service.WatchlistStore;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Same routes and responses as UserController, for the reactive build. Users are
+ * resolved and listed through reactive Mongo, and list hydration composes the TMDB
+ * lookups on the event loop. Watchlist writes still go through UserService, which
+ * also keeps the analytics and recommendation indexes in step. Those calls, and the
+ * watchlist store reads, use the blocking template and run on the bounded elastic
+ * pool so they never hold an event-loop thread.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/users")
+public class ReactiveUserController {
+    private static final String COLUMNAR = "columnar";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReactiveUserRepository reactiveUserRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    private WatchlistStore watchlistStore;
+
+    @Autowired
+    private ReactiveMovieService movieService;
+
+    @Autowired
+    private TrendingSnapshotService trendingSnapshotService;
+
+    @Autowired
+    private WatchlistMigrationService watchlistMigrationService;
+
+    @Autowired
+    private UserPurgeService userPurgeService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private SessionTokenService sessionTokenService;
+
+    @Autowired
+    private MovieCachePolicies cachePolicies;
+
+    @Value("${watchlist.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${watchlist.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${users.page.max-size:500}")
+    private int maxUserPageSize;
+
+    // bcrypt is CPU-bound, so the hash is taken off the event loop before the insert
+    @PostMapping("/register")
+    public Mono<ResponseEntity<User>> registerUser(@RequestBody User user) {
+        return blocking(() -> {
+                if (user.getPassword() != null) {
+                    user.setPassword(authenticationService.hash(user.getPassword()));
+                }
+                return user;
+            })
+            .flatMap(reactiveUserRepository::save)
+            .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/{username}/movies")
+    public Mono<ResponseEntity<?>> addMovieToUser(@PathVariable String username, @RequestBody Map<String, String> payload) {
+        String movieId = payload.get("movieId");
+        return blocking(() -> userService.addMovieToUser(username, movieId))
+            .<ResponseEntity<?>>map(added -> added
+                .<ResponseEntity<?>>map(wasAdded -> ResponseEntity.ok().body(wasAdded
+                    ? Map.of("message", "Movie added successfully", "added", true)
+                    : Map.of("message", "Movie is already in the list", "added", false)))
+                .orElseGet(() -> ResponseEntity.notFound().build()))
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("message", "Error adding movie: " + e.getMessage()))));
+    }
+
+    @PostMapping("/{username}/movies/batch")
+    public Mono<ResponseEntity<?>> applyWatchlistBatch(@PathVariable String username, @RequestBody List<WatchlistOperation> operations) {
+        if (operations.size() > maxBatchSize) {
+            return Mono.just(ResponseEntity.badRequest()
+                .body(Map.of("message", "Batch too large, at most " + maxBatchSize + " operations are allowed")));
+        }
+        return blocking(() -> userService.applyWatchlistBatch(username, operations))
+            .map(results -> results
+                .<ResponseEntity<?>>map(applied -> ResponseEntity.ok().body(Map.of("results", applied)))
+                .orElse(ResponseEntity.notFound().build()));
+    }
+
+    @GetMapping("/{username}/movies")
+    public Mono<ResponseEntity<?>> getUserMovies(
+        @PathVariable String username,
+        @RequestParam(required = false) String status,
+        @RequestParam(required = false) String sort,
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) String format,
+        ServerWebExchange exchange
+    ) {
+        boolean columnar = COLUMNAR.equals(format);
+        if (format != null && !columnar) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("message", "Unknown format: " + format)));
+        }
+        WatchlistSort order;
+        try {
+            order = WatchlistSort.fromValue(sort);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("message", "Invalid sort or cursor: " + e.getMessage())));
+        }
+        if (limit == null) {
+            return watchlist(username, status, order, exchange)
+                .<ResponseEntity<?>>map(entries -> ResponseEntity.ok(columnar ? MovieEntryColumns.of(entries, null) : entries));
+        }
+        if (limit < 1 || limit > maxPageSize) {
+            return Mono.just(ResponseEntity.badRequest()
+                .body(Map.of("message", "limit must be between 1 and " + maxPageSize)));
+        }
+        return resolveUserId(username, exchange)
+            .flatMap(userId -> blocking(() -> watchlistStore.findPage(userId, status, order, cursor, limit)))
+            .defaultIfEmpty(new MovieEntryPage(List.of(), null))
+            .<ResponseEntity<?>>map(page -> ResponseEntity.ok(columnar
+                ? MovieEntryColumns.of(page.getEntries(), page.getNextCursor())
+                : page))
+            .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest()
+                .body(Map.of("message", "Invalid sort or cursor: " + e.getMessage()))));
+    }
+
+    // Entries are written in list order as their lookups finish; no thread waits on TMDB
+    @GetMapping(value = "/{username}/movies/hydrated", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<HydratedMovieEntry> getHydratedUserMovies(
+        @PathVariable String username,
+        @RequestParam(required = false) String status,
+        @RequestParam(required = false) String sort,
+        ServerWebExchange exchange
+    ) {
+        WatchlistSort order;
+        try {
+            order = WatchlistSort.fromValue(sort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sort: " + sort);
+        }
+        return watchlist(username, status, order, exchange).flatMapMany(movieService::hydrate);
+    }
+
+    @GetMapping("/{username}/recommendations")
+    public Mono<ResponseEntity<List<Recommendation>>> getRecommendations(
+        @PathVariable String username,
+        @RequestParam(defaultValue = "20") int limit
+    ) {
+        return blocking(() -> userService.getRecommendations(username, Math.max(1, limit)))
+            .map(recommendations -> recommendations
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build()));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<?>> getAllUsers(
+        @RequestParam(defaultValue = "100") int limit,
+        @RequestParam(required = false) String cursor
+    ) {
+        if (limit < 1 || limit > maxUserPageSize) {
+            return Mono.just(ResponseEntity.badRequest()
+                .body(Map.of("message", "limit must be between 1 and " + maxUserPageSize)));
+        }
+        return blocking(() -> userService.getUsersPage(cursor, limit))
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest()
+                .body(Map.of("message", "Invalid cursor: " + cursor))));
+    }
+
+    // Each user is written as soon as the cursor yields it; demand from the client
+    // connection decides how fast batches are pulled from Mongo
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserSummary> exportUsers() {
+        Query query = new Query();
+        query.fields().include("_id").include("username").include("email");
+        return reactiveMongoTemplate.find(query, User.class).map(UserSummary::of);
+    }
+
+    @DeleteMapping("/{username}")
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable String username) {
+        return blocking(() -> {
+                userService.deleteUser(username);
+                return ResponseEntity.noContent().<Void>build();
+            });
+    }
+
+    @DeleteMapping("/all")
+    public ResponseEntity<BackgroundJob> deleteAllUsers() {
+        return ResponseEntity.accepted().body(userPurgeService.start());
+    }
+
+    @GetMapping("/purge")
+    public ResponseEntity<BackgroundJob> getUserPurge() {
+        return userPurgeService.status()
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/purge/cancel")
+    public ResponseEntity<BackgroundJob> cancelUserPurge() {
+        return userPurgeService.cancel()
+            .map(job -> ResponseEntity.accepted().body(job))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<?>> login(@RequestBody LoginRequest loginRequest) {
+        String username = loginRequest.getUsername();
+        if (username == null || loginRequest.getPassword() == null) {
+            return Mono.just(invalidCredentials());
+        }
+        // authenticate() looks the user up before handing off the hash, so it is called off the event loop
+        return Mono.defer(() -> Mono.fromFuture(authenticationService.authenticate(username, loginRequest.getPassword())))
+            .subscribeOn(Schedulers.boundedElastic())
+            .<ResponseEntity<?>>map(userId -> userId.isPresent()
+                ? loggedIn(sessionTokenService.principal(userId.get(), username))
+                : invalidCredentials())
+            .onErrorResume(RejectedExecutionException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("success", false, "message", "Too many login attempts, try again shortly"))));
+    }
+
+    private ResponseEntity<?> loggedIn(SessionPrincipal principal) {
+        return ResponseEntity.ok().body(Map.of(
+            "success", true,
+            "username", principal.getUsername(),
+            "token", sessionTokenService.issue(principal),
+            "expiresAt", principal.getExpiresAt()));
+    }
+
+    private static ResponseEntity<?> invalidCredentials() {
+        return ResponseEntity.badRequest().body(Map.of("success", false, "message", "Invalid credentials"));
+    }
+
+    @DeleteMapping("/{username}/movies/{movieId}")
+    public Mono<ResponseEntity<?>> removeMovieFromUser(@PathVariable String username, @PathVariable String movieId) {
+        return blocking(() -> userService.removeMovieFromUser(username, movieId))
+            .<ResponseEntity<?>>map(removed -> removed
+                ? ResponseEntity.ok().body(Map.of("message", "Movie removed successfully"))
+                : ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{username}/movies/{movieId}")
+    public Mono<ResponseEntity<?>> updateUserMovie(
+        @PathVariable String username,
+        @PathVariable String movieId,
+        @RequestBody Map<String, Object> updates
+    ) {
+        return blocking(() -> {
+                String status = (String) updates.get("status");
+                Double score = ((Number) updates.get("score")).doubleValue();
+                return userService.updateUserMovie(username, movieId, status, score);
+            })
+            .<ResponseEntity<?>>map(updated -> updated
+                ? ResponseEntity.ok().body(Map.of("message", "Movie updated successfully"))
+                : ResponseEntity.notFound().build())
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("message", "Error updating movie: " + e.getMessage()))));
+    }
+
+    @PostMapping("/migrations/watchlist")
+    public ResponseEntity<BackgroundJob> startWatchlistMigration() {
+        return ResponseEntity.accepted().body(watchlistMigrationService.start());
+    }
+
+    @GetMapping("/migrations/watchlist")
+    public ResponseEntity<BackgroundJob> getWatchlistMigration() {
+        return watchlistMigrationService.status()
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    // A cold snapshot is fetched from TMDB under a lock, so this stays off the event loop
+    @GetMapping("/trending")
+    public Mono<ResponseEntity<?>> getTrendingMovies() {
+        return blocking(trendingSnapshotService::current)
+            .map(current -> current.<ResponseEntity<?>>map(snapshot -> ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.getEtag())
+                .lastModified(snapshot.getFetchedAt())
+                .cacheControl(cachePolicies.trending())
+                .body(snapshot.getBody()))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error fetching trending movies"))));
+    }
+
+    // An unknown user has an empty list, as on the servlet stack
+    private Mono<List<MovieEntry>> watchlist(String username, String status, WatchlistSort order, ServerWebExchange exchange) {
+        return resolveUserId(username, exchange)
+            .flatMap(userId -> blocking(() -> watchlistStore.find(userId, status, order)))
+            .defaultIfEmpty(List.of());
+    }
+
+    // A verified session token for this user already carries the ID
+    private Mono<String> resolveUserId(String username, ServerWebExchange exchange) {
+        SessionPrincipal principal = exchange.getAttribute(SessionContext.PRINCIPAL_ATTRIBUTE);
+        if (principal != null && principal.getUsername().equals(username)) {
+            return Mono.just(principal.getUserId());
+        }
+        return reactiveUserRepository.findIdByUsername(username).map(User::getId);
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
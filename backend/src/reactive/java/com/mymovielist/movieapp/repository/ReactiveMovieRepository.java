@@ -0,0 +1,7 @@
+package com.mymovielist.movieapp.repository;
+
+import com.mymovielist.movieapp.model.Movie;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ReactiveMovieRepository extends ReactiveMongoRepository<Movie, String> {
+}
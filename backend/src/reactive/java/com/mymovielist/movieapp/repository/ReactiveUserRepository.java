@@ -0,0 +1,13 @@
+package com.mymovielist.movieapp.repository;
+
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import com.mymovielist.movieapp.model.User;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+    // Reads only the _id, so neither the password nor an embedded watchlist leaves Mongo
+    @Query(value = "{ 'username': ?0 }", fields = "{ '_id': 1 }")
+    Mono<User> findIdByUsername(String username);
+}
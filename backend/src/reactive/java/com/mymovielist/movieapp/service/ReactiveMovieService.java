@@ -0,0 +1,154 @@
+package com.mymovielist.movieapp.service;
+
+import com.mymovielist.movieapp.model.HydratedMovieEntry;
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.TmdbPayload;
+import com.mymovielist.movieapp.repository.ReactiveMovieRepository;
+import com.mymovielist.movieapp.service.TmdbResponseCache.Endpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * {@link MovieService} for the reactive build. It shares the response cache, the
+ * local search index and the catalog with the servlet stack. The catalog is read
+ * through the reactive repository and TMDB through {@link ReactiveTmdbClient}, so
+ * a lookup holds no thread while it waits.
+ */
+@Service
+public class ReactiveMovieService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveMovieService.class);
+    private static final int SEARCH_PAGE_SIZE = 20;
+
+    private final ReactiveTmdbClient tmdbClient;
+    private final TmdbResponseCache responseCache;
+    private final ReactiveMovieRepository movieRepository;
+    private final MovieCatalogService movieCatalog;
+    private final MovieSearchIndex searchIndex;
+    private final WatchlistHydrationService hydrationService;
+    private final int hydrateParallelism;
+    // Concurrent misses for the same key subscribe to one shared upstream call
+    private final ConcurrentMap<String, Mono<TmdbPayload>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReactiveMovieService(
+            ReactiveTmdbClient tmdbClient,
+            TmdbResponseCache responseCache,
+            ReactiveMovieRepository movieRepository,
+            MovieCatalogService movieCatalog,
+            MovieSearchIndex searchIndex,
+            WatchlistHydrationService hydrationService,
+            @Value("${watchlist.hydrate.parallelism:16}") int hydrateParallelism) {
+        this.tmdbClient = tmdbClient;
+        this.responseCache = responseCache;
+        this.movieRepository = movieRepository;
+        this.movieCatalog = movieCatalog;
+        this.searchIndex = searchIndex;
+        this.hydrationService = hydrationService;
+        this.hydrateParallelism = hydrateParallelism;
+    }
+
+    public Mono<TmdbPayload> searchMovies(String query) {
+        Optional<TmdbPayload> local = searchIndex.searchPayload(query, SEARCH_PAGE_SIZE);
+        if (local.isPresent()) {
+            return Mono.just(local.get());
+        }
+        String key = query.trim().toLowerCase(Locale.ROOT);
+        return cached(Endpoint.SEARCH, key, () -> tmdbClient.get("search/movie", Map.of("query", query))
+                .doOnNext(searchIndex::addSearchResults));
+    }
+
+    public Mono<TmdbPayload> getMovieDetails(String movieId) {
+        return cached(Endpoint.DETAILS, movieId, () -> detailsCall(movieId));
+    }
+
+    public Mono<TmdbPayload> getMovieVideos(String movieId) {
+        return cached(Endpoint.VIDEOS, movieId, () -> tmdbClient.get("movie/" + movieId + "/videos", Map.of()));
+    }
+
+    /**
+     * Joins each entry with its details, in list order. At most
+     * {@code watchlist.hydrate.parallelism} lookups are subscribed at once and cached
+     * entries complete immediately; a failed lookup yields an unhydrated entry.
+     */
+    public Flux<HydratedMovieEntry> hydrate(List<MovieEntry> entries) {
+        return Flux.fromIterable(entries)
+                .flatMapSequential(entry -> getMovieDetails(entry.getMovieId())
+                        .map(details -> hydrationService.toHydrated(entry, details))
+                        .onErrorResume(e -> {
+                            log.warn("Could not hydrate movie {}: {}", entry.getMovieId(), e.getMessage());
+                            return Mono.just(HydratedMovieEntry.unavailable(entry));
+                        }), hydrateParallelism);
+    }
+
+    // Same read-through as MovieService: a fresh catalog copy is served as-is, and a
+    // stale one is still served if TMDB can't be reached
+    private Mono<TmdbPayload> detailsCall(String movieId) {
+        return movieRepository.findById(movieId)
+                .onErrorResume(DataAccessException.class, e -> {
+                    log.warn("Catalog lookup failed for movie {}", movieId, e);
+                    return Mono.empty();
+                })
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(stored -> {
+                    if (stored.isPresent() && !movieCatalog.isStale(stored.get())) {
+                        return Mono.just(stored.get().toPayload());
+                    }
+                    return tmdbClient.get("movie/" + movieId, Map.of("language", "en-US"))
+                            .doOnNext(payload -> store(movieId, payload))
+                            .onErrorResume(e -> stored.isPresent(), e -> {
+                                log.warn("TMDB unavailable, serving stale catalog entry for movie {}", movieId, e);
+                                return Mono.just(stored.get().toPayload());
+                            });
+                });
+    }
+
+    // The catalog write compares content hashes and bumps versions through the
+    // blocking template; it runs on the bounded elastic pool and nothing waits for it
+    private void store(String movieId, TmdbPayload payload) {
+        Mono.fromRunnable(() -> movieCatalog.save(movieId, payload))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe();
+    }
+
+    // As in MovieService, when TMDB can't be reached (out of budget, circuit open,
+    // bulkhead full, timeout or a 5xx) the last copy fetched for the key is served
+    // even if it has expired
+    private Mono<TmdbPayload> cached(Endpoint endpoint, String key, Supplier<Mono<TmdbPayload>> call) {
+        Optional<TmdbPayload> hit = responseCache.get(endpoint, key);
+        if (hit.isPresent()) {
+            return Mono.just(hit.get());
+        }
+        return Mono.defer(() -> inFlight.computeIfAbsent(endpoint + ":" + key, flightKey -> Mono.defer(() -> {
+                    // Re-checked in case a previous flight finished just before this one
+                    Optional<TmdbPayload> cachedPayload = responseCache.peek(endpoint, key);
+                    return cachedPayload.map(Mono::just).orElseGet(() -> call.get()
+                            .doOnNext(payload -> responseCache.put(endpoint, key, payload)));
+                })
+                .doFinally(signal -> inFlight.remove(flightKey))
+                .cache()))
+                .onErrorResume(e -> !(e instanceof TmdbResponseException response) || response.isUpstreamFault(),
+                        e -> responseCache.stale(endpoint, key)
+                                .map(stale -> {
+                                    log.warn("TMDB unavailable, serving stale {} entry for {}: {}", endpoint, key, e.getMessage());
+                                    return Mono.just(stale);
+                                })
+                                .orElseGet(() -> Mono.error(e)));
+    }
+}
@@ -0,0 +1,130 @@
+package com.mymovielist.movieapp.service;
+
+import com.mymovielist.movieapp.model.TmdbPayload;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Non-blocking counterpart of {@link TmdbGateway}. Calls run on the Netty event
+ * loop; waiting for TMDB holds a connection from a bounded pool but no thread.
+ * When every connection is busy, lookups wait in a bounded queue, and past that
+ * limit they fail at once. That is the backpressure that stops a traffic spike
+ * from turning into an unbounded backlog of upstream calls.
+ *
+ * <p>Calls take a {@link TmdbRateLimiter} token and a {@link TmdbResilience} permit
+ * first, and fail with the same exceptions as {@link TmdbGateway#get}. There is no
+ * hedging here; a slow call only holds a connection, not a thread.
+ */
+@Component
+public class ReactiveTmdbClient {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final WebClient webClient;
+    private final TmdbResilience resilience;
+    private final TmdbRateLimiter rateLimiter;
+    private final String apiKey;
+
+    @Autowired
+    public ReactiveTmdbClient(
+            WebClient.Builder webClientBuilder,
+            TmdbResilience resilience,
+            TmdbRateLimiter rateLimiter,
+            @Value("${tmdb.api.key}") String apiKey,
+            @Value("${tmdb.api.base-url:https://api.themoviedb.org/3/}") String baseUrl,
+            @Value("${tmdb.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${tmdb.http.read-timeout:5s}") Duration readTimeout,
+            @Value("${tmdb.http.keep-alive:5m}") Duration keepAlive,
+            @Value("${tmdb.reactive.max-connections:256}") int maxConnections,
+            @Value("${tmdb.reactive.max-pending:4096}") int maxPending,
+            @Value("${tmdb.reactive.pending-timeout:2s}") Duration pendingTimeout) {
+        ConnectionProvider connections = ConnectionProvider.builder("tmdb")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxPending)
+                .pendingAcquireTimeout(pendingTimeout)
+                .maxIdleTime(keepAlive)
+                .build();
+        HttpClient httpClient = HttpClient.create(connections)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        this.webClient = webClientBuilder
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        this.resilience = resilience;
+        this.rateLimiter = rateLimiter;
+        this.apiKey = apiKey;
+    }
+
+    public Mono<TmdbPayload> get(String path, Map<String, String> queryParams) {
+        // Both may wait briefly for a token or a bulkhead slot, so admission runs off the event loop
+        Mono<TmdbResilience.Permit> admission = Mono.fromCallable(() -> {
+                    rateLimiter.acquire(TmdbRateLimiter.Priority.INTERACTIVE);
+                    return resilience.acquire(path);
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+        return Mono.usingWhen(admission,
+                permit -> call(path, queryParams)
+                        .timeout(permit.timeout(), Mono.error(() -> new InterruptedIOException(
+                                "TMDB call timed out after " + permit.timeout().toMillis() + " ms")))
+                        .doOnNext(payload -> permit.succeeded())
+                        .doOnError(e -> failed(permit, e)),
+                permit -> Mono.fromRunnable(permit::close));
+    }
+
+    private Mono<TmdbPayload> call(String path, Map<String, String> queryParams) {
+        return webClient.get()
+                .uri(uri -> {
+                    // Values go in as template variables so they are fully encoded ("&", "+", "{")
+                    Map<String, String> values = new HashMap<>(queryParams);
+                    values.put("api_key", apiKey);
+                    uri.path(path);
+                    values.keySet().forEach(name -> uri.queryParam(name, "{" + name + "}"));
+                    return uri.build(values);
+                })
+                .retrieve()
+                .onStatus(status -> !status.is2xxSuccessful(),
+                        response -> Mono.error(new TmdbResponseException(response.statusCode().value(),
+                                "Unexpected code " + response.statusCode(),
+                                TmdbGateway.retryAfter(response.headers().asHttpHeaders().getFirst("Retry-After")))))
+                .bodyToMono(byte[].class)
+                .switchIfEmpty(Mono.error(() -> new IOException("Empty response for " + path)))
+                .onErrorMap(e -> e instanceof WebClientRequestException && e.getCause() instanceof ReadTimeoutException,
+                        e -> new InterruptedIOException("TMDB read timed out: " + e.getMessage()))
+                // Keep the raw bytes; callers pass them through without re-encoding
+                .map(body -> new TmdbPayload(body, Instant.now()));
+    }
+
+    // Same bookkeeping as TmdbGateway: only 429, 5xx, timeouts and transport errors count against the route
+    private void failed(TmdbResilience.Permit permit, Throwable e) {
+        if (e instanceof TmdbResponseException response) {
+            if (response.getCode() == TOO_MANY_REQUESTS) {
+                rateLimiter.backOff(response.getRetryAfter());
+            }
+            if (response.isUpstreamFault()) {
+                permit.failed(false);
+            } else {
+                permit.succeeded();
+            }
+        } else {
+            permit.failed(e instanceof InterruptedIOException);
+        }
+    }
+}
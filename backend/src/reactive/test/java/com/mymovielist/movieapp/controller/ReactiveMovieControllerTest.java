@@ -0,0 +1,114 @@
+package com.mymovielist.movieapp.controller;
+
+import com.mymovielist.movieapp.config.MovieCachePolicies;
+import com.mymovielist.movieapp.model.TmdbPayload;
+import com.mymovielist.movieapp.service.JsonFieldProjector;
+import com.mymovielist.movieapp.service.ReactiveMovieService;
+import com.mymovielist.movieapp.service.RecommendationService;
+import com.mymovielist.movieapp.service.SessionTokenService;
+import com.mymovielist.movieapp.service.TmdbResponseException;
+import com.mymovielist.movieapp.service.TmdbUnavailableException;
+import com.mymovielist.movieapp.service.TrendingSnapshotService;
+import com.mymovielist.movieapp.service.WatchlistAnalyticsIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(ReactiveMovieController.class)
+@Import(MovieCachePolicies.class)
+public class ReactiveMovieControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveMovieService movieService;
+
+    @MockBean
+    private TrendingSnapshotService trendingSnapshotService;
+
+    @MockBean
+    private JsonFieldProjector jsonFieldProjector;
+
+    @MockBean
+    private WatchlistAnalyticsIndex watchlistAnalyticsIndex;
+
+    @MockBean
+    private RecommendationService recommendationService;
+
+    @MockBean
+    private SessionTokenService sessionTokenService;
+
+    @Test
+    public void testGetMovieDetails() {
+        TmdbPayload details = TmdbPayload.of("{\"id\": 550}");
+        when(movieService.getMovieDetails("550")).thenReturn(Mono.just(details));
+
+        webTestClient.get().uri("/api/movies/550")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", details.getEtag())
+                .expectBody().jsonPath("$.id").isEqualTo(550);
+    }
+
+    @Test
+    public void testGetMovieDetails_TmdbUnavailable() {
+        when(movieService.getMovieDetails("550")).thenReturn(Mono.error(
+                new TmdbUnavailableException("Circuit open for TMDB movie/{id}", Duration.ofMillis(12_500))));
+
+        webTestClient.get().uri("/api/movies/550")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals("Retry-After", "13");
+    }
+
+    @Test
+    public void testGetMovieDetails_TmdbTimedOut() {
+        when(movieService.getMovieDetails("550"))
+                .thenReturn(Mono.error(new InterruptedIOException("TMDB call timed out after 800 ms")));
+
+        webTestClient.get().uri("/api/movies/550")
+                .exchange()
+                .expectStatus().isEqualTo(504);
+    }
+
+    @Test
+    public void testGetMovieVideos_UnknownMovie() {
+        when(movieService.getMovieVideos("0"))
+                .thenReturn(Mono.error(new TmdbResponseException(404, "Unexpected code 404")));
+
+        webTestClient.get().uri("/api/movies/0/videos")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testSearchMovies_OtherFailuresAreStill500() {
+        when(movieService.searchMovies("inception")).thenReturn(Mono.error(new IOException("Empty response")));
+
+        webTestClient.get().uri("/api/movies/search?query=inception")
+                .exchange()
+                .expectStatus().is5xxServerError()
+                .expectBody().jsonPath("$.message").isEqualTo("Error searching for movie: Empty response");
+    }
+
+    @Test
+    public void testGetTrendingMovies_Unavailable() {
+        when(trendingSnapshotService.current()).thenReturn(Optional.empty());
+
+        webTestClient.get().uri("/api/movies/trending")
+                .exchange()
+                .expectStatus().isEqualTo(500);
+    }
+}
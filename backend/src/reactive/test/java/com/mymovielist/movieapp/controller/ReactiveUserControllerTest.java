@@ -0,0 +1,247 @@
+package com.mymovielist.movieapp.controller;
+
+import com.mymovielist.movieapp.config.MovieCachePolicies;
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.MovieEntryPage;
+import com.mymovielist.movieapp.model.SessionPrincipal;
+import com.mymovielist.movieapp.model.TmdbPayload;
+import com.mymovielist.movieapp.model.User;
+import com.mymovielist.movieapp.model.WatchlistSort;
+import com.mymovielist.movieapp.repository.ReactiveUserRepository;
+import com.mymovielist.movieapp.service.AuthenticationService;
+import com.mymovielist.movieapp.service.ReactiveMovieService;
+import com.mymovielist.movieapp.service.SessionTokenService;
+import com.mymovielist.movieapp.service.TrendingSnapshotService;
+import com.mymovielist.movieapp.service.UserPurgeService;
+import com.mymovielist.movieapp.service.UserService;
+import com.mymovielist.movieapp.service.WatchlistMigrationService;
+import com.mymovielist.movieapp.service.WatchlistStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(ReactiveUserController.class)
+@Import(MovieCachePolicies.class)
+public class ReactiveUserControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private ReactiveUserRepository reactiveUserRepository;
+
+    @MockBean
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @MockBean
+    private WatchlistStore watchlistStore;
+
+    @MockBean
+    private ReactiveMovieService movieService;
+
+    @MockBean
+    private TrendingSnapshotService trendingSnapshotService;
+
+    @MockBean
+    private WatchlistMigrationService watchlistMigrationService;
+
+    @MockBean
+    private UserPurgeService userPurgeService;
+
+    @MockBean
+    private AuthenticationService authenticationService;
+
+    @MockBean
+    private SessionTokenService sessionTokenService;
+
+    @BeforeEach
+    public void setup() {
+        User user = new User();
+        user.setId("u1");
+        when(reactiveUserRepository.findIdByUsername("testuser")).thenReturn(Mono.just(user));
+        when(reactiveUserRepository.findIdByUsername("missing")).thenReturn(Mono.empty());
+    }
+
+    @Test
+    public void testAddMovieToUser() {
+        when(userService.addMovieToUser("testuser", "123")).thenReturn(Optional.of(true));
+
+        webTestClient.post().uri("/api/users/{username}/movies", "testuser")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"movieId\": \"123\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.message").isEqualTo("Movie added successfully");
+
+        verify(userService, times(1)).addMovieToUser("testuser", "123");
+    }
+
+    @Test
+    public void testAddMovieToUser_AlreadyInList() {
+        when(userService.addMovieToUser("testuser", "123")).thenReturn(Optional.of(false));
+
+        webTestClient.post().uri("/api/users/{username}/movies", "testuser")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"movieId\": \"123\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.added").isEqualTo(false);
+    }
+
+    @Test
+    public void testAddMovieToUser_UnknownUser() {
+        when(userService.addMovieToUser("missing", "123")).thenReturn(Optional.empty());
+
+        webTestClient.post().uri("/api/users/{username}/movies", "missing")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"movieId\": \"123\"}")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testGetUserMovies() {
+        when(watchlistStore.find("u1", null, WatchlistSort.ADDED)).thenReturn(List.of(new MovieEntry("123", "Watched", 8.5)));
+
+        webTestClient.get().uri("/api/users/{username}/movies", "testuser")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].movieId").isEqualTo("123");
+    }
+
+    @Test
+    public void testGetUserMovies_UnknownUserHasAnEmptyList() {
+        webTestClient.get().uri("/api/users/{username}/movies", "missing")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().json("[]");
+
+        verifyNoInteractions(watchlistStore);
+    }
+
+    @Test
+    public void testGetUserMoviesPage_Columnar() {
+        when(watchlistStore.findPage("u1", null, WatchlistSort.ADDED, null, 2)).thenReturn(new MovieEntryPage(List.of(
+                new MovieEntry("123", "Completed", 8.5),
+                new MovieEntry("456", "Plan to Watch", null)), "next-cursor"));
+
+        webTestClient.get().uri("/api/users/{username}/movies?limit=2&format=columnar", "testuser")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.movieId[1]").isEqualTo("456")
+                .jsonPath("$.statuses[1]").isEqualTo("Plan to Watch")
+                .jsonPath("$.status[1]").isEqualTo(1)
+                .jsonPath("$.nextCursor").isEqualTo("next-cursor");
+    }
+
+    @Test
+    public void testGetUserMovies_UnknownFormat() {
+        webTestClient.get().uri("/api/users/{username}/movies?format=xml", "testuser")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void testDeleteUser() {
+        webTestClient.delete().uri("/api/users/{username}", "testuser")
+                .exchange()
+                .expectStatus().isNoContent();
+
+        verify(userService, times(1)).deleteUser("testuser");
+    }
+
+    @Test
+    public void testGetTrendingMovies() {
+        TmdbPayload snapshot = TmdbPayload.of("{\"results\": []}");
+        when(trendingSnapshotService.current()).thenReturn(Optional.of(snapshot));
+
+        webTestClient.get().uri("/api/users/trending")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", snapshot.getEtag())
+                .expectHeader().valueEquals("Cache-Control", "max-age=300, public, stale-while-revalidate=1800")
+                .expectBody().jsonPath("$.results").isArray();
+
+        webTestClient.get().uri("/api/users/trending")
+                .header("If-None-Match", snapshot.getEtag())
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    public void testLogin() {
+        when(authenticationService.authenticate("testuser", "password"))
+            .thenReturn(CompletableFuture.completedFuture(Optional.of("u1")));
+        when(authenticationService.authenticate("testuser", "wrong"))
+            .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+        SessionPrincipal principal = new SessionPrincipal("u1", "testuser", Instant.parse("2030-01-01T00:00:00Z"));
+        when(sessionTokenService.principal("u1", "testuser")).thenReturn(principal);
+        when(sessionTokenService.issue(principal)).thenReturn("signed.token");
+
+        webTestClient.post().uri("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"username\": \"testuser\", \"password\": \"password\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.success").isEqualTo(true)
+                .jsonPath("$.token").isEqualTo("signed.token");
+
+        webTestClient.post().uri("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"username\": \"testuser\", \"password\": \"wrong\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.success").isEqualTo(false);
+    }
+
+    @Test
+    public void testLogin_LooksTheUserUpOffTheEventLoop() {
+        AtomicReference<String> thread = new AtomicReference<>();
+        when(authenticationService.authenticate("testuser", "password")).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return CompletableFuture.completedFuture(Optional.empty());
+        });
+
+        webTestClient.post().uri("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"username\": \"testuser\", \"password\": \"password\"}")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        assertTrue(thread.get().startsWith("boundedElastic"), thread.get());
+    }
+
+    @Test
+    public void testLogin_Overloaded() {
+        when(authenticationService.authenticate("testuser", "password")).thenThrow(new RejectedExecutionException());
+
+        webTestClient.post().uri("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"username\": \"testuser\", \"password\": \"password\"}")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals("Retry-After", "1");
+    }
+}
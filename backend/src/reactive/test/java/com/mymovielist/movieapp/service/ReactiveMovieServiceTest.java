@@ -0,0 +1,175 @@
+package com.mymovielist.movieapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mymovielist.movieapp.model.HydratedMovieEntry;
+import com.mymovielist.movieapp.model.Movie;
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.TmdbPayload;
+import com.mymovielist.movieapp.repository.ReactiveMovieRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ReactiveMovieServiceTest {
+
+    @Mock
+    private ReactiveTmdbClient tmdbClient;
+
+    @Mock
+    private ReactiveMovieRepository movieRepository;
+
+    @Mock
+    private MovieCatalogService movieCatalog;
+
+    @Mock
+    private MovieSearchIndex searchIndex;
+
+    private TmdbResponseCache responseCache;
+    private ReactiveMovieService movieService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        responseCache = new TmdbResponseCache(Duration.ofHours(6), Duration.ofHours(6), Duration.ofMinutes(10),
+            1000, 1 << 20, Duration.ofHours(24), new SimpleMeterRegistry());
+        WatchlistHydrationService hydrationService = new WatchlistHydrationService(null, new ObjectMapper(), 1, false);
+        movieService = new ReactiveMovieService(tmdbClient, responseCache, movieRepository, movieCatalog,
+            searchIndex, hydrationService, 4);
+        when(movieRepository.findById(anyString())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneUpstreamCall() {
+        Sinks.One<TmdbPayload> upstream = Sinks.one();
+        when(tmdbClient.get(eq("movie/550"), any())).thenReturn(upstream.asMono());
+
+        Mono<TmdbPayload> first = movieService.getMovieDetails("550");
+        Mono<TmdbPayload> second = movieService.getMovieDetails("550");
+        TmdbPayload payload = TmdbPayload.of("{\"id\": 550}");
+
+        StepVerifier.create(Flux.merge(first, second))
+            .then(() -> upstream.tryEmitValue(payload))
+            .expectNext(payload, payload)
+            .verifyComplete();
+
+        verify(tmdbClient, times(1)).get(eq("movie/550"), any());
+        verify(movieCatalog, timeout(1000)).save("550", payload);
+        assertSame(payload, responseCache.peek(TmdbResponseCache.Endpoint.DETAILS, "550").orElseThrow());
+    }
+
+    @Test
+    public void testFreshCatalogEntrySkipsTmdb() {
+        Movie stored = new Movie();
+        stored.setId("550");
+        stored.setDetails("{\"id\": 550}".getBytes());
+        stored.setRefreshAfter(Instant.now().plusSeconds(60));
+        when(movieRepository.findById("550")).thenReturn(Mono.just(stored));
+        when(movieCatalog.isStale(stored)).thenReturn(false);
+
+        StepVerifier.create(movieService.getMovieDetails("550"))
+            .assertNext(payload -> assertArrayEquals(stored.getDetails(), payload.getBody()))
+            .verifyComplete();
+
+        verifyNoInteractions(tmdbClient);
+    }
+
+    @Test
+    public void testStaleCatalogEntryServedWhenTmdbFails() {
+        Movie stored = new Movie();
+        stored.setId("550");
+        stored.setDetails("{\"id\": 550}".getBytes());
+        when(movieRepository.findById("550")).thenReturn(Mono.just(stored));
+        when(movieCatalog.isStale(stored)).thenReturn(true);
+        when(tmdbClient.get(eq("movie/550"), any())).thenReturn(Mono.error(new IOException("down")));
+
+        StepVerifier.create(movieService.getMovieDetails("550"))
+            .assertNext(payload -> assertArrayEquals(stored.getDetails(), payload.getBody()))
+            .verifyComplete();
+    }
+
+    @Test
+    public void testSearchAnsweredFromLocalIndex() {
+        TmdbPayload local = TmdbPayload.of("{\"results\": []}");
+        when(searchIndex.searchPayload("inception", 20)).thenReturn(Optional.of(local));
+
+        StepVerifier.create(movieService.searchMovies("inception"))
+            .expectNext(local)
+            .verifyComplete();
+
+        verifyNoInteractions(tmdbClient);
+    }
+
+    @Test
+    public void testHydrateKeepsListOrderAndMarksFailures() {
+        Sinks.One<TmdbPayload> slow = Sinks.one();
+        when(tmdbClient.get(eq("movie/1"), any())).thenReturn(slow.asMono());
+        when(tmdbClient.get(eq("movie/2"), any())).thenReturn(Mono.just(TmdbPayload.of("{\"title\": \"Second\"}")));
+        when(tmdbClient.get(eq("movie/3"), any())).thenReturn(Mono.error(new IOException("down")));
+        List<MovieEntry> entries = List.of(
+            new MovieEntry("1", "Completed", 8.0),
+            new MovieEntry("2", "Watching", 0.0),
+            new MovieEntry("3", "Dropped", 2.0));
+
+        StepVerifier.create(movieService.hydrate(entries).collectList())
+            .then(() -> slow.tryEmitValue(TmdbPayload.of("{\"title\": \"First\"}")))
+            .assertNext(hydrated -> {
+                assertEquals(List.of("1", "2", "3"), hydrated.stream().map(HydratedMovieEntry::getMovieId).toList());
+                assertEquals("First", hydrated.get(0).getTitle());
+                assertEquals("Second", hydrated.get(1).getTitle());
+                assertFalse(hydrated.get(2).isHydrated());
+            })
+            .verifyComplete();
+    }
+
+    private ReactiveMovieService withVideosTtl(Duration videosTtl) {
+        TmdbResponseCache shortLived = new TmdbResponseCache(Duration.ofHours(6), videosTtl, Duration.ofMinutes(10),
+            1000, 1 << 20, Duration.ofHours(24), new SimpleMeterRegistry());
+        return new ReactiveMovieService(tmdbClient, shortLived, movieRepository, movieCatalog, searchIndex,
+            new WatchlistHydrationService(null, new ObjectMapper(), 1, false), 4);
+    }
+
+    @Test
+    public void testExpiredCopyServedWhenTmdbIsUnavailable() throws Exception {
+        ReactiveMovieService shortLived = withVideosTtl(Duration.ofMillis(1));
+        TmdbPayload videos = TmdbPayload.of("{\"results\": []}");
+        when(tmdbClient.get(eq("movie/550/videos"), any())).thenReturn(Mono.just(videos),
+            Mono.error(new TmdbUnavailableException("Circuit open for TMDB movie/{id}/videos", Duration.ofSeconds(5))));
+        shortLived.getMovieVideos("550").block();
+        Thread.sleep(20);
+
+        StepVerifier.create(shortLived.getMovieVideos("550"))
+            .expectNext(videos)
+            .verifyComplete();
+    }
+
+    @Test
+    public void testNotFoundIsNotServedStale() throws Exception {
+        ReactiveMovieService shortLived = withVideosTtl(Duration.ofMillis(1));
+        when(tmdbClient.get(eq("movie/550/videos"), any())).thenReturn(Mono.just(TmdbPayload.of("{\"results\": []}")),
+            Mono.error(new TmdbResponseException(404, "Unexpected code 404")));
+        shortLived.getMovieVideos("550").block();
+        Thread.sleep(20);
+
+        StepVerifier.create(shortLived.getMovieVideos("550"))
+            .expectErrorMatches(e -> e instanceof TmdbResponseException response && response.getCode() == 404)
+            .verify();
+    }
+}
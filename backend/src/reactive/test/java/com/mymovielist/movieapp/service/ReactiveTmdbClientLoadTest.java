@@ -0,0 +1,180 @@
+package com.mymovielist.movieapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The reactive client against the servlet stack's blocking gateway, with the same
+ * stub upstream taking 500 ms per response. On Tomcat's default 200 platform
+ * threads no more than 200 lookups are ever waiting on TMDB, so 1000 need five
+ * waves; on the event loop they wait together with no thread per call. The
+ * assertions are on the number of calls in flight at the stub; timings are logged
+ * for comparison but depend too much on the machine to assert on. The two
+ * throughput runs are tagged "benchmark" and only run with {@code -Pbenchmark}.
+ */
+public class ReactiveTmdbClientLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveTmdbClientLoadTest.class);
+
+    private static final long UPSTREAM_LATENCY_MS = 500;
+    private static final int CALLS = 1000;
+    private static final int PLATFORM_THREADS = 200;
+
+    private DisposableServer upstream;
+    private String baseUrl;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicReference<String> lastQuery = new AtomicReference<>();
+
+    @BeforeEach
+    public void setup() {
+        // A non-blocking stub, so the upstream itself never runs out of threads
+        upstream = HttpServer.create()
+            .host("127.0.0.1")
+            .port(0)
+            .route(routes -> routes
+                .get("/3/search/movie", (request, response) -> {
+                    lastQuery.set(request.uri());
+                    return response.sendString(Mono.just("{\"results\": []}"));
+                })
+                .get("/3/movie/{id}", (request, response) -> response.sendString(Mono.just("{\"id\": 550}")
+                    .delaySubscription(Duration.ofMillis(UPSTREAM_LATENCY_MS))
+                    .doOnSubscribe(subscription -> peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                    // Counted out before the response is written, so a client reusing the
+                    // connection can't be counted twice
+                    .doOnNext(body -> inFlight.decrementAndGet()))))
+            .bindNow();
+        baseUrl = "http://127.0.0.1:" + upstream.port() + "/3/";
+    }
+
+    @AfterEach
+    public void tearDown() {
+        upstream.disposeNow();
+    }
+
+    private ReactiveTmdbClient client(int maxConnections, int maxPending) {
+        // Limiter and bulkhead wide open, so only the connection pool holds calls back
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new ReactiveTmdbClient(WebClient.builder(),
+            new TmdbResilience(TmdbTestSettings.resilience(2 * CALLS, true), meterRegistry),
+            new TmdbRateLimiter(TmdbTestSettings.rateLimiter(1_000_000, 4 * CALLS), meterRegistry),
+            "test-key", baseUrl, Duration.ofSeconds(2), Duration.ofSeconds(10), Duration.ofMinutes(1),
+            maxConnections, maxPending, Duration.ofSeconds(10));
+    }
+
+    private void report(String stack, long started) {
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("{}: {} calls at {} ms upstream latency: {} ms, {} calls/s, {} in flight at peak",
+            stack, CALLS, UPSTREAM_LATENCY_MS, elapsedMs, Math.round(CALLS * 1000.0 / elapsedMs), peakInFlight.get());
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testServletStackIsCappedByItsThreads() {
+        OkHttpClient okHttpClient = new OkHttpClient.Builder()
+            .connectionPool(new ConnectionPool(PLATFORM_THREADS, 1, TimeUnit.MINUTES))
+            .readTimeout(Duration.ofSeconds(10))
+            .build();
+        okHttpClient.dispatcher().setMaxRequestsPerHost(PLATFORM_THREADS);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TmdbGateway gateway = new TmdbGateway(okHttpClient,
+            new TmdbResilience(TmdbTestSettings.resilience(PLATFORM_THREADS, false),
+                meterRegistry),
+            new TmdbRateLimiter(TmdbTestSettings.rateLimiter(1_000_000, 2 * CALLS), meterRegistry),
+            "test-key", baseUrl);
+        ExecutorService executor = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        try {
+            long started = System.nanoTime();
+            List<CompletableFuture<Void>> calls = new ArrayList<>(CALLS);
+            for (int i = 0; i < CALLS; i++) {
+                calls.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        gateway.get("movie/550", Map.of());
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+            report("servlet", started);
+
+            assertTrue(peakInFlight.get() <= PLATFORM_THREADS, peakInFlight.get() + " calls in flight");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testReactiveClientWaitsForEveryCallAtOnce() {
+        ReactiveTmdbClient client = client(CALLS, CALLS);
+        // A first round opens the pooled connections, so the measured one isn't
+        // spent on connection setup
+        Flux.range(0, CALLS)
+            .flatMap(i -> client.get("movie/550", Map.of()), CALLS)
+            .blockLast(Duration.ofSeconds(30));
+        peakInFlight.set(0);
+
+        long started = System.nanoTime();
+        Long completed = Flux.range(0, CALLS)
+            .flatMap(i -> client.get("movie/550", Map.of()), CALLS)
+            .count()
+            .block(Duration.ofSeconds(30));
+        report("reactive", started);
+
+        assertEquals(CALLS, completed);
+        // Well past anything a 200-thread pool can have waiting
+        assertTrue(peakInFlight.get() > 2 * PLATFORM_THREADS, peakInFlight.get() + " calls in flight");
+    }
+
+    @Test
+    public void testLookupsPastThePendingLimitFailFast() {
+        ReactiveTmdbClient client = client(4, 8);
+        AtomicInteger rejected = new AtomicInteger();
+
+        Long completed = Flux.range(0, 40)
+            .flatMap(i -> client.get("movie/550", Map.of())
+                .onErrorResume(e -> {
+                    rejected.incrementAndGet();
+                    return Mono.empty();
+                }), 40)
+            .count()
+            .block(Duration.ofSeconds(30));
+
+        // 4 on connections and 8 queued; everyone else is turned away
+        assertEquals(12, completed);
+        assertEquals(28, rejected.get());
+    }
+
+    @Test
+    public void testQueryValuesAreEncoded() {
+        client(4, 8).get("search/movie", Map.of("query", "Tom & Jerry {1}")).block(Duration.ofSeconds(5));
+
+        assertTrue(lastQuery.get().contains("query=Tom%20%26%20Jerry%20%7B1%7D"), lastQuery.get());
+    }
+}
@@ -0,0 +1,133 @@
+package com.mymovielist.movieapp.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReactiveTmdbClientTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private DisposableServer upstream;
+    private String baseUrl;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    public void setup() {
+        upstream = HttpServer.create()
+            .host("127.0.0.1")
+            .port(0)
+            .route(routes -> routes
+                .get("/3/movie/404", (request, response) -> {
+                    calls.incrementAndGet();
+                    return response.status(HttpResponseStatus.NOT_FOUND).sendString(Mono.just("{}"));
+                })
+                .get("/3/movie/429", (request, response) -> {
+                    calls.incrementAndGet();
+                    return response.status(HttpResponseStatus.TOO_MANY_REQUESTS)
+                        .header("Retry-After", "30")
+                        .sendString(Mono.just("{}"));
+                })
+                .get("/3/movie/500", (request, response) -> {
+                    calls.incrementAndGet();
+                    return response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR).sendString(Mono.just("{}"));
+                })
+                .get("/3/movie/slow", (request, response) -> {
+                    calls.incrementAndGet();
+                    return response.sendString(Mono.just("{\"id\": 550}").delaySubscription(Duration.ofSeconds(2)));
+                }))
+            .bindNow();
+        baseUrl = "http://127.0.0.1:" + upstream.port() + "/3/";
+    }
+
+    @AfterEach
+    public void tearDown() {
+        upstream.disposeNow();
+    }
+
+    private ReactiveTmdbClient client(TmdbResilience resilience, TmdbRateLimiter rateLimiter) {
+        return new ReactiveTmdbClient(WebClient.builder(), resilience, rateLimiter, "test-key", baseUrl,
+            Duration.ofSeconds(2), Duration.ofSeconds(10), Duration.ofMinutes(1), 16, 64, Duration.ofSeconds(2));
+    }
+
+    private TmdbResilience resilience(Duration maxTimeout) {
+        return new TmdbResilience(new TmdbResilience.Settings(8, Duration.ofMillis(10), 10, 4, 0.5,
+            Duration.ofSeconds(30), 2, Duration.ofMillis(100), maxTimeout, 2.0, false, Duration.ofMillis(50)),
+            meterRegistry);
+    }
+
+    private TmdbRateLimiter rateLimiter() {
+        return new TmdbRateLimiter(TmdbTestSettings.rateLimiter(), meterRegistry);
+    }
+
+    @Test
+    public void testNotFoundCarriesTheStatusAndLeavesTheBreakerClosed() {
+        TmdbResilience resilience = resilience(Duration.ofSeconds(8));
+        ReactiveTmdbClient client = client(resilience, rateLimiter());
+
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(client.get("movie/404", Map.of()))
+                .expectErrorMatches(e -> e instanceof TmdbResponseException response && response.getCode() == 404)
+                .verify(Duration.ofSeconds(5));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.state("movie/404"));
+    }
+
+    @Test
+    public void testServerErrorsOpenTheBreakerAndLaterCallsStayLocal() {
+        TmdbResilience resilience = resilience(Duration.ofSeconds(8));
+        ReactiveTmdbClient client = client(resilience, rateLimiter());
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(client.get("movie/500", Map.of()))
+                .expectError(TmdbResponseException.class)
+                .verify(Duration.ofSeconds(5));
+        }
+
+        StepVerifier.create(client.get("movie/500", Map.of()))
+            .expectError(TmdbUnavailableException.class)
+            .verify(Duration.ofSeconds(5));
+
+        assertEquals(CircuitBreaker.State.OPEN, resilience.state("movie/500"));
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    public void testTooManyRequestsBacksOffTheRateLimiter() {
+        ReactiveTmdbClient client = client(resilience(Duration.ofSeconds(8)), rateLimiter());
+
+        StepVerifier.create(client.get("movie/429", Map.of()))
+            .expectErrorMatches(e -> e instanceof TmdbResponseException response
+                && Duration.ofSeconds(30).equals(response.getRetryAfter()))
+            .verify(Duration.ofSeconds(5));
+        // Shed by the limiter: the back-off is longer than an interactive call may wait
+        StepVerifier.create(client.get("movie/404", Map.of()))
+            .expectError(TmdbUnavailableException.class)
+            .verify(Duration.ofSeconds(5));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testSlowCallTimesOut() {
+        ReactiveTmdbClient client = client(resilience(Duration.ofMillis(300)), rateLimiter());
+
+        StepVerifier.create(client.get("movie/slow", Map.of()))
+            .expectError(InterruptedIOException.class)
+            .verify(Duration.ofMillis(1500));
+    }
+}
@@ -0,0 +1,94 @@
+package com.mymovielist.movieapp.config;
+
+import com.mymovielist.movieapp.model.SessionPrincipal;
+import com.mymovielist.movieapp.service.SessionContext;
+import com.mymovielist.movieapp.service.SessionTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionTokenFilterTest {
+
+    private final SessionTokenService tokenService =
+        new SessionTokenService(Base64.getEncoder().encodeToString(new byte[32]), false, Duration.ofHours(1));
+
+    private MockHttpServletResponse filter(boolean required, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new SessionTokenFilter(tokenService, required).doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletRequest request(String method, String path, String username) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (username != null) {
+            request.addHeader("Authorization", "Bearer " + tokenService.issue(tokenService.principal("u1", username)));
+        }
+        return request;
+    }
+
+    @Test
+    void testValidTokenForPathUserIsStored() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api/users/testuser/movies", "testuser");
+
+        MockHttpServletResponse response = filter(false, request);
+
+        assertEquals(200, response.getStatus());
+        SessionPrincipal principal = (SessionPrincipal) request.getAttribute(SessionContext.PRINCIPAL_ATTRIBUTE);
+        assertEquals("u1", principal.getUserId());
+    }
+
+    @Test
+    void testTokenForAnotherUserIsNotUsed() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api/users/someoneelse/movies", "testuser");
+
+        assertEquals(200, filter(false, request).getStatus());
+        assertNull(request.getAttribute(SessionContext.PRINCIPAL_ATTRIBUTE));
+
+        assertEquals(403, filter(true, request("GET", "/api/users/someoneelse/movies", "testuser")).getStatus());
+    }
+
+    private static MockHttpServletRequest forged(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.addHeader("Authorization", "Bearer forged.token");
+        return request;
+    }
+
+    @Test
+    void testInvalidTokenIsIgnoredUnlessTokensAreRequired() throws Exception {
+        // E.g. signed before a restart, or by an instance with another key
+        MockHttpServletRequest request = forged("/api/users/testuser/movies");
+
+        assertEquals(200, filter(false, request).getStatus());
+        assertNull(request.getAttribute(SessionContext.PRINCIPAL_ATTRIBUTE));
+
+        assertEquals(401, filter(true, forged("/api/movies/trending")).getStatus());
+    }
+
+    @Test
+    void testTokenOfADeletedUserIsNotUsed() throws Exception {
+        MockHttpServletRequest stale = request("POST", "/api/users/testuser/movies", "testuser");
+
+        // Deleting the user revokes its ID; the same name registered again gets a new one
+        tokenService.revoke(List.of("u1"));
+
+        assertEquals(200, filter(false, stale).getStatus());
+        assertNull(stale.getAttribute(SessionContext.PRINCIPAL_ATTRIBUTE));
+        assertEquals(401, filter(true, request("POST", "/api/users/testuser/movies", "testuser")).getStatus());
+    }
+
+    @Test
+    void testRequiredModeOnlyGuardsUserPaths() throws Exception {
+        assertEquals(401, filter(true, request("DELETE", "/api/users/testuser", null)).getStatus());
+        assertEquals(200, filter(true, request("POST", "/api/users/login", null)).getStatus());
+        assertEquals(200, filter(true, request("GET", "/api/users/migrations/watchlist", null)).getStatus());
+        assertEquals(200, filter(true, request("GET", "/api/movies/550", null)).getStatus());
+        assertEquals(200, filter(true, request("OPTIONS", "/api/users/testuser/movies", null)).getStatus());
+    }
+}
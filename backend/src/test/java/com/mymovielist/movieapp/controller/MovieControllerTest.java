@@ -1,23 +1,38 @@
 package com.mymovielist.movieapp.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mymovielist.movieapp.config.MovieCachePolicies;
+import com.mymovielist.movieapp.model.MovieNeighbours.Neighbour;
+import com.mymovielist.movieapp.model.MovieStats;
+import com.mymovielist.movieapp.model.TmdbPayload;
+import com.mymovielist.movieapp.service.JsonFieldProjector;
 import com.mymovielist.movieapp.service.MovieService;
-import okhttp3.OkHttpClient;
-import okhttp3.Response;
-import okhttp3.ResponseBody;
+import com.mymovielist.movieapp.service.RecommendationService;
+import com.mymovielist.movieapp.service.TmdbUnavailableException;
+import com.mymovielist.movieapp.service.TrendingSnapshotService;
+import com.mymovielist.movieapp.service.WatchlistAnalyticsIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class MovieControllerTest {
@@ -26,22 +41,36 @@ class MovieControllerTest {
     private MovieService movieService;
 
     @Mock
-    private OkHttpClient okHttpClient;
+    private TrendingSnapshotService trendingSnapshotService;
 
     @Mock
-    private Response response;
+    private WatchlistAnalyticsIndex watchlistAnalyticsIndex;
 
     @Mock
-    private ResponseBody responseBody;
+    private RecommendationService recommendationService;
+
+    @Spy
+    private JsonFieldProjector jsonFieldProjector = new JsonFieldProjector(new ObjectMapper());
+
+    @Spy
+    private MovieCachePolicies cachePolicies = new MovieCachePolicies(Duration.ofHours(1), Duration.ofDays(1),
+            Duration.ofHours(1), Duration.ofDays(1), Duration.ofMinutes(5), Duration.ofHours(1), Duration.ofMinutes(5),
+            Duration.ofMinutes(30), Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofHours(1), Duration.ofHours(6));
 
     @InjectMocks
     private MovieController movieController;
 
     private ObjectMapper objectMapper = new ObjectMapper();
 
+    private MockHttpServletRequest request;
+
+    private WebRequest webRequest;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        request = new MockHttpServletRequest("GET", "/api/movies/550");
+        webRequest = new ServletWebRequest(request, new MockHttpServletResponse());
     }
 
     @Test
@@ -49,20 +78,34 @@ class MovieControllerTest {
         // Arrange
         String query = "Inception";
         String jsonResponse = "{\"results\": [{\"id\": 1, \"title\": \"Inception\"}]}";
-        
-        when(okHttpClient.newCall(any())).thenReturn(mock(okhttp3.Call.class));
-        when(okHttpClient.newCall(any()).execute()).thenReturn(response);
-        when(response.isSuccessful()).thenReturn(true);
-        when(response.body()).thenReturn(responseBody);
-        when(responseBody.string()).thenReturn(jsonResponse);
+        when(movieService.searchMovies(query)).thenReturn(TmdbPayload.of(jsonResponse));
 
         // Act
-        ResponseEntity<Map<String, Object>> result = movieController.searchMovies(query);
+        ResponseEntity<?> result = movieController.searchMovies(query, null, webRequest);
 
         // Assert
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertNotNull(result.getBody());
-        assertTrue(result.getBody().containsKey("results"));
+        assertTrue(readBody(result).containsKey("results"));
+    }
+
+    @Test
+    void testSearchMovies_ProjectsNestedFields() throws IOException {
+        // Arrange
+        String query = "Inception";
+        String jsonResponse = "{\"page\": 1, \"results\": [{\"id\": 1, \"title\": \"Inception\", \"overview\": \"Dreams\"},"
+            + " {\"id\": 2, \"title\": \"Inception 2\", \"overview\": \"More dreams\"}]}";
+        when(movieService.searchMovies(query)).thenReturn(TmdbPayload.of(jsonResponse));
+
+        // Act
+        ResponseEntity<?> result = movieController.searchMovies(query, "results.id, results.title", webRequest);
+
+        // Assert
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        Map<String, Object> body = readBody(result);
+        assertEquals(Map.of("results", List.of(
+            Map.of("id", 1, "title", "Inception"),
+            Map.of("id", 2, "title", "Inception 2"))), body);
     }
 
     @Test
@@ -70,40 +113,152 @@ class MovieControllerTest {
         // Arrange
         String movieId = "550";
         String jsonResponse = "{\"id\": 550, \"title\": \"Fight Club\"}";
-        
-        when(okHttpClient.newCall(any())).thenReturn(mock(okhttp3.Call.class));
-        when(okHttpClient.newCall(any()).execute()).thenReturn(response);
-        when(response.body()).thenReturn(responseBody);
-        when(responseBody.string()).thenReturn(jsonResponse);
+        TmdbPayload payload = TmdbPayload.of(jsonResponse);
+        when(movieService.getMovieDetails(movieId)).thenReturn(payload);
 
         // Act
-        ResponseEntity<Map<String, Object>> result = movieController.getMovieDetails(movieId);
+        ResponseEntity<?> result = movieController.getMovieDetails(movieId, null, webRequest);
 
         // Assert
         assertEquals(HttpStatus.OK, result.getStatusCode());
-        assertNotNull(result.getBody());
-        assertEquals(550, result.getBody().get("id"));
-        assertEquals("Fight Club", result.getBody().get("title"));
+        assertSame(payload.getBody(), result.getBody());
+        assertEquals(550, readBody(result).get("id"));
+        assertEquals("Fight Club", readBody(result).get("title"));
+    }
+
+    @Test
+    void testGetMovieDetails_ProjectsTopLevelFields() throws IOException {
+        // Arrange
+        String movieId = "550";
+        String jsonResponse = "{\"id\": 550, \"title\": \"Fight Club\", \"genres\": [{\"id\": 18, \"name\": \"Drama\"}],"
+            + " \"poster_path\": \"/poster.jpg\"}";
+        when(movieService.getMovieDetails(movieId)).thenReturn(TmdbPayload.of(jsonResponse));
+
+        // Act
+        ResponseEntity<?> result = movieController.getMovieDetails(movieId, "title,poster_path,genres", webRequest);
+
+        // Assert
+        assertEquals(Map.of(
+            "title", "Fight Club",
+            "poster_path", "/poster.jpg",
+            "genres", List.of(Map.of("id", 18, "name", "Drama"))), readBody(result));
+    }
+
+    @Test
+    void testGetMovieDetails_SetsCachingHeaders() throws IOException {
+        // Arrange
+        TmdbPayload payload = TmdbPayload.of("{\"id\": 550, \"title\": \"Fight Club\"}");
+        when(movieService.getMovieDetails("550")).thenReturn(payload);
+
+        // Act
+        ResponseEntity<?> result = movieController.getMovieDetails("550", null, webRequest);
+
+        // Assert
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(payload.getEtag(), result.getHeaders().getETag());
+        assertEquals(payload.getFetchedAt().toEpochMilli() / 1000 * 1000, result.getHeaders().getLastModified());
+        assertEquals("max-age=3600, public, stale-while-revalidate=86400", result.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void testGetMovieDetails_MatchingIfNoneMatchIsNotModified() throws IOException {
+        // Arrange
+        TmdbPayload payload = TmdbPayload.of("{\"id\": 550, \"title\": \"Fight Club\"}");
+        when(movieService.getMovieDetails("550")).thenReturn(payload);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, payload.getEtag());
+
+        // Act
+        ResponseEntity<?> result = movieController.getMovieDetails("550", null, webRequest);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, result.getStatusCode());
+        assertNull(result.getBody());
+        assertEquals(payload.getEtag(), result.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetMovieDetails_ProjectionIsNotModifiedWithoutProjecting() throws IOException {
+        // Arrange
+        TmdbPayload payload = TmdbPayload.of("{\"id\": 550, \"title\": \"Fight Club\"}");
+        when(movieService.getMovieDetails("550")).thenReturn(payload);
+        String projectedEtag = payload.getEtag("title");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, projectedEtag);
+
+        // Act
+        ResponseEntity<?> result = movieController.getMovieDetails("550", "title", webRequest);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, result.getStatusCode());
+        assertNotEquals(payload.getEtag(), projectedEtag);
+        verify(jsonFieldProjector, never()).project(any(), any());
+    }
+
+    @Test
+    void testGetMovieDetails_UpstreamFailure() {
+        // Arrange
+        when(movieService.getMovieDetails("550")).thenThrow(new RuntimeException("Failed to fetch movie details"));
+
+        // Act
+        ResponseEntity<?> result = movieController.getMovieDetails("550", null, webRequest);
+
+        // Assert
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, result.getStatusCode());
+    }
+
+    @Test
+    void testGetMovieDetails_TmdbUnavailable() {
+        // Arrange
+        when(movieService.getMovieDetails("550")).thenThrow(new RuntimeException("Failed to fetch movie details",
+                new TmdbUnavailableException("Circuit open for TMDB movie/{id}", Duration.ofMillis(12_500))));
+
+        // Act
+        ResponseEntity<?> result = movieController.getMovieDetails("550", null, webRequest);
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, result.getStatusCode());
+        assertEquals("13", result.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void testGetMovieVideos_TmdbTimeout() {
+        // Arrange
+        when(movieService.getMovieVideos("550")).thenThrow(new RuntimeException("Failed to fetch movie videos",
+                new InterruptedIOException("TMDB call timed out after 800 ms")));
+
+        // Act
+        ResponseEntity<?> result = movieController.getMovieVideos("550", null, webRequest);
+
+        // Assert
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, result.getStatusCode());
     }
 
     @Test
     void testGetTrendingMovies() throws IOException {
         // Arrange
         String jsonResponse = "{\"results\": [{\"id\": 1, \"title\": \"Trending Movie\"}]}";
-        
-        when(okHttpClient.newCall(any())).thenReturn(mock(okhttp3.Call.class));
-        when(okHttpClient.newCall(any()).execute()).thenReturn(response);
-        when(response.isSuccessful()).thenReturn(true);
-        when(response.body()).thenReturn(responseBody);
-        when(responseBody.string()).thenReturn(jsonResponse);
+        TmdbPayload snapshot = TmdbPayload.of(jsonResponse);
+        when(trendingSnapshotService.current()).thenReturn(Optional.of(snapshot));
 
         // Act
-        ResponseEntity<Map<String, Object>> result = movieController.getTrendingMovies();
+        ResponseEntity<?> result = movieController.getTrendingMovies();
 
         // Assert
         assertEquals(HttpStatus.OK, result.getStatusCode());
-        assertNotNull(result.getBody());
-        assertTrue(result.getBody().containsKey("results"));
+        assertEquals(snapshot.getEtag(), result.getHeaders().getETag());
+        assertTrue(readBody(result).containsKey("results"));
+        verifyNoInteractions(movieService);
+    }
+
+    @Test
+    void testGetTrendingMovies_NoSnapshot() {
+        // Arrange
+        when(trendingSnapshotService.current()).thenReturn(Optional.empty());
+
+        // Act
+        ResponseEntity<?> result = movieController.getTrendingMovies();
+
+        // Assert
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, result.getStatusCode());
     }
 
     @Test
@@ -111,19 +266,49 @@ class MovieControllerTest {
         // Arrange
         String movieId = "550";
         String jsonResponse = "{\"id\": 550, \"results\": [{\"key\": \"video_key\", \"site\": \"YouTube\"}]}";
-        
-        when(okHttpClient.newCall(any())).thenReturn(mock(okhttp3.Call.class));
-        when(okHttpClient.newCall(any()).execute()).thenReturn(response);
-        when(response.body()).thenReturn(responseBody);
-        when(responseBody.string()).thenReturn(jsonResponse);
+        when(movieService.getMovieVideos(movieId)).thenReturn(TmdbPayload.of(jsonResponse));
 
         // Act
-        ResponseEntity<Map<String, Object>> result = movieController.getMovieVideos(movieId);
+        ResponseEntity<?> result = movieController.getMovieVideos(movieId, null, webRequest);
 
         // Assert
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertNotNull(result.getBody());
-        assertEquals(550, result.getBody().get("id"));
-        assertTrue(result.getBody().containsKey("results"));
+        assertEquals(550, readBody(result).get("id"));
+        assertTrue(readBody(result).containsKey("results"));
+    }
+
+    @Test
+    void testGetMovieStats() {
+        // Arrange
+        MovieStats stats = new MovieStats("550", 2, 8.0, new int[11], Map.of("Completed", 2));
+        when(watchlistAnalyticsIndex.stats("550")).thenReturn(stats);
+
+        // Act
+        ResponseEntity<MovieStats> result = movieController.getMovieStats("550");
+
+        // Assert
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertSame(stats, result.getBody());
+        verifyNoInteractions(movieService);
+    }
+
+    @Test
+    void testGetSimilarMovies() {
+        // Arrange
+        List<Neighbour> neighbours = List.of(new Neighbour("680", 0.92));
+        when(recommendationService.similar("550")).thenReturn(neighbours);
+
+        // Act
+        ResponseEntity<List<Neighbour>> result = movieController.getSimilarMovies("550");
+
+        // Assert
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertSame(neighbours, result.getBody());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readBody(ResponseEntity<?> result) throws IOException {
+        return objectMapper.readValue((byte[]) result.getBody(), Map.class);
     }
-}
\ No newline at end of file
+}
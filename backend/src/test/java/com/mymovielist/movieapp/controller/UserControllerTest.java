@@ -1,10 +1,28 @@
 package com.mymovielist.movieapp.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.mymovielist.movieapp.config.MovieCachePolicies;
+import com.mymovielist.movieapp.model.BackgroundJob;
 import com.mymovielist.movieapp.model.User;
+import com.mymovielist.movieapp.model.UserPage;
+import com.mymovielist.movieapp.model.UserSummary;
 import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.Recommendation;
+import com.mymovielist.movieapp.model.SessionPrincipal;
+import com.mymovielist.movieapp.model.MovieEntryPage;
 import com.mymovielist.movieapp.model.LoginRequest;
+import com.mymovielist.movieapp.model.TmdbPayload;
+import com.mymovielist.movieapp.model.WatchlistOperationResult;
+import com.mymovielist.movieapp.model.WatchlistSort;
+import com.mymovielist.movieapp.service.AuthenticationService;
+import com.mymovielist.movieapp.service.SessionTokenService;
+import com.mymovielist.movieapp.service.TrendingSnapshotService;
+import com.mymovielist.movieapp.service.UserPurgeService;
 import com.mymovielist.movieapp.service.UserService;
+import com.mymovielist.movieapp.service.WatchlistHydrationService;
+import com.mymovielist.movieapp.service.WatchlistMigrationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -12,17 +30,26 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
+@Import(MovieCachePolicies.class)
 public class UserControllerTest {
 
     @Autowired
@@ -31,6 +58,24 @@ public class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private TrendingSnapshotService trendingSnapshotService;
+
+    @MockBean
+    private WatchlistMigrationService watchlistMigrationService;
+
+    @MockBean
+    private WatchlistHydrationService watchlistHydrationService;
+
+    @MockBean
+    private UserPurgeService userPurgeService;
+
+    @MockBean
+    private AuthenticationService authenticationService;
+
+    @MockBean
+    private SessionTokenService sessionTokenService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -60,32 +105,109 @@ public class UserControllerTest {
     public void testAddMovieToUser() throws Exception {
         String username = "testuser";
         String movieId = "123";
-        User user = new User();
-        user.setUsername(username);
 
-        when(userService.addMovieToUser(eq(username), eq(movieId))).thenReturn(Optional.of(user));
+        when(userService.addMovieToUser(eq(username), eq(movieId))).thenReturn(Optional.of(true));
 
         mockMvc.perform(post("/api/users/{username}/movies", username)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"movieId\": \"123\"}"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.message").value("Movie added successfully"));
+                .andExpect(jsonPath("$.message").value("Movie added successfully"))
+                .andExpect(jsonPath("$.added").value(true));
 
         verify(userService, times(1)).addMovieToUser(username, movieId);
     }
 
+    @Test
+    public void testAddMovieToUser_AlreadyInList() throws Exception {
+        when(userService.addMovieToUser("testuser", "123")).thenReturn(Optional.of(false));
+
+        mockMvc.perform(post("/api/users/{username}/movies", "testuser")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"movieId\": \"123\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.added").value(false));
+    }
+
     @Test
     public void testGetUserMovies() throws Exception {
         String username = "testuser";
         MovieEntry movieEntry = new MovieEntry("123", "Watched", 8.5);
-        when(userService.getUserMovies(eq(username))).thenReturn(List.of(movieEntry));
+        when(userService.getUserMovies(eq(username), isNull(), eq(WatchlistSort.ADDED))).thenReturn(List.of(movieEntry));
 
         mockMvc.perform(get("/api/users/{username}/movies", username)
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].movieId").value("123"));
 
-        verify(userService, times(1)).getUserMovies(username);
+        verify(userService, times(1)).getUserMovies(username, null, WatchlistSort.ADDED);
+    }
+
+    @Test
+    public void testGetUserMoviesPage() throws Exception {
+        String username = "testuser";
+        MovieEntryPage page = new MovieEntryPage(List.of(new MovieEntry("123", "Watched", 8.5)), "next-cursor");
+        when(userService.getUserMoviesPage(username, "Watched", WatchlistSort.SCORE_DESC, null, 20)).thenReturn(page);
+
+        mockMvc.perform(get("/api/users/{username}/movies", username)
+                .param("status", "Watched")
+                .param("sort", "score_desc")
+                .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries[0].movieId").value("123"))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"));
+    }
+
+    @Test
+    public void testGetUserMoviesPage_Columnar() throws Exception {
+        String username = "testuser";
+        MovieEntryPage page = new MovieEntryPage(List.of(
+                new MovieEntry("123", "Completed", 8.5),
+                new MovieEntry("456", "Plan to Watch", null),
+                new MovieEntry("789", "Completed", 7.0)), "next-cursor");
+        when(userService.getUserMoviesPage(username, null, WatchlistSort.ADDED, null, 3)).thenReturn(page);
+
+        mockMvc.perform(get("/api/users/{username}/movies", username)
+                .param("limit", "3")
+                .param("format", "columnar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.movieId[2]").value("789"))
+                .andExpect(jsonPath("$.statuses[0]").value("Completed"))
+                .andExpect(jsonPath("$.statuses[1]").value("Plan to Watch"))
+                .andExpect(jsonPath("$.status[0]").value(0))
+                .andExpect(jsonPath("$.status[1]").value(1))
+                .andExpect(jsonPath("$.status[2]").value(0))
+                .andExpect(jsonPath("$.score[1]").isEmpty())
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"));
+    }
+
+    @Test
+    public void testGetUserMovies_UnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/users/{username}/movies", "testuser").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetUserMovies_Smile() throws Exception {
+        String username = "testuser";
+        when(userService.getUserMovies(username, null, WatchlistSort.ADDED))
+                .thenReturn(List.of(new MovieEntry("123", "Completed", 8.5)));
+
+        MvcResult result = mockMvc.perform(get("/api/users/{username}/movies", username)
+                .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn();
+
+        JsonNode entries = new ObjectMapper(new SmileFactory()).readTree(result.getResponse().getContentAsByteArray());
+        assertEquals("123", entries.get(0).get("movieId").asText());
+        assertEquals(8.5, entries.get(0).get("score").asDouble());
+    }
+
+    @Test
+    public void testGetUserMovies_InvalidSort() throws Exception {
+        mockMvc.perform(get("/api/users/{username}/movies", "testuser").param("sort", "popularity"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -97,4 +219,193 @@ public class UserControllerTest {
 
         verify(userService, times(1)).deleteUser(username);
     }
+
+    @Test
+    public void testGetTrendingMovies_NotModified() throws Exception {
+        TmdbPayload snapshot = TmdbPayload.of("{\"results\": []}");
+        when(trendingSnapshotService.current()).thenReturn(Optional.of(snapshot));
+
+        mockMvc.perform(get("/api/users/trending"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", snapshot.getEtag()))
+                .andExpect(header().string("Cache-Control", "max-age=300, public, stale-while-revalidate=1800"))
+                .andExpect(jsonPath("$.results").isArray());
+
+        mockMvc.perform(get("/api/users/trending").header("If-None-Match", snapshot.getEtag()))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testRemoveMovieFromUser_UserNotFound() throws Exception {
+        when(userService.removeMovieFromUser("missing", "123")).thenReturn(false);
+
+        mockMvc.perform(delete("/api/users/{username}/movies/{movieId}", "missing", "123"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testApplyWatchlistBatch() throws Exception {
+        String username = "testuser";
+        when(userService.applyWatchlistBatch(eq(username), anyList())).thenReturn(Optional.of(List.of(
+            new WatchlistOperationResult(0, "123", WatchlistOperationResult.Outcome.ADDED),
+            new WatchlistOperationResult(1, "456", WatchlistOperationResult.Outcome.UPDATED))));
+
+        mockMvc.perform(post("/api/users/{username}/movies/batch", username)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"op\": \"add\", \"movieId\": \"123\"},"
+                    + " {\"op\": \"update\", \"movieId\": \"456\", \"status\": \"Watched\", \"score\": 8}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].outcome").value("ADDED"))
+                .andExpect(jsonPath("$.results[1].movieId").value("456"));
+    }
+
+    @Test
+    public void testGetAllUsers_Paged() throws Exception {
+        when(userService.getUsersPage(null, 100)).thenReturn(new UserPage(
+            List.of(new UserSummary("650000000000000000000001", "testuser", "test@example.com")),
+            "650000000000000000000001"));
+        when(userService.getUsersPage("bad", 100)).thenThrow(new IllegalArgumentException("bad"));
+
+        mockMvc.perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].username").value("testuser"))
+                .andExpect(jsonPath("$.users[0].password").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("650000000000000000000001"));
+
+        mockMvc.perform(get("/api/users").param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/users").param("limit", "100000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testExportUsers_Streams() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0)
+                .write("{\"username\":\"testuser\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(userService).exportUsers(any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"username\":\"testuser\"}\n"));
+    }
+
+    @Test
+    public void testLogin() throws Exception {
+        when(authenticationService.authenticate("testuser", "password"))
+            .thenReturn(CompletableFuture.completedFuture(Optional.of("u1")));
+        when(authenticationService.authenticate("testuser", "wrong"))
+            .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+        SessionPrincipal principal = new SessionPrincipal("u1", "testuser", Instant.parse("2030-01-01T00:00:00Z"));
+        when(sessionTokenService.principal("u1", "testuser")).thenReturn(principal);
+        when(sessionTokenService.issue(principal)).thenReturn("signed.token");
+
+        MvcResult result = mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\": \"testuser\", \"password\": \"password\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.token").value("signed.token"));
+
+        result = mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\": \"testuser\", \"password\": \"wrong\"}"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    public void testLogin_Overloaded() throws Exception {
+        when(authenticationService.authenticate("testuser", "password")).thenThrow(new RejectedExecutionException());
+
+        MvcResult result = mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\": \"testuser\", \"password\": \"password\"}"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    public void testUserPurge() throws Exception {
+        BackgroundJob job = new BackgroundJob("user-purge");
+        when(userPurgeService.start()).thenReturn(job);
+        when(userPurgeService.cancel()).thenReturn(Optional.empty());
+
+        mockMvc.perform(delete("/api/users/all"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.type").value("user-purge"));
+        verify(userService, never()).deleteUsers(anyList());
+
+        mockMvc.perform(post("/api/users/purge/cancel"))
+                .andExpect(status().isNotFound());
+
+        job.requestCancel();
+        when(userPurgeService.status()).thenReturn(Optional.of(job));
+        mockMvc.perform(get("/api/users/purge"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cancelRequested").value(true));
+    }
+
+    @Test
+    public void testGetRecommendations() throws Exception {
+        when(userService.getRecommendations("testuser", 5))
+            .thenReturn(Optional.of(List.of(new Recommendation("680", 8.1, "550"))));
+        when(userService.getRecommendations("missing", 20)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/users/{username}/recommendations", "testuser").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].movieId").value("680"))
+                .andExpect(jsonPath("$[0].because").value("550"));
+
+        mockMvc.perform(get("/api/users/{username}/recommendations", "missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testWatchlistMigration() throws Exception {
+        when(watchlistMigrationService.status()).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/users/migrations/watchlist"))
+                .andExpect(status().isNotFound());
+
+        BackgroundJob job = new BackgroundJob("watchlist-migration");
+        when(watchlistMigrationService.start()).thenReturn(job);
+
+        mockMvc.perform(post("/api/users/migrations/watchlist"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(job.getId()))
+                .andExpect(jsonPath("$.state").value("RUNNING"));
+    }
+
+    @Test
+    public void testGetHydratedUserMovies_Streams() throws Exception {
+        List<MovieEntry> entries = List.of(new MovieEntry("550", "Watched", 9.0));
+        when(userService.getUserMovies("testuser", null, WatchlistSort.ADDED)).thenReturn(entries);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1)
+                .write("[{\"movieId\":\"550\",\"title\":\"Fight Club\"}]".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(watchlistHydrationService).writeHydrated(eq(entries), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/users/{username}/movies/hydrated", "testuser"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Fight Club"));
+    }
 }
@@ -0,0 +1,127 @@
+package com.mymovielist.movieapp.service;
+
+import com.mymovielist.movieapp.model.User;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class AuthenticationServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private AuthenticationService authenticationService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        authenticationService = new AuthenticationService(mongoTemplate, 4, 1, 1, Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        authenticationService.shutdown();
+    }
+
+    private void givenStored(String password) {
+        User user = new User();
+        user.setId("u1");
+        user.setPassword(password);
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(user);
+    }
+
+    @Test
+    public void testHashIsSaltedBcrypt() {
+        String first = authenticationService.hash("password");
+
+        assertTrue(first.startsWith("$2a$04$"));
+        assertNotEquals(first, authenticationService.hash("password"));
+    }
+
+    @Test
+    public void testAuthenticate_ReadsOnlyCredentials() {
+        givenStored(authenticationService.hash("password"));
+
+        assertEquals(Optional.of("u1"), authenticationService.authenticate("testuser", "password").join());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(query.capture(), eq(User.class));
+        assertEquals(Set.of("_id", "password"), query.getValue().getFieldsObject().keySet());
+    }
+
+    @Test
+    public void testAuthenticate_WrongPasswordAndUnknownUser() {
+        givenStored(authenticationService.hash("password"));
+        assertTrue(authenticationService.authenticate("testuser", "wrongpassword").join().isEmpty());
+
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(null);
+        assertTrue(authenticationService.authenticate("missing", "password").join().isEmpty());
+    }
+
+    @Test
+    public void testVerifiedLoginSkipsDatabase() {
+        givenStored(authenticationService.hash("password"));
+
+        authenticationService.authenticate("testuser", "password").join();
+        assertEquals(Optional.of("u1"), authenticationService.authenticate("testuser", "password").join());
+        verify(mongoTemplate, times(1)).findOne(any(Query.class), eq(User.class));
+
+        // A different password is never answered from the cache
+        assertTrue(authenticationService.authenticate("testuser", "other").join().isEmpty());
+        verify(mongoTemplate, times(2)).findOne(any(Query.class), eq(User.class));
+
+        authenticationService.evict(List.of("testuser"));
+        authenticationService.authenticate("testuser", "password").join();
+        verify(mongoTemplate, times(3)).findOne(any(Query.class), eq(User.class));
+    }
+
+    @Test
+    public void testLegacyPlaintextPasswordIsUpgraded() {
+        givenStored("password");
+
+        assertEquals(Optional.of("u1"), authenticationService.authenticate("testuser", "password").join());
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(User.class));
+        String hash = (String) update.getValue().getUpdateObject().get("$set", Document.class).get("password");
+        assertTrue(hash.startsWith("$2a$"));
+    }
+
+    @Test
+    public void testRejectsWhenVerificationPoolIsFull() throws Exception {
+        givenStored("password");
+        CountDownLatch release = new CountDownLatch(1);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class))).thenAnswer(invocation -> {
+            release.await();
+            return null;
+        });
+
+        // One check running, one queued, the third is turned away
+        var running = authenticationService.authenticate("a", "password");
+        var queued = authenticationService.authenticate("b", "password");
+        assertThrows(RejectedExecutionException.class, () -> authenticationService.authenticate("c", "password"));
+
+        release.countDown();
+        assertTrue(running.join().isPresent());
+        assertTrue(queued.join().isPresent());
+    }
+}
@@ -0,0 +1,147 @@
+package com.mymovielist.movieapp.service;
+
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.MovieEntryPage;
+import com.mymovielist.movieapp.model.WatchlistEntry;
+import com.mymovielist.movieapp.model.WatchlistSort;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class CollectionWatchlistStoreTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private CollectionWatchlistStore store;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        store = new CollectionWatchlistStore(mongoTemplate);
+    }
+
+    private static WatchlistEntry entry(String id, String movieId, double score) {
+        WatchlistEntry entry = new WatchlistEntry("u1", movieId, "Watched", score);
+        entry.setId(id);
+        entry.setAddedAt(Long.parseLong(movieId));
+        return entry;
+    }
+
+    @Test
+    public void testAdd_UpsertsWithSetOnInsert() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(WatchlistEntry.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, new BsonObjectId()));
+
+        assertTrue(store.add("u1", new MovieEntry("123", "Plan To Watch", 0.0)));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(WatchlistEntry.class));
+        assertEquals(new Document("userId", "u1").append("movieId", "123"), query.getValue().getQueryObject());
+        Document setOnInsert = (Document) update.getValue().getUpdateObject().get("$setOnInsert");
+        assertEquals("Plan To Watch", setOnInsert.get("status"));
+        assertNotNull(setOnInsert.get("addedAt"));
+        assertNull(update.getValue().getUpdateObject().get("$set"));
+    }
+
+    @Test
+    public void testAdd_ConcurrentDuplicateIsIgnored() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(WatchlistEntry.class)))
+            .thenThrow(new DuplicateKeyException("E11000"));
+
+        assertFalse(store.add("u1", new MovieEntry("123", "Plan To Watch", 0.0)));
+    }
+
+    @Test
+    public void testAdd_ExistingEntryIsNotAdded() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(WatchlistEntry.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 0L, null));
+
+        assertFalse(store.add("u1", new MovieEntry("123", "Plan To Watch", 0.0)));
+    }
+
+    @Test
+    public void testFindPage_AddedOrderUsesAddedAtCursor() {
+        String first = new ObjectId().toHexString();
+        String second = new ObjectId().toHexString();
+        when(mongoTemplate.find(any(Query.class), eq(WatchlistEntry.class)))
+            .thenReturn(List.of(entry(first, "1", 9.0), entry(second, "2", 7.0)));
+
+        MovieEntryPage page = store.findPage("u1", "Watched", WatchlistSort.ADDED, null, 1);
+
+        assertEquals(1, page.getEntries().size());
+        assertEquals("1", page.getEntries().get(0).getMovieId());
+
+        store.findPage("u1", "Watched", WatchlistSort.ADDED, page.getNextCursor(), 1);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(query.capture(), eq(WatchlistEntry.class));
+        Query next = query.getValue();
+        assertEquals(2, next.getLimit());
+        assertEquals("Watched", next.getQueryObject().get("status"));
+        assertEquals(List.of(new Document("addedAt", new Document("$gt", 1L)),
+                new Document("addedAt", 1L).append("movieId", new Document("$gt", "1"))),
+            next.getQueryObject().get("$or"));
+        assertEquals(new Document("addedAt", 1).append("movieId", 1), next.getSortObject());
+    }
+
+    @Test
+    public void testStampLegacyEntries_UsesTheObjectIdTime() {
+        CollectionWatchlistStore.stampLegacyEntries(mongoTemplate);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateMulti(query.capture(), any(UpdateDefinition.class), eq(WatchlistEntry.class));
+        assertEquals(new Document("addedAt", new Document("$exists", false)), query.getValue().getQueryObject());
+    }
+
+    @Test
+    public void testFindPage_ScoreOrderUsesScoreCursor() {
+        when(mongoTemplate.find(any(Query.class), eq(WatchlistEntry.class)))
+            .thenReturn(List.of(entry(new ObjectId().toHexString(), "1", 9.0), entry(new ObjectId().toHexString(), "2", 7.0)));
+
+        MovieEntryPage page = store.findPage("u1", null, WatchlistSort.SCORE_DESC, null, 1);
+        store.findPage("u1", null, WatchlistSort.SCORE_DESC, page.getNextCursor(), 1);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(query.capture(), eq(WatchlistEntry.class));
+        String criteria = query.getValue().getQueryObject().toString();
+        assertTrue(criteria.contains("$lt=9.0"));
+        assertEquals(new Document("score", -1).append("movieId", 1), query.getValue().getSortObject());
+    }
+
+    @Test
+    public void testRemoveAll() {
+        store.removeAll("u1");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(query.capture(), eq(WatchlistEntry.class));
+        assertEquals(new Document("userId", "u1"), query.getValue().getQueryObject());
+    }
+
+    @Test
+    public void testRemoveAllForUsers() {
+        store.removeAll(List.of("u1", "u2"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(query.capture(), eq(WatchlistEntry.class));
+        assertEquals(new Document("userId", new Document("$in", List.of("u1", "u2"))), query.getValue().getQueryObject());
+    }
+}
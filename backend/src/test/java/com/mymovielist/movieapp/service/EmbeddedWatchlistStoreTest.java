@@ -0,0 +1,222 @@
+package com.mymovielist.movieapp.service;
+
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.MovieEntryPage;
+import com.mymovielist.movieapp.model.User;
+import com.mymovielist.movieapp.model.WatchlistSort;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class EmbeddedWatchlistStoreTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private EmbeddedWatchlistStore store;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        store = new EmbeddedWatchlistStore(mongoTemplate);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    }
+
+    @Test
+    public void testAdd_PushGuardedByNe() {
+        assertTrue(store.add("u1", new MovieEntry("123", "Plan To Watch", 0.0)));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(User.class));
+        assertEquals("u1", query.getValue().getQueryObject().get("_id"));
+        assertEquals(new Document("$ne", "123"), query.getValue().getQueryObject().get("movieEntries.movieId"));
+        Document push = (Document) update.getValue().getUpdateObject().get("$push");
+        assertEquals("123", ((MovieEntry) push.get("movieEntries")).getMovieId());
+        assertNotNull(((MovieEntry) push.get("movieEntries")).getAddedAt());
+    }
+
+    @Test
+    public void testAdd_AlreadyInListIsReported() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertFalse(store.add("u1", new MovieEntry("123", "Plan To Watch", 0.0)));
+    }
+
+    @Test
+    public void testAdd_StampsIncreasingAddedAt() {
+        MovieEntry first = new MovieEntry("1", "Plan To Watch", 0.0);
+        MovieEntry second = new MovieEntry("2", "Plan To Watch", 0.0);
+
+        store.add("u1", first);
+        store.add("u1", second);
+
+        assertTrue(second.getAddedAt() > first.getAddedAt());
+    }
+
+    @Test
+    public void testUpdate_UsesPositionalSet() {
+        store.update("u1", "123", "Watched", 9.0);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(User.class));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals("Watched", set.get("movieEntries.$.status"));
+        assertEquals(9.0, set.get("movieEntries.$.score"));
+    }
+
+    @Test
+    public void testRemove_UsesPull() {
+        store.remove("u1", "123");
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(User.class));
+        Document pull = (Document) update.getValue().getUpdateObject().get("$pull");
+        assertEquals(new Document("movieId", "123"), pull.get("movieEntries"));
+    }
+
+    @Test
+    public void testFind() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(User.class), eq(Document.class)))
+            .thenReturn(new AggregationResults<>(List.of(
+                new Document("movieId", "123").append("status", "Watched").append("score", 8.5)
+                    .append("sortScore", 8.5).append("sortAdded", 0L)), new Document()));
+
+        List<MovieEntry> movieEntries = store.find("u1", null, WatchlistSort.ADDED);
+
+        assertEquals(1, movieEntries.size());
+        assertEquals("123", movieEntries.get(0).getMovieId());
+        assertEquals(8.5, movieEntries.get(0).getScore());
+    }
+
+    @Test
+    public void testFindPage_ReturnsCursorWhenMoreRows() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(User.class), eq(Document.class)))
+            .thenReturn(new AggregationResults<>(List.of(
+                new Document("movieId", "1").append("status", "Watched").append("score", 9.0)
+                    .append("sortScore", 9.0).append("sortAdded", 4L),
+                new Document("movieId", "2").append("status", "Watched").append("score", 7.0)
+                    .append("sortScore", 7.0).append("sortAdded", 1L)), new Document()));
+
+        MovieEntryPage page = store.findPage("u1", "Watched", WatchlistSort.SCORE_DESC, null, 1);
+
+        assertEquals(1, page.getEntries().size());
+        assertEquals("1", page.getEntries().get(0).getMovieId());
+        assertNotNull(page.getNextCursor());
+
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        store.findPage("u1", "Watched", WatchlistSort.SCORE_DESC, page.getNextCursor(), 1);
+        verify(mongoTemplate, times(2)).aggregate(aggregation.capture(), eq(User.class), eq(Document.class));
+        String pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).toString();
+        assertTrue(pipeline.contains("$limit=2"));
+        assertTrue(pipeline.contains("sortScore=Document{{$lt=9.0}}"));
+    }
+
+    @Test
+    public void testFindPage_AddedOrderUsesAddedAtCursor() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(User.class), eq(Document.class)))
+            .thenReturn(new AggregationResults<>(List.of(
+                new Document("movieId", "7").append("status", "Watched").append("sortScore", 0.0)
+                    .append("addedAt", 1_700_000_000_000L).append("sortAdded", 1_700_000_000_000L),
+                new Document("movieId", "8").append("status", "Watched").append("sortScore", 0.0)
+                    .append("addedAt", 1_700_000_000_001L).append("sortAdded", 1_700_000_000_001L)), new Document()));
+
+        MovieEntryPage page = store.findPage("u1", null, WatchlistSort.ADDED, null, 1);
+        assertEquals(1_700_000_000_000L, page.getEntries().get(0).getAddedAt());
+
+        // An earlier entry pulled between the two requests doesn't move the cursor
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        store.findPage("u1", null, WatchlistSort.ADDED, page.getNextCursor(), 1);
+        verify(mongoTemplate, times(2)).aggregate(aggregation.capture(), eq(User.class), eq(Document.class));
+        String pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).toString();
+        assertTrue(pipeline.contains("sortAdded=Document{{$gt=1700000000000}}"), pipeline);
+        assertTrue(pipeline.contains("movieId=Document{{$gt=7}}"), pipeline);
+    }
+
+    @Test
+    public void testStampLegacyEntries_OnlyTouchesUnstampedUsers() {
+        EmbeddedWatchlistStore.stampLegacyEntries(mongoTemplate);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateMulti(query.capture(), any(UpdateDefinition.class), eq(User.class));
+        assertEquals(new Document("$elemMatch", new Document("addedAt", new Document("$exists", false))),
+            query.getValue().getQueryObject().get("movieEntries"));
+    }
+
+    @Test
+    public void testFindPage_LastPageHasNoCursor() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(User.class), eq(Document.class)))
+            .thenReturn(new AggregationResults<>(List.of(
+                new Document("movieId", "1").append("status", "Watched").append("sortScore", 0.0)
+                    .append("sortAdded", 0L)), new Document()));
+
+        MovieEntryPage page = store.findPage("u1", null, WatchlistSort.ADDED, null, 10);
+
+        assertEquals(1, page.getEntries().size());
+        assertNull(page.getEntries().get(0).getScore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testFindPage_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class,
+            () -> store.findPage("u1", null, WatchlistSort.SCORE_DESC, "bm90LWEtY3Vyc29y", 10));
+    }
+
+    @Test
+    public void testFindPresent() {
+        User user = new User();
+        user.addMovieEntry(new MovieEntry("1", null, null));
+        user.addMovieEntry(new MovieEntry("2", null, null));
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(user);
+
+        assertEquals(Set.of("1"), store.findPresent("u1", List.of("1", "3")));
+    }
+
+    @Test
+    public void testBatch_SendsOneBulkWrite() {
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, User.class)).thenReturn(bulk);
+
+        WatchlistStore.Batch batch = store.batch("u1");
+        batch.add(new MovieEntry("1", "Plan To Watch", 0.0));
+        batch.update("2", "Watched", 7.5);
+        batch.remove("3");
+        batch.execute();
+
+        verify(bulk, times(3)).updateOne(any(Query.class), any(Update.class));
+        verify(bulk, times(1)).execute();
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(User.class));
+    }
+
+    @Test
+    public void testBatch_EmptyIsNotExecuted() {
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, User.class)).thenReturn(bulk);
+
+        store.batch("u1").execute();
+
+        verify(bulk, never()).execute();
+    }
+}
@@ -0,0 +1,92 @@
+package com.mymovielist.movieapp.service;
+
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.User;
+import com.mymovielist.movieapp.model.WatchlistEntry;
+import com.mymovielist.movieapp.model.WatchlistSort;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class MigratingWatchlistStoreTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private MigratingWatchlistStore store;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        store = new MigratingWatchlistStore(mongoTemplate);
+    }
+
+    @Test
+    public void testAdd_WritesBothLayoutsWithTheSameStamp() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(WatchlistEntry.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, new BsonObjectId()));
+
+        assertTrue(store.add("u1", new MovieEntry("123", "Plan To Watch", 0.0)));
+
+        ArgumentCaptor<Update> pushed = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), pushed.capture(), eq(User.class));
+        ArgumentCaptor<Update> upserted = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), upserted.capture(), eq(WatchlistEntry.class));
+        MovieEntry entry = (MovieEntry) ((Document) pushed.getValue().getUpdateObject().get("$push")).get("movieEntries");
+        Document setOnInsert = (Document) upserted.getValue().getUpdateObject().get("$setOnInsert");
+        assertEquals(entry.getAddedAt(), setOnInsert.get("addedAt"));
+    }
+
+    @Test
+    public void testRemove_WritesBothLayouts() {
+        store.remove("u1", "123");
+
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(User.class));
+        verify(mongoTemplate).remove(any(Query.class), eq(WatchlistEntry.class));
+    }
+
+    @Test
+    public void testBatch_ExecutesBothLayouts() {
+        BulkOperations embedded = mock(BulkOperations.class);
+        BulkOperations collection = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, User.class)).thenReturn(embedded);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, WatchlistEntry.class)).thenReturn(collection);
+
+        WatchlistStore.Batch batch = store.batch("u1");
+        batch.update("123", "Watched", 9.0);
+        batch.execute();
+
+        verify(embedded).execute();
+        verify(collection).execute();
+    }
+
+    @Test
+    public void testFind_ReadsTheEmbeddedArray() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(User.class), eq(Document.class)))
+            .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        store.find("u1", null, WatchlistSort.ADDED);
+
+        verify(mongoTemplate, never()).find(any(Query.class), eq(WatchlistEntry.class));
+    }
+}
@@ -0,0 +1,107 @@
+package com.mymovielist.movieapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mymovielist.movieapp.model.Movie;
+import com.mymovielist.movieapp.model.TmdbPayload;
+import com.mymovielist.movieapp.repository.MovieRepository;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class MovieCatalogServiceTest {
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MovieSearchIndex searchIndex;
+
+    private MovieCatalogService movieCatalog;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        movieCatalog = new MovieCatalogService(movieRepository, mongoTemplate, new ObjectMapper(), searchIndex,
+            Duration.ofDays(7));
+    }
+
+    @Test
+    public void testEnsureIndexes_CreatesTheRefreshAfterIndex() {
+        IndexOperations indexOps = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps(Movie.class)).thenReturn(indexOps);
+
+        MovieCatalogService.ensureIndexes(mongoTemplate);
+
+        ArgumentCaptor<IndexDefinition> index = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOps).ensureIndex(index.capture());
+        assertEquals(new Document("refreshAfter", 1), index.getValue().getIndexKeys());
+    }
+
+    @Test
+    public void testSave_UnchangedContentOnlyTouchesTimestamps() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Movie.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        movieCatalog.save("550", TmdbPayload.of("{\"id\": 550, \"title\": \"Fight Club\"}"));
+
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(Movie.class));
+    }
+
+    @Test
+    public void testSave_NewContentUpsertsAndBumpsVersion() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Movie.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        TmdbPayload payload = TmdbPayload.of("{\"id\": 550, \"title\": \"Fight Club\", \"popularity\": 61.4}");
+
+        movieCatalog.save("550", payload);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(Movie.class));
+        Document updateObject = update.getValue().getUpdateObject();
+        Document set = (Document) updateObject.get("$set");
+        assertEquals("Fight Club", set.get("title"));
+        assertEquals(61.4, set.get("popularity"));
+        assertEquals(payload.getEtag(), set.get("etag"));
+        assertEquals(new Document("version", 1), updateObject.get("$inc"));
+        assertNotNull(((Document) updateObject.get("$setOnInsert")).get("createdAt"));
+        verify(searchIndex, times(1)).add(any(Movie.class));
+    }
+
+    @Test
+    public void testFind_StorageFailureIsAMiss() {
+        when(movieRepository.findById("550")).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertTrue(movieCatalog.find("550").isEmpty());
+    }
+
+    @Test
+    public void testIsStale() {
+        Movie movie = new Movie();
+        movie.setRefreshAfter(Instant.now().plusSeconds(60));
+        assertFalse(movieCatalog.isStale(movie));
+
+        movie.setRefreshAfter(Instant.now().minusSeconds(60));
+        assertTrue(movieCatalog.isStale(movie));
+    }
+}
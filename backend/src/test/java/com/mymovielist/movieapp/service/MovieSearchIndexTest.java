@@ -0,0 +1,126 @@
+package com.mymovielist.movieapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mymovielist.movieapp.model.TmdbPayload;
+import com.mymovielist.movieapp.service.MovieSearchIndex.IndexedMovie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class MovieSearchIndexTest {
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private MovieSearchIndex searchIndex;
+
+    @BeforeEach
+    public void setup() {
+        searchIndex = new MovieSearchIndex(mock(MongoTemplate.class), objectMapper, 1000);
+        searchIndex.add(new IndexedMovie("27205", "Inception", "Inception", "2010-07-15", "/inception.jpg", 90.0));
+        searchIndex.add(new IndexedMovie("157336", "Interstellar", "Interstellar", "2014-11-05", "/interstellar.jpg", 140.0));
+        searchIndex.add(new IndexedMovie("11", "Star Wars", "Star Wars", "1977-05-25", "/starwars.jpg", 80.0));
+        searchIndex.add(new IndexedMovie("1891", "The Empire Strikes Back", "The Empire Strikes Back", "1980-05-20", null, 40.0));
+        searchIndex.add(new IndexedMovie("129", "Spirited Away", "千と千尋の神隠し", "2001-07-20", null, 70.0));
+        searchIndex.add(new IndexedMovie("194", "Amélie", "Le Fabuleux Destin d'Amélie Poulain", "2001-04-25", null, 30.0));
+        searchIndex.rebuild();
+    }
+
+    private List<String> ids(String query) {
+        return searchIndex.search(query, 10).stream().map(IndexedMovie::id).toList();
+    }
+
+    @Test
+    public void testPrefixRankedByPopularity() {
+        assertEquals(List.of("157336", "27205"), ids("in"));
+    }
+
+    @Test
+    public void testMultiTokenPrefix() {
+        assertEquals(List.of("1891"), ids("empire str"));
+        assertEquals(List.of("11"), ids("star w"));
+    }
+
+    @Test
+    public void testTypoTolerance() {
+        assertEquals(List.of("27205"), ids("incpetion"));
+        assertEquals(List.of("157336"), ids("intersteller"));
+        // A prefix match ranks above a more popular fuzzy one ("inte")
+        assertEquals(List.of("27205", "157336"), ids("ince"));
+    }
+
+    @Test
+    public void testExactMatchOutranksFuzzy() {
+        searchIndex.add(new IndexedMovie("1", "Stair", null, null, null, 500.0));
+        searchIndex.rebuild();
+
+        assertEquals("11", ids("star").get(0));
+    }
+
+    @Test
+    public void testAccentsAreFolded() {
+        assertEquals(List.of("194"), ids("amelie"));
+    }
+
+    @Test
+    public void testNoMatch() {
+        assertTrue(ids("zzzz").isEmpty());
+        assertTrue(ids("").isEmpty());
+        assertTrue(searchIndex.searchPayload("zzzz", 10).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSearchPayloadHasTmdbShape() throws IOException {
+        TmdbPayload payload = searchIndex.searchPayload("inception", 1).orElseThrow();
+
+        Map<String, Object> body = objectMapper.readValue(payload.getBody(), Map.class);
+        Map<String, Object> first = ((List<Map<String, Object>>) body.get("results")).get(0);
+        assertEquals(27205, first.get("id"));
+        assertEquals("Inception", first.get("title"));
+        assertEquals("2010-07-15", first.get("release_date"));
+        // Only TMDB knows how many matches there are
+        assertFalse(body.containsKey("total_results"));
+        assertFalse(body.containsKey("total_pages"));
+    }
+
+    @Test
+    public void testSearchPayloadDefersToTmdbWithoutAFullPage() {
+        // One exact hit, but TMDB would have more
+        assertTrue(searchIndex.searchPayload("inception", 10).isEmpty());
+    }
+
+    @Test
+    public void testSearchPayloadDefersToTmdbWithoutAnExactMatch() {
+        // A full page, but only prefix matches
+        assertTrue(searchIndex.searchPayload("in", 2).isEmpty());
+        assertTrue(searchIndex.searchPayload("interstellar", 1).isPresent());
+    }
+
+    @Test
+    public void testSearchPayloadNeedsEveryWordToMatchExactly() {
+        // "empire" is exact but "str" is only a prefix
+        assertTrue(searchIndex.searchPayload("empire str", 1).isEmpty());
+        assertTrue(searchIndex.searchPayload("empire strikes", 1).isPresent());
+        // A stop word alone doesn't vouch for a hit
+        assertTrue(searchIndex.searchPayload("the", 1).isEmpty());
+        assertTrue(searchIndex.searchPayload("the empire", 1).isPresent());
+    }
+
+    @Test
+    public void testAddSearchResultsIsVisibleAfterRebuild() {
+        searchIndex.addSearchResults(TmdbPayload.of(
+            "{\"results\": [{\"id\": 603, \"title\": \"The Matrix\", \"release_date\": \"1999-03-30\", \"popularity\": 85.0}]}"));
+        assertTrue(ids("matrix").isEmpty());
+
+        searchIndex.rebuildIfChanged();
+
+        assertEquals(List.of("603"), ids("matrix"));
+    }
+}
@@ -1,5 +1,8 @@
 package com.mymovielist.movieapp.service;
 
+import com.mymovielist.movieapp.model.Movie;
+import com.mymovielist.movieapp.model.TmdbPayload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,19 +16,47 @@ import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public class MovieServiceTest {
 
     @Mock
     private OkHttpClient mockHttpClient;
 
+    @Mock
+    private MovieCatalogService movieCatalog;
+
+    @Mock
+    private MovieSearchIndex searchIndex;
+
     @InjectMocks
     private MovieService movieService;
 
+    private TmdbResponseCache responseCache;
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
-        movieService = new MovieService(mockHttpClient);
+        responseCache = new TmdbResponseCache(Duration.ofHours(6), Duration.ofHours(6), Duration.ofMinutes(10),
+                1000, 1_000_000, Duration.ofHours(24), meterRegistry);
+        movieService = new MovieService(new TmdbGateway(mockHttpClient,
+                new TmdbResilience(TmdbTestSettings.resilience(), meterRegistry),
+                new TmdbRateLimiter(TmdbTestSettings.rateLimiter(), meterRegistry), "test-key", "https://api.themoviedb.org/3/"), responseCache,
+                new TmdbRequestCoalescer(meterRegistry), movieCatalog, searchIndex);
     }
 
     @Test
@@ -47,13 +78,56 @@ public class MovieServiceTest {
         when(mockCall.execute()).thenReturn(mockResponse);
 
         // When
-        String actualResponse = movieService.getMovieDetails(movieId);
+        TmdbPayload actualResponse = movieService.getMovieDetails(movieId);
+
+        // Then
+        assertEquals(expectedResponse, new String(actualResponse.getBody(), StandardCharsets.UTF_8));
+        verify(mockHttpClient, times(1)).newCall(any(Request.class));
+        verify(movieCatalog, times(1)).save(movieId, actualResponse);
+    }
+
+    @Test
+    public void testGetMovieDetails_FreshCatalogEntrySkipsTmdb() {
+        // Given
+        Movie stored = catalogEntry("550", "{ \"title\": \"Fight Club\" }");
+        when(movieCatalog.find("550")).thenReturn(Optional.of(stored));
+        when(movieCatalog.isStale(stored)).thenReturn(false);
+
+        // When
+        TmdbPayload actualResponse = movieService.getMovieDetails("550");
+
+        // Then
+        assertArrayEquals(stored.getDetails(), actualResponse.getBody());
+        verifyNoInteractions(mockHttpClient);
+        verify(movieCatalog, never()).save(any(), any());
+    }
+
+    @Test
+    public void testGetMovieDetails_StaleCatalogEntryServedWhenTmdbFails() throws IOException {
+        // Given
+        Movie stored = catalogEntry("550", "{ \"title\": \"Fight Club\" }");
+        when(movieCatalog.find("550")).thenReturn(Optional.of(stored));
+        when(movieCatalog.isStale(stored)).thenReturn(true);
+        Call mockCall = mock(Call.class);
+        when(mockHttpClient.newCall(any(Request.class))).thenReturn(mockCall);
+        when(mockCall.execute()).thenThrow(new IOException("Failed to connect to API"));
+
+        // When
+        TmdbPayload actualResponse = movieService.getMovieDetails("550");
 
         // Then
-        assertEquals(expectedResponse, actualResponse);
+        assertArrayEquals(stored.getDetails(), actualResponse.getBody());
         verify(mockHttpClient, times(1)).newCall(any(Request.class));
     }
 
+    private static Movie catalogEntry(String movieId, String json) {
+        Movie movie = new Movie();
+        movie.setId(movieId);
+        movie.setDetails(json.getBytes(StandardCharsets.UTF_8));
+        movie.setFetchedAt(Instant.now());
+        return movie;
+    }
+
     @Test
     public void testGetMovieDetails_Failure() throws IOException {
         // Given
@@ -89,10 +163,10 @@ public class MovieServiceTest {
         when(mockCall.execute()).thenReturn(mockResponse);
 
         // When
-        String actualResponse = movieService.getTrendingMovies();
+        TmdbPayload actualResponse = movieService.getTrendingMovies();
 
         // Then
-        assertEquals(expectedResponse, actualResponse);
+        assertEquals(expectedResponse, new String(actualResponse.getBody(), StandardCharsets.UTF_8));
         verify(mockHttpClient, times(1)).newCall(any(Request.class));
     }
 
@@ -110,4 +184,222 @@ public class MovieServiceTest {
         assertEquals("Failed to fetch trending movies", exception.getMessage());
         verify(mockHttpClient, times(1)).newCall(any(Request.class));
     }
+
+    @Test
+    public void testSearchMovies_EncodesQuery() throws IOException {
+        // Given
+        String expectedResponse = "{ \"results\": [] }";
+
+        Call mockCall = mock(Call.class);
+        when(mockHttpClient.newCall(any(Request.class))).thenAnswer(invocation -> {
+            Request request = invocation.getArgument(0);
+            assertEquals("star wars & co", request.url().queryParameter("query"));
+            assertEquals("test-key", request.url().queryParameter("api_key"));
+            return mockCall;
+        });
+        when(mockCall.execute()).thenReturn(new Response.Builder()
+                .code(200)
+                .message("OK")
+                .protocol(Protocol.HTTP_1_1)
+                .request(new Request.Builder().url("https://api.themoviedb.org/3/search/movie").build())
+                .body(ResponseBody.create(expectedResponse, MediaType.get("application/json")))
+                .build());
+
+        // When
+        TmdbPayload actualResponse = movieService.searchMovies("star wars & co");
+
+        // Then
+        assertEquals(expectedResponse, new String(actualResponse.getBody(), StandardCharsets.UTF_8));
+        verify(searchIndex, times(1)).addSearchResults(actualResponse);
+    }
+
+    @Test
+    public void testSearchMovies_LocalHitSkipsTmdb() {
+        // Given
+        TmdbPayload local = TmdbPayload.of("{ \"results\": [{ \"id\": 27205, \"title\": \"Inception\" }] }");
+        when(searchIndex.searchPayload("incep", 20)).thenReturn(Optional.of(local));
+
+        // When
+        TmdbPayload actualResponse = movieService.searchMovies("incep");
+
+        // Then
+        assertSame(local, actualResponse);
+        verifyNoInteractions(mockHttpClient);
+    }
+
+    @Test
+    public void testGetMovieDetails_ServedFromCache() throws IOException {
+        // Given
+        String movieId = "550";
+        String expectedResponse = "{ \"title\": \"Fight Club\", \"id\": 550 }";
+
+        Call mockCall = mock(Call.class);
+        when(mockHttpClient.newCall(any(Request.class))).thenReturn(mockCall);
+        when(mockCall.execute()).thenReturn(new Response.Builder()
+                .code(200)
+                .message("OK")
+                .protocol(Protocol.HTTP_1_1)
+                .request(new Request.Builder().url("https://api.themoviedb.org/3/movie/" + movieId).build())
+                .body(ResponseBody.create(expectedResponse, MediaType.get("application/json")))
+                .build());
+
+        // When
+        TmdbPayload first = movieService.getMovieDetails(movieId);
+        TmdbPayload second = movieService.getMovieDetails(movieId);
+
+        // Then
+        assertEquals(expectedResponse, new String(first.getBody(), StandardCharsets.UTF_8));
+        assertSame(first, second);
+        verify(mockHttpClient, times(1)).newCall(any(Request.class));
+        assertEquals(1, responseCache.stats().hitCount());
+        assertEquals(1, responseCache.stats().missCount());
+    }
+
+    @Test
+    public void testGetMovieDetails_FailureIsNotCached() throws IOException {
+        // Given
+        Call mockCall = mock(Call.class);
+        when(mockHttpClient.newCall(any(Request.class))).thenReturn(mockCall);
+        when(mockCall.execute()).thenThrow(new IOException("Failed to connect to API"));
+
+        // When
+        assertThrows(RuntimeException.class, () -> movieService.getMovieDetails("550"));
+        assertThrows(RuntimeException.class, () -> movieService.getMovieDetails("550"));
+
+        // Then
+        verify(mockHttpClient, times(2)).newCall(any(Request.class));
+    }
+
+    @Test
+    public void testGetMovieDetails_ConcurrentMissesShareOneCall() throws Exception {
+        // Given
+        String movieId = "550";
+        String expectedResponse = "{ \"title\": \"Fight Club\", \"id\": 550 }";
+        int callers = 8;
+        CountDownLatch release = new CountDownLatch(1);
+
+        Call mockCall = mock(Call.class);
+        when(mockHttpClient.newCall(any(Request.class))).thenReturn(mockCall);
+        when(mockCall.execute()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new Response.Builder()
+                    .code(200)
+                    .message("OK")
+                    .protocol(Protocol.HTTP_1_1)
+                    .request(new Request.Builder().url("https://api.themoviedb.org/3/movie/" + movieId).build())
+                    .body(ResponseBody.create(expectedResponse, MediaType.get("application/json")))
+                    .build();
+        });
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<Future<TmdbPayload>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> movieService.getMovieDetails(movieId)));
+        }
+        while (meterRegistry.counter("tmdb.requests.coalesced", "role", "follower").count()
+                + meterRegistry.counter("tmdb.requests.coalesced", "role", "leader").count() < callers) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        // Then
+        for (Future<TmdbPayload> result : results) {
+            assertEquals(expectedResponse, new String(result.get(5, TimeUnit.SECONDS).getBody(), StandardCharsets.UTF_8));
+        }
+        executor.shutdown();
+        verify(mockHttpClient, times(1)).newCall(any(Request.class));
+        assertEquals(callers - 1, meterRegistry.counter("tmdb.requests.coalesced", "role", "follower").count());
+    }
+
+    @Test
+    public void testGetMovieDetailsAsync_CachedEntrySkipsExecutor() throws Exception {
+        // Given
+        String movieId = "550";
+        String expectedResponse = "{ \"title\": \"Fight Club\", \"id\": 550 }";
+
+        Call mockCall = mock(Call.class);
+        when(mockHttpClient.newCall(any(Request.class))).thenReturn(mockCall);
+        when(mockCall.execute()).thenReturn(new Response.Builder()
+                .code(200)
+                .message("OK")
+                .protocol(Protocol.HTTP_1_1)
+                .request(new Request.Builder().url("https://api.themoviedb.org/3/movie/" + movieId).build())
+                .body(ResponseBody.create(expectedResponse, MediaType.get("application/json")))
+                .build());
+        Executor direct = mock(Executor.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(direct).execute(any(Runnable.class));
+
+        // When
+        TmdbPayload first = movieService.getMovieDetailsAsync(movieId, direct).get(5, TimeUnit.SECONDS);
+        CompletableFuture<TmdbPayload> second = movieService.getMovieDetailsAsync(movieId, direct);
+
+        // Then
+        assertTrue(second.isDone());
+        assertSame(first, second.get());
+        verify(direct, times(1)).execute(any(Runnable.class));
+        verify(mockHttpClient, times(1)).newCall(any(Request.class));
+        assertEquals(1, responseCache.stats().missCount());
+    }
+
+    @Test
+    public void testGetMovieVideos_ExpiredEntryServedWhenTmdbFails() throws Exception {
+        // Given
+        String expectedResponse = "{ \"results\": [] }";
+        MovieService shortLived = withVideosTtl(Duration.ofMillis(1));
+        Call mockCall = mock(Call.class);
+        when(mockHttpClient.newCall(any(Request.class))).thenReturn(mockCall);
+        when(mockCall.execute())
+                .thenReturn(videosResponse(200, expectedResponse))
+                .thenThrow(new IOException("Failed to connect to API"));
+        shortLived.getMovieVideos("550");
+        Thread.sleep(20);
+
+        // When
+        TmdbPayload actualResponse = shortLived.getMovieVideos("550");
+
+        // Then
+        assertEquals(expectedResponse, new String(actualResponse.getBody(), StandardCharsets.UTF_8));
+        verify(mockHttpClient, times(2)).newCall(any(Request.class));
+        assertEquals(1.0, meterRegistry.counter("tmdb.responses.stale").count());
+    }
+
+    @Test
+    public void testGetMovieVideos_NotFoundIsNotServedStale() throws Exception {
+        // Given
+        MovieService shortLived = withVideosTtl(Duration.ofMillis(1));
+        Call mockCall = mock(Call.class);
+        when(mockHttpClient.newCall(any(Request.class))).thenReturn(mockCall);
+        when(mockCall.execute())
+                .thenReturn(videosResponse(200, "{ \"results\": [] }"))
+                .thenReturn(videosResponse(404, "{}"));
+        shortLived.getMovieVideos("550");
+        Thread.sleep(20);
+
+        // When and Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> shortLived.getMovieVideos("550"));
+        assertEquals(404, ((TmdbResponseException) exception.getCause()).getCode());
+    }
+
+    private MovieService withVideosTtl(Duration videosTtl) {
+        TmdbResponseCache cache = new TmdbResponseCache(Duration.ofHours(6), videosTtl, Duration.ofMinutes(10),
+                1000, 1_000_000, Duration.ofHours(24), meterRegistry);
+        return new MovieService(new TmdbGateway(mockHttpClient,
+                new TmdbResilience(TmdbTestSettings.resilience(), meterRegistry),
+                new TmdbRateLimiter(TmdbTestSettings.rateLimiter(), meterRegistry), "test-key",
+                "https://api.themoviedb.org/3/"), cache, new TmdbRequestCoalescer(meterRegistry), movieCatalog, searchIndex);
+    }
+
+    private static Response videosResponse(int code, String body) {
+        return new Response.Builder()
+                .code(code)
+                .message(code == 200 ? "OK" : "Not Found")
+                .protocol(Protocol.HTTP_1_1)
+                .request(new Request.Builder().url("https://api.themoviedb.org/3/movie/550/videos").build())
+                .body(ResponseBody.create(body, MediaType.get("application/json")))
+                .build();
+    }
 }
@@ -0,0 +1,137 @@
+package com.mymovielist.movieapp.service;
+
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.MovieNeighbours;
+import com.mymovielist.movieapp.model.MovieNeighbours.Neighbour;
+import com.mymovielist.movieapp.model.Recommendation;
+import com.mymovielist.movieapp.model.WatchlistSort;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class RecommendationServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private WatchlistStore watchlistStore;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private WatchlistAnalyticsIndex analyticsIndex;
+    private RecommendationService recommendationService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MovieNeighbours.class)).thenReturn(bulkOperations);
+        analyticsIndex = new WatchlistAnalyticsIndex(watchlistStore);
+        recommendationService = new RecommendationService(mongoTemplate, watchlistStore, analyticsIndex,
+            10, 2, 500, 2, 1000, Duration.ofHours(1));
+
+        rate("u1", "A", 10.0);
+        rate("u1", "B", 9.0);
+        rate("u2", "A", 8.0);
+        rate("u2", "B", 8.0);
+        rate("u2", "C", 2.0);
+        rate("u3", "B", 7.0);
+        rate("u3", "C", 9.0);
+        rate("u4", "A", 9.0);
+        rate("u4", "D", 8.0);
+        rate("u4", "E", 0.0);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        recommendationService.shutdown();
+    }
+
+    private void rate(String userId, String movieId, double score) {
+        analyticsIndex.add(userId, new MovieEntry(movieId, "Completed", score));
+    }
+
+    @Test
+    public void testEnsureIndexes_CreatesTheComputedAtIndex() {
+        IndexOperations indexOps = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps(MovieNeighbours.class)).thenReturn(indexOps);
+
+        RecommendationService.ensureIndexes(mongoTemplate);
+
+        ArgumentCaptor<IndexDefinition> index = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOps).ensureIndex(index.capture());
+        assertEquals(new Document("computedAt", 1), index.getValue().getIndexKeys());
+    }
+
+    @Test
+    public void testCosineNeighboursRequireCoRaters() {
+        recommendationService.rebuild();
+
+        // A and B share u1 and u2: (10*9 + 8*8) / (|A| * |B|); C and D each share one user with A
+        List<Neighbour> similarToA = recommendationService.similar("A");
+        assertEquals(1, similarToA.size());
+        assertEquals("B", similarToA.get(0).getMovieId());
+        assertEquals(154 / Math.sqrt(245.0 * 194.0), similarToA.get(0).getSimilarity(), 1e-6);
+
+        List<Neighbour> similarToB = recommendationService.similar("B");
+        assertEquals(List.of("A", "C"), similarToB.stream().map(Neighbour::getMovieId).toList());
+        assertTrue(recommendationService.similar("D").isEmpty());
+        assertTrue(recommendationService.similar("E").isEmpty());
+
+        verify(bulkOperations, times(3)).replaceOne(any(Query.class), any(MovieNeighbours.class), any(FindAndReplaceOptions.class));
+        verify(bulkOperations).execute();
+        verify(mongoTemplate).remove(any(Query.class), eq(MovieNeighbours.class));
+    }
+
+    @Test
+    public void testRecommendFromOwnScoresAndIncrementalUpdates() {
+        recommendationService.rebuild();
+        when(watchlistStore.find("u5", null, WatchlistSort.ADDED))
+            .thenReturn(new ArrayList<>(List.of(new MovieEntry("B", "Completed", 9.0))));
+
+        List<Recommendation> recommendations = recommendationService.recommend("u5", 10);
+        assertEquals(List.of("A", "C"), recommendations.stream().map(Recommendation::getMovieId).toList());
+        assertEquals("B", recommendations.get(0).getBecause());
+
+        // A change is applied to the cached profile without reading the store again
+        recommendationService.onAdd("u5", new MovieEntry("A", "Plan To Watch", 0.0));
+        assertEquals(List.of("C"), recommendationService.recommend("u5", 10).stream()
+            .map(Recommendation::getMovieId).toList());
+
+        recommendationService.onUpdate("u5", "A", 10.0);
+        recommendationService.onRemove("u5", "B");
+        List<Recommendation> updated = recommendationService.recommend("u5", 10);
+        assertEquals(List.of("B"), updated.stream().map(Recommendation::getMovieId).toList());
+        assertEquals("A", updated.get(0).getBecause());
+        verify(watchlistStore, times(1)).find("u5", null, WatchlistSort.ADDED);
+    }
+
+    @Test
+    public void testRecommendLimit() {
+        recommendationService.rebuild();
+        when(watchlistStore.find("u5", null, WatchlistSort.ADDED))
+            .thenReturn(List.of(new MovieEntry("B", "Completed", 9.0)));
+
+        assertEquals(1, recommendationService.recommend("u5", 1).size());
+    }
+}
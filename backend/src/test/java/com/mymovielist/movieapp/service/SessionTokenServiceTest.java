@@ -0,0 +1,86 @@
+package com.mymovielist.movieapp.service;
+
+import com.mymovielist.movieapp.model.SessionPrincipal;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionTokenServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+
+    private final SessionTokenService tokenService =
+        new SessionTokenService(SECRET, false, Duration.ofHours(1), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    public void testRoundTrip() {
+        String token = tokenService.issue(tokenService.principal("u1", "testuser"));
+
+        Optional<SessionPrincipal> principal = tokenService.verify(token);
+
+        assertTrue(principal.isPresent());
+        assertEquals("u1", principal.get().getUserId());
+        assertEquals("testuser", principal.get().getUsername());
+        assertEquals(NOW.plus(Duration.ofHours(1)), principal.get().getExpiresAt());
+    }
+
+    @Test
+    public void testTokensVerifyOnEveryInstanceWithTheSameSecret() {
+        SessionTokenService otherInstance = new SessionTokenService(SECRET, false, Duration.ofHours(1), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertTrue(otherInstance.verify(tokenService.issue(tokenService.principal("u1", "testuser"))).isPresent());
+    }
+
+    @Test
+    public void testRejectsTamperedAndMalformedTokens() {
+        String token = tokenService.issue(tokenService.principal("u1", "testuser"));
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("u2\nadmin\n9999999999".getBytes());
+
+        assertTrue(tokenService.verify(forgedPayload + token.substring(token.indexOf('.'))).isEmpty());
+        assertTrue(tokenService.verify(token + "x").isEmpty());
+        assertTrue(tokenService.verify("not a token").isEmpty());
+        assertTrue(tokenService.verify("%%%.%%%").isEmpty());
+
+        SessionTokenService otherSecret = new SessionTokenService(
+            Base64.getEncoder().encodeToString(new byte[] {1, 2, 3, 4}), false, Duration.ofHours(1), Clock.fixed(NOW, ZoneOffset.UTC));
+        assertTrue(otherSecret.verify(token).isEmpty());
+    }
+
+    @Test
+    public void testRejectsExpiredTokens() {
+        String token = tokenService.issue(tokenService.principal("u1", "testuser"));
+        SessionTokenService later = new SessionTokenService(SECRET, false, Duration.ofHours(1),
+            Clock.fixed(NOW.plus(Duration.ofHours(2)), ZoneOffset.UTC));
+
+        assertTrue(later.verify(token).isEmpty());
+    }
+
+    @Test
+    public void testRejectsTokensOfRevokedUsers() {
+        String deleted = tokenService.issue(tokenService.principal("u1", "testuser"));
+        String other = tokenService.issue(tokenService.principal("u2", "otheruser"));
+
+        tokenService.revoke(List.of("u1"));
+
+        assertTrue(tokenService.verify(deleted).isEmpty());
+        assertTrue(tokenService.verify(other).isPresent());
+    }
+
+    @Test
+    public void testMissingSecretFailsUnlessARandomKeyIsAllowed() {
+        assertThrows(IllegalStateException.class, () -> new SessionTokenService("", false, Duration.ofHours(1)));
+
+        SessionTokenService local = new SessionTokenService("", true, Duration.ofHours(1));
+        assertTrue(local.verify(local.issue(local.principal("u1", "testuser"))).isPresent());
+    }
+}
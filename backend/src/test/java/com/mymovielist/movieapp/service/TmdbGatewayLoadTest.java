@@ -0,0 +1,175 @@
+package com.mymovielist.movieapp.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Blocking TMDB calls against a stub upstream that takes 500 ms per response. 400
+ * concurrent lookups on Tomcat's default 200 platform threads need two full waves;
+ * on virtual threads they all wait at once. The throughput runs are tagged
+ * "benchmark" and only run with {@code mvn -Pbenchmark test} (the virtual-thread one
+ * on a Java 21+ runtime); they assert on the calls in flight at the stub and log
+ * their timings, which depend too much on the machine to assert on.
+ */
+public class TmdbGatewayLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TmdbGatewayLoadTest.class);
+    private static final long UPSTREAM_LATENCY_MS = 500;
+    private static final int CALLS = 400;
+    private static final int PLATFORM_THREADS = 200;
+
+    private HttpServer upstream;
+    private ExecutorService upstreamExecutor;
+    private TmdbGateway gateway;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    @BeforeEach
+    public void setup() throws Exception {
+        upstreamExecutor = Executors.newCachedThreadPool();
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), CALLS * 2);
+        upstream.setExecutor(upstreamExecutor);
+        upstream.createContext("/3/", exchange -> {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(UPSTREAM_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            byte[] body = "{\"id\": 550}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.start();
+
+        OkHttpClient client = new OkHttpClient.Builder()
+            .connectionPool(new ConnectionPool(CALLS, 1, TimeUnit.MINUTES))
+            .readTimeout(Duration.ofSeconds(10))
+            .build();
+        // Bulkhead and request budget wide enough for the whole test, so only the thread pool limits it
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TmdbResilience resilience = new TmdbResilience(
+            TmdbTestSettings.resilience(CALLS, false), meterRegistry);
+        TmdbRateLimiter rateLimiter = new TmdbRateLimiter(
+            TmdbTestSettings.rateLimiter(1_000_000, CALLS * 2), meterRegistry);
+        gateway = new TmdbGateway(client, resilience, rateLimiter, "test-key", "http://127.0.0.1:" + upstream.getAddress().getPort() + "/3/");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        upstream.stop(0);
+        upstreamExecutor.shutdownNow();
+    }
+
+    private void runCalls(String mode, ExecutorService executor) {
+        long started = System.nanoTime();
+        List<CompletableFuture<Void>> calls = new ArrayList<>(CALLS);
+        for (int i = 0; i < CALLS; i++) {
+            calls.add(CompletableFuture.runAsync(() -> {
+                try {
+                    gateway.get("movie/550", Map.of());
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("{}: {} calls at {} ms upstream latency: {} ms, {} calls/s, {} in flight at peak",
+            mode, CALLS, UPSTREAM_LATENCY_MS, elapsedMs, Math.round(CALLS * 1000.0 / elapsedMs), peakInFlight.get());
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testPlatformThreadsCapConcurrency() {
+        ExecutorService executor = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        try {
+            runCalls("platform threads", executor);
+
+            assertTrue(peakInFlight.get() <= PLATFORM_THREADS, peakInFlight.get() + " calls in flight");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testVirtualThreadsAreNotCappedByThePool() {
+        assumeTrue(VirtualThreads.available(), "needs a Java 21+ runtime");
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("load-test-");
+        try {
+            runCalls("virtual threads", executor);
+
+            // Past anything the platform pool can have waiting at once
+            assertTrue(peakInFlight.get() > PLATFORM_THREADS, peakInFlight.get() + " calls in flight");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testVirtualModeMatchesTheRuntime() {
+        assertFalse(VirtualThreads.use(false));
+        assertEquals(VirtualThreads.available(), VirtualThreads.use(true));
+        if (!VirtualThreads.available()) {
+            // Configured on an older runtime, the services keep their platform pools
+            assertThrows(IllegalStateException.class, () -> VirtualThreads.newThreadPerTaskExecutor("load-test-"));
+        }
+    }
+
+    @Test
+    public void testBoundedExecutorLimitsConcurrentCalls() {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger peak = new AtomicInteger();
+            Executor bounded = VirtualThreads.bounded(executor, 3);
+            List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                tasks.add(CompletableFuture.runAsync(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                }, bounded));
+            }
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+
+            assertEquals(3, peak.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
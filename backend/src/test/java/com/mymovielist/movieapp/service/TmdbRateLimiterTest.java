@@ -0,0 +1,134 @@
+package com.mymovielist.movieapp.service;
+
+import com.mymovielist.movieapp.service.TmdbRateLimiter.Limits;
+import com.mymovielist.movieapp.service.TmdbRateLimiter.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TmdbRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TmdbRateLimiter limiter(double permitsPerSecond, int burst, Limits limits) {
+        return new TmdbRateLimiter(new TmdbRateLimiter.Settings(permitsPerSecond, burst, limits, limits, limits),
+                meterRegistry);
+    }
+
+    private static long elapsedMs(long started) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    private CompletableFuture<Void> acquireAsync(TmdbRateLimiter limiter, Priority priority, List<Priority> admitted) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                limiter.acquire(priority);
+                admitted.add(priority);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private static void awaitQueued(TmdbRateLimiter limiter, Priority priority, int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.queued(priority) < depth) {
+            assertTrue(System.nanoTime() < deadline, "nothing queued at " + priority);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void testBurstIsImmediateThenCallsWaitForTheRate() throws Exception {
+        TmdbRateLimiter limiter = limiter(10, 2, new Limits(10, Duration.ofSeconds(2)));
+
+        long started = System.nanoTime();
+        limiter.acquire(Priority.INTERACTIVE);
+        limiter.acquire(Priority.INTERACTIVE);
+        assertTrue(elapsedMs(started) < 50);
+
+        limiter.acquire(Priority.INTERACTIVE);
+        long waited = elapsedMs(started);
+        assertTrue(waited >= 50 && waited < 500, waited + " ms");
+        assertEquals(3, meterRegistry.timer("tmdb.ratelimit.wait", "priority", "interactive").count());
+    }
+
+    @Test
+    public void testHigherPriorityTakesTheNextToken() throws Exception {
+        TmdbRateLimiter limiter = limiter(5, 1, new Limits(10, Duration.ofSeconds(5)));
+        limiter.acquire(Priority.INTERACTIVE);
+        List<Priority> admitted = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<Void> background = acquireAsync(limiter, Priority.BACKGROUND, admitted);
+        awaitQueued(limiter, Priority.BACKGROUND, 1);
+        CompletableFuture<Void> interactive = acquireAsync(limiter, Priority.INTERACTIVE, admitted);
+
+        CompletableFuture.allOf(background, interactive).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(Priority.INTERACTIVE, Priority.BACKGROUND), admitted);
+    }
+
+    @Test
+    public void testFullQueueIsShed() throws Exception {
+        TmdbRateLimiter limiter = limiter(1, 1, new Limits(1, Duration.ofSeconds(30)));
+        limiter.acquire(Priority.BACKGROUND);
+        CompletableFuture<Void> queued = acquireAsync(limiter, Priority.BACKGROUND, new CopyOnWriteArrayList<>());
+        awaitQueued(limiter, Priority.BACKGROUND, 1);
+
+        TmdbUnavailableException shed = assertThrows(TmdbUnavailableException.class,
+                () -> limiter.acquire(Priority.BACKGROUND));
+
+        assertTrue(shed.getRetryAfter().compareTo(Duration.ZERO) > 0);
+        assertEquals(1.0, meterRegistry.counter("tmdb.ratelimit.shed",
+                "priority", "background", "reason", "queue_full").count());
+        queued.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testCallThatCannotBeServedInTimeIsShedWithoutWaiting() throws Exception {
+        TmdbRateLimiter limiter = limiter(1, 1, new Limits(10, Duration.ofMillis(500)));
+        limiter.acquire(Priority.SEARCH);
+
+        long started = System.nanoTime();
+        assertThrows(TmdbUnavailableException.class, () -> limiter.acquire(Priority.SEARCH));
+
+        assertTrue(elapsedMs(started) < 100);
+        assertEquals(1.0, meterRegistry.counter("tmdb.ratelimit.shed",
+                "priority", "search", "reason", "max_wait").count());
+        assertEquals(0, limiter.queued(Priority.SEARCH));
+    }
+
+    @Test
+    public void testBackOffStopsTheRefill() throws Exception {
+        TmdbRateLimiter limiter = limiter(100, 5, new Limits(10, Duration.ofSeconds(2)));
+
+        limiter.backOff(Duration.ofMillis(300));
+        long started = System.nanoTime();
+        limiter.acquire(Priority.INTERACTIVE);
+
+        assertTrue(elapsedMs(started) >= 250, elapsedMs(started) + " ms");
+    }
+
+    @Test
+    public void testTryAcquireNeverWaitsAndDoesNotJumpTheQueue() throws Exception {
+        TmdbRateLimiter limiter = limiter(5, 1, new Limits(10, Duration.ofSeconds(5)));
+
+        assertTrue(limiter.tryAcquire(Priority.INTERACTIVE));
+        long started = System.nanoTime();
+        assertFalse(limiter.tryAcquire(Priority.INTERACTIVE));
+        assertTrue(elapsedMs(started) < 50);
+
+        CompletableFuture<Void> queued = acquireAsync(limiter, Priority.INTERACTIVE, new CopyOnWriteArrayList<>());
+        awaitQueued(limiter, Priority.INTERACTIVE, 1);
+        Thread.sleep(250);
+        // A token has refilled by now, but it belongs to the queued caller
+        assertFalse(limiter.tryAcquire(Priority.BACKGROUND));
+        queued.get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,228 @@
+package com.mymovielist.movieapp.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TmdbResilienceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private HttpServer upstream;
+    private ExecutorService upstreamExecutor;
+    private String baseUrl;
+    // How long the stub sleeps before its next response; reset to 0 once used
+    private final AtomicLong nextDelayMs = new AtomicLong();
+    private final AtomicLong delayMs = new AtomicLong();
+
+    @BeforeEach
+    public void setup() throws Exception {
+        upstreamExecutor = Executors.newCachedThreadPool();
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.setExecutor(upstreamExecutor);
+        upstream.createContext("/3/", exchange -> {
+            try {
+                Thread.sleep(nextDelayMs.getAndSet(0) + delayMs.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"id\": 550}".getBytes(StandardCharsets.UTF_8);
+            try (OutputStream out = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(200, body.length);
+                out.write(body);
+            } catch (Exception e) {
+                // The client gave up on this attempt
+            }
+        });
+        upstream.start();
+        baseUrl = "http://127.0.0.1:" + upstream.getAddress().getPort() + "/3/";
+    }
+
+    @AfterEach
+    public void tearDown() {
+        upstream.stop(0);
+        upstreamExecutor.shutdownNow();
+    }
+
+    private static TmdbResilience.Settings settings(int maxConcurrent, Duration minTimeout, Duration maxTimeout, boolean hedge) {
+        return new TmdbResilience.Settings(maxConcurrent, Duration.ofMillis(10), 10, 4, 0.5, Duration.ofMillis(200), 2,
+                minTimeout, maxTimeout, 2.0, hedge, Duration.ofMillis(50));
+    }
+
+    @Test
+    public void testRouteFoldsMovieIds() {
+        assertEquals("movie/{id}", TmdbResilience.route("movie/550"));
+        assertEquals("movie/{id}", TmdbResilience.route("movie/abc1"));
+        assertEquals("movie/{id}/videos", TmdbResilience.route("movie/550/videos"));
+        assertEquals("search/movie", TmdbResilience.route("search/movie"));
+        assertEquals("trending/movie/week", TmdbResilience.route("trending/movie/week"));
+    }
+
+    @Test
+    public void testUnknownPathsShareOneRoute() {
+        assertEquals("other", TmdbResilience.route("movie/abc1/credits"));
+        assertEquals("other", TmdbResilience.route("tv/1399"));
+        assertEquals("other", TmdbResilience.route("search/abc2"));
+    }
+
+    @Test
+    public void testBreakerOpensThenProbesAndCloses() throws Exception {
+        TmdbResilience resilience = new TmdbResilience(settings(8, Duration.ofMillis(500), Duration.ofSeconds(8), false),
+                meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            try (TmdbResilience.Permit permit = resilience.acquire("movie/" + i)) {
+                permit.failed(false);
+            }
+        }
+        assertEquals(CircuitBreaker.State.OPEN, resilience.state("movie/550"));
+
+        TmdbUnavailableException refused = assertThrows(TmdbUnavailableException.class,
+                () -> resilience.acquire("movie/550"));
+        assertTrue(refused.getRetryAfter().compareTo(Duration.ZERO) > 0);
+        // Other routes are unaffected
+        resilience.acquire("search/movie").close();
+        assertEquals(1.0, meterRegistry.counter("tmdb.resilience.rejected",
+                "route", "movie/{id}", "reason", "circuit_open").count());
+
+        Thread.sleep(250);
+        TmdbResilience.Permit first = resilience.acquire("movie/550");
+        TmdbResilience.Permit second = resilience.acquire("movie/550");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, resilience.state("movie/550"));
+        // Only the configured number of trial calls goes through
+        assertThrows(TmdbUnavailableException.class, () -> resilience.acquire("movie/550"));
+        first.succeeded();
+        first.close();
+        second.succeeded();
+        second.close();
+
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.state("movie/550"));
+        resilience.acquire("movie/550").close();
+    }
+
+    @Test
+    public void testFailedTrialReopensTheBreaker() throws Exception {
+        TmdbResilience resilience = new TmdbResilience(settings(8, Duration.ofMillis(500), Duration.ofSeconds(8), false),
+                meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            resilience.acquire("movie/550").close();
+        }
+        Thread.sleep(250);
+
+        try (TmdbResilience.Permit trial = resilience.acquire("movie/550")) {
+            trial.failed(true);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, resilience.state("movie/550"));
+    }
+
+    @Test
+    public void testFullBulkheadRejectsAfterTheWait() throws Exception {
+        TmdbResilience resilience = new TmdbResilience(settings(2, Duration.ofMillis(500), Duration.ofSeconds(8), false),
+                meterRegistry);
+        TmdbResilience.Permit first = resilience.acquire("movie/1");
+        TmdbResilience.Permit second = resilience.acquire("movie/2");
+
+        assertThrows(TmdbUnavailableException.class, () -> resilience.acquire("movie/3"));
+        assertEquals(1.0, meterRegistry.counter("tmdb.resilience.rejected",
+                "route", "movie/{id}", "reason", "bulkhead_full").count());
+
+        first.succeeded();
+        first.close();
+        resilience.acquire("movie/3").close();
+        second.succeeded();
+        second.close();
+    }
+
+    @Test
+    public void testTimeoutFollowsRecentLatency() throws Exception {
+        TmdbResilience resilience = new TmdbResilience(settings(8, Duration.ofMillis(10), Duration.ofSeconds(8), false),
+                meterRegistry);
+        // No history yet: the configured ceiling
+        try (TmdbResilience.Permit permit = resilience.acquire("movie/550")) {
+            assertEquals(Duration.ofSeconds(8), permit.timeout());
+            permit.succeeded();
+        }
+        for (int i = 0; i < 20; i++) {
+            try (TmdbResilience.Permit permit = resilience.acquire("movie/550")) {
+                Thread.sleep(20);
+                permit.succeeded();
+            }
+        }
+
+        try (TmdbResilience.Permit permit = resilience.acquire("movie/550")) {
+            assertTrue(permit.timeout().compareTo(Duration.ofMillis(40)) >= 0, permit.timeout().toString());
+            assertTrue(permit.timeout().compareTo(Duration.ofSeconds(8)) < 0, permit.timeout().toString());
+            permit.succeeded();
+        }
+    }
+
+    @Test
+    public void testSlowCallTimesOut() {
+        TmdbResilience resilience = new TmdbResilience(settings(8, Duration.ofMillis(100), Duration.ofMillis(300), false),
+                meterRegistry);
+        TmdbGateway gateway = new TmdbGateway(new OkHttpClient(), resilience,
+                new TmdbRateLimiter(TmdbTestSettings.rateLimiter(), meterRegistry), "test-key", baseUrl);
+        delayMs.set(2000);
+
+        long started = System.nanoTime();
+        assertThrows(InterruptedIOException.class, () -> gateway.get("movie/550", Map.of()));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 1500);
+    }
+
+    @Test
+    public void testHedgedAttemptAnswersForASlowCall() throws Exception {
+        TmdbResilience resilience = new TmdbResilience(settings(8, Duration.ofSeconds(1), Duration.ofSeconds(8), true),
+                meterRegistry);
+        TmdbGateway gateway = new TmdbGateway(new OkHttpClient(), resilience,
+                new TmdbRateLimiter(TmdbTestSettings.rateLimiter(), meterRegistry), "test-key", baseUrl);
+        // Latency history, so the route has a hedge delay
+        for (int i = 0; i < 20; i++) {
+            gateway.get("movie/550", Map.of());
+        }
+        nextDelayMs.set(3000);
+
+        long started = System.nanoTime();
+        gateway.get("movie/550", Map.of());
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 1500);
+        assertEquals(1.0, meterRegistry.counter("tmdb.resilience.hedged", "route", "movie/{id}").count());
+    }
+
+    @Test
+    public void testNoHedgeWithoutARateLimitToken() throws Exception {
+        TmdbResilience resilience = new TmdbResilience(settings(8, Duration.ofSeconds(1), Duration.ofSeconds(8), true),
+                meterRegistry);
+        // Enough tokens for the history and the slow call, none left for a hedge
+        TmdbGateway gateway = new TmdbGateway(new OkHttpClient(), resilience,
+                new TmdbRateLimiter(TmdbTestSettings.rateLimiter(0.001, 21), meterRegistry),
+                "test-key", baseUrl);
+        for (int i = 0; i < 20; i++) {
+            gateway.get("movie/550", Map.of());
+        }
+        nextDelayMs.set(300);
+
+        long started = System.nanoTime();
+        gateway.get("movie/550", Map.of());
+
+        // Answered by the slow primary, well after the hedge delay
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) >= 250);
+        assertEquals(0.0, meterRegistry.counter("tmdb.resilience.hedged", "route", "movie/{id}").count());
+    }
+}
@@ -0,0 +1,33 @@
+package com.mymovielist.movieapp.service;
+
+import java.time.Duration;
+
+/**
+ * The tmdb.resilience.* and tmdb.ratelimit.* property defaults, for tests that
+ * build the TMDB gateway by hand.
+ */
+final class TmdbTestSettings {
+
+    private TmdbTestSettings() {
+    }
+
+    static TmdbResilience.Settings resilience() {
+        return resilience(32, true);
+    }
+
+    static TmdbResilience.Settings resilience(int maxConcurrent, boolean hedge) {
+        return new TmdbResilience.Settings(maxConcurrent, Duration.ofMillis(100), 50, 20, 0.5, Duration.ofSeconds(30), 3,
+            Duration.ofMillis(500), Duration.ofSeconds(8), 2.0, hedge, Duration.ofMillis(50));
+    }
+
+    static TmdbRateLimiter.Settings rateLimiter() {
+        return rateLimiter(40, 40);
+    }
+
+    static TmdbRateLimiter.Settings rateLimiter(double permitsPerSecond, int burst) {
+        return new TmdbRateLimiter.Settings(permitsPerSecond, burst,
+            new TmdbRateLimiter.Limits(200, Duration.ofSeconds(2)),
+            new TmdbRateLimiter.Limits(100, Duration.ofSeconds(1)),
+            new TmdbRateLimiter.Limits(50, Duration.ofSeconds(30)));
+    }
+}
@@ -0,0 +1,116 @@
+package com.mymovielist.movieapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mymovielist.movieapp.model.TmdbPayload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TmdbWarmupServiceTest {
+
+    @Mock
+    private MovieService movieService;
+
+    @Mock
+    private TrendingSnapshotService trendingSnapshot;
+
+    @Mock
+    private WatchlistAnalyticsIndex analyticsIndex;
+
+    private TmdbWarmupService warmupService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        warmupService = warmupService(Duration.ofMinutes(5));
+        when(trendingSnapshot.current()).thenReturn(Optional.of(
+                TmdbPayload.of("{\"results\": [{\"id\": 550}, {\"id\": 680}, {\"id\": 13}]}")));
+        when(analyticsIndex.mostWatched(200)).thenReturn(List.of("680", "278"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        warmupService.shutdown();
+    }
+
+    private TmdbWarmupService warmupService(Duration readyTimeout) {
+        return new TmdbWarmupService(movieService, trendingSnapshot, analyticsIndex, new ObjectMapper(),
+                new SimpleMeterRegistry(), true, 200, 4, 0.75, readyTimeout);
+    }
+
+    @Test
+    public void testHotSet_TrendingThenMostWatchedWithoutDuplicates() {
+        assertEquals(List.of("550", "680", "13", "278"), warmupService.hotSet());
+    }
+
+    @Test
+    public void testWarmUp_PrefetchesEveryTitleAndBecomesReady() {
+        assertFalse(warmupService.isReady());
+
+        warmupService.warmUp();
+
+        verify(movieService).prefetch("550");
+        verify(movieService).prefetch("680");
+        verify(movieService).prefetch("13");
+        verify(movieService).prefetch("278");
+        assertEquals(new TmdbWarmupService.Progress(4, 4, 0, false), warmupService.progress());
+        assertTrue(warmupService.isReady());
+    }
+
+    @Test
+    public void testWarmUp_NotReadyBelowTheConfiguredShare() {
+        doThrow(new RuntimeException("Failed to prefetch movie details")).when(movieService).prefetch("13");
+        doThrow(new RuntimeException("Failed to prefetch movie details")).when(movieService).prefetch("278");
+
+        warmupService.warmUp();
+
+        assertEquals(new TmdbWarmupService.Progress(4, 2, 2, false), warmupService.progress());
+        assertFalse(warmupService.isReady());
+    }
+
+    @Test
+    public void testWarmUp_EmptyHotSetIsNotReady() {
+        when(trendingSnapshot.current()).thenReturn(Optional.empty());
+        when(analyticsIndex.mostWatched(200)).thenReturn(List.of());
+
+        warmupService.warmUp();
+
+        assertEquals(0, warmupService.progress().hotSet());
+        assertFalse(warmupService.isReady());
+    }
+
+    @Test
+    public void testWarmUp_NotReadyWithoutTheTrendingList() {
+        when(trendingSnapshot.current()).thenReturn(Optional.empty());
+
+        warmupService.warmUp();
+
+        assertEquals(new TmdbWarmupService.Progress(2, 2, 0, false), warmupService.progress());
+        assertFalse(warmupService.isReady());
+    }
+
+    @Test
+    public void testIsReady_AfterTheReadyTimeoutEvenIfCold() {
+        TmdbWarmupService timedOut = warmupService(Duration.ZERO);
+        try {
+            doThrow(new RuntimeException("Failed to prefetch movie details")).when(movieService).prefetch(anyString());
+
+            timedOut.warmUp();
+
+            assertEquals(0, timedOut.progress().cached());
+            assertTrue(timedOut.isReady());
+        } finally {
+            timedOut.shutdown();
+        }
+    }
+}
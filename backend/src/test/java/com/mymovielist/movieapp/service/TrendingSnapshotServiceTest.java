@@ -0,0 +1,82 @@
+package com.mymovielist.movieapp.service;
+
+import com.mymovielist.movieapp.model.TmdbPayload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TrendingSnapshotServiceTest {
+
+    @Mock
+    private MovieService movieService;
+
+    private TrendingSnapshotService trendingSnapshotService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        trendingSnapshotService = new TrendingSnapshotService(movieService, Duration.ofMinutes(1));
+    }
+
+    @Test
+    public void testCurrent_LoadsOnFirstAccess() {
+        when(movieService.getTrendingMovies()).thenReturn(TmdbPayload.of("{\"results\": []}"));
+
+        Optional<TmdbPayload> first = trendingSnapshotService.current();
+        Optional<TmdbPayload> second = trendingSnapshotService.current();
+
+        assertTrue(first.isPresent());
+        assertSame(first.get(), second.get());
+        verify(movieService, times(1)).getTrendingMovies();
+    }
+
+    @Test
+    public void testRefresh_KeepsLastGoodSnapshotOnFailure() {
+        when(movieService.getTrendingMovies())
+                .thenReturn(TmdbPayload.of("{\"results\": [1]}"))
+                .thenThrow(new RuntimeException("Failed to fetch trending movies"));
+
+        trendingSnapshotService.refresh();
+        trendingSnapshotService.refresh();
+
+        TmdbPayload snapshot = trendingSnapshotService.current().orElseThrow();
+        assertEquals("{\"results\": [1]}", new String(snapshot.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCurrent_EmptyWhenUpstreamNeverAnswered() {
+        when(movieService.getTrendingMovies()).thenThrow(new RuntimeException("Failed to fetch trending movies"));
+
+        assertTrue(trendingSnapshotService.current().isEmpty());
+    }
+
+    @Test
+    public void testCurrent_FailedColdFetchIsNotRepeatedPerCaller() {
+        when(movieService.getTrendingMovies()).thenThrow(new RuntimeException("Failed to fetch trending movies"));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(trendingSnapshotService.current().isEmpty());
+        }
+
+        verify(movieService, times(1)).getTrendingMovies();
+    }
+
+    @Test
+    public void testCurrent_RetriesOnceTheColdRetryHasPassed() {
+        TrendingSnapshotService retrying = new TrendingSnapshotService(movieService, Duration.ZERO);
+        when(movieService.getTrendingMovies())
+                .thenThrow(new RuntimeException("Failed to fetch trending movies"))
+                .thenReturn(TmdbPayload.of("{\"results\": []}"));
+
+        assertTrue(retrying.current().isEmpty());
+        assertTrue(retrying.current().isPresent());
+    }
+}
@@ -0,0 +1,98 @@
+package com.mymovielist.movieapp.service;
+
+import com.mymovielist.movieapp.model.BackgroundJob;
+import com.mymovielist.movieapp.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class UserPurgeServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private UserService userService;
+
+    private UserPurgeService purgeService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        purgeService = new UserPurgeService(mongoTemplate, userService, 2, 0);
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user-" + id);
+        return user;
+    }
+
+    @Test
+    public void testDeletesInBatchesUntilEmpty() {
+        List<User> first = List.of(user("1"), user("2"));
+        List<User> second = List.of(user("3"));
+        when(mongoTemplate.count(any(Query.class), eq(User.class))).thenReturn(3L);
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(first, second, List.of());
+
+        BackgroundJob job = new BackgroundJob("user-purge");
+        purgeService.run(job);
+
+        assertEquals(BackgroundJob.State.COMPLETED, job.getState());
+        assertEquals(3, job.getProcessed());
+        assertEquals(3, job.getTotal());
+        verify(userService).deleteUsers(first);
+        verify(userService).deleteUsers(second);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(3)).find(query.capture(), eq(User.class));
+        assertEquals(2, query.getValue().getLimit());
+        assertFalse(query.getValue().getFieldsObject().containsKey("movieEntries"));
+    }
+
+    @Test
+    public void testCancelStopsAfterCurrentBatch() {
+        BackgroundJob job = new BackgroundJob("user-purge");
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenAnswer(invocation -> {
+            job.requestCancel();
+            return List.of(user("1"), user("2"));
+        });
+
+        purgeService.run(job);
+
+        assertEquals(BackgroundJob.State.CANCELLED, job.getState());
+        assertEquals(2, job.getProcessed());
+        assertNotNull(job.getFinishedAt());
+        verify(userService, times(1)).deleteUsers(anyList());
+    }
+
+    @Test
+    public void testFailureIsRecorded() {
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of(user("1")));
+        doThrow(new IllegalStateException("primary stepped down")).when(userService).deleteUsers(anyList());
+
+        BackgroundJob job = new BackgroundJob("user-purge");
+        purgeService.run(job);
+
+        assertEquals(BackgroundJob.State.FAILED, job.getState());
+        assertEquals("primary stepped down", job.getError());
+    }
+
+    @Test
+    public void testCancelWithoutRunningJob() {
+        assertTrue(purgeService.cancel().isEmpty());
+        assertTrue(purgeService.status().isEmpty());
+    }
+}
@@ -1,19 +1,44 @@
 package com.mymovielist.movieapp.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.MovieEntryPage;
+import com.mymovielist.movieapp.model.Recommendation;
+import com.mymovielist.movieapp.model.SessionPrincipal;
+import com.mymovielist.movieapp.model.UserPage;
+import com.mymovielist.movieapp.model.UserSummary;
 import com.mymovielist.movieapp.model.User;
+import com.mymovielist.movieapp.model.WatchlistOperation;
+import com.mymovielist.movieapp.model.WatchlistOperationResult;
+import com.mymovielist.movieapp.model.WatchlistOperationResult.Outcome;
+import com.mymovielist.movieapp.model.WatchlistSort;
 import com.mymovielist.movieapp.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class UserServiceTest {
@@ -21,6 +46,27 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private WatchlistStore watchlistStore;
+
+    @Mock
+    private WatchlistAnalyticsIndex analyticsIndex;
+
+    @Mock
+    private RecommendationService recommendationService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private AuthenticationService authenticationService;
+
+    @Mock
+    private SessionTokenService sessionTokenService;
+
     @InjectMocks
     private UserService userService;
 
@@ -29,6 +75,13 @@ public class UserServiceTest {
         MockitoAnnotations.openMocks(this);
     }
 
+    private void givenUser(String username, String userId) {
+        User user = new User();
+        user.setId(userId);
+        user.setUsername(username);
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(user);
+    }
+
     @Test
     public void testCreateUser() {
         User user = new User();
@@ -36,84 +89,181 @@ public class UserServiceTest {
         user.setPassword("password");
 
         when(userRepository.save(any(User.class))).thenReturn(user);
+        when(authenticationService.hash("password")).thenReturn("$2a$10$hash");
 
         User createdUser = userService.createUser(user);
 
         assertNotNull(createdUser);
         assertEquals("testuser", createdUser.getUsername());
+        assertEquals("$2a$10$hash", createdUser.getPassword());
         verify(userRepository, times(1)).save(any(User.class));
     }
 
     @Test
     public void testAddMovieToUser() {
-        String username = "testuser";
-        String movieId = "123";
-        User user = new User();
-        user.setUsername(username);
+        givenUser("testuser", "u1");
+        when(watchlistStore.add(eq("u1"), any(MovieEntry.class))).thenReturn(true);
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        assertEquals(Optional.of(true), userService.addMovieToUser("testuser", "123"));
 
-        Optional<User> updatedUser = userService.addMovieToUser(username, movieId);
+        ArgumentCaptor<MovieEntry> entry = ArgumentCaptor.forClass(MovieEntry.class);
+        verify(watchlistStore).add(eq("u1"), entry.capture());
+        assertEquals("123", entry.getValue().getMovieId());
+        assertEquals("Plan To Watch", entry.getValue().getStatus());
+        verify(analyticsIndex).add("u1", entry.getValue());
+        verify(recommendationService).onAdd("u1", entry.getValue());
+        verify(userRepository, never()).save(any(User.class));
+    }
 
-        assertTrue(updatedUser.isPresent());
-        assertEquals(1, updatedUser.get().getMovieEntries().size());
-        assertEquals("123", updatedUser.get().getMovieEntries().get(0).getMovieId());
-        verify(userRepository, times(1)).findByUsername(username);
-        verify(userRepository, times(1)).save(any(User.class));
+    @Test
+    public void testAddMovieToUser_AlreadyInList() {
+        givenUser("testuser", "u1");
+        when(watchlistStore.add(eq("u1"), any(MovieEntry.class))).thenReturn(false);
+
+        assertEquals(Optional.of(false), userService.addMovieToUser("testuser", "123"));
+        verifyNoInteractions(analyticsIndex, recommendationService);
     }
 
     @Test
-    public void testGetUserMovies() {
-        String username = "testuser";
-        User user = new User();
-        user.setUsername(username);
-        user.addMovieEntry(new MovieEntry("123", "Watched", 8.5));
+    public void testGetRecommendations() {
+        givenUser("testuser", "u1");
+        List<Recommendation> recommendations = List.of(new Recommendation("680", 8.1, "550"));
+        when(recommendationService.recommend("u1", 10)).thenReturn(recommendations);
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+        assertEquals(Optional.of(recommendations), userService.getRecommendations("testuser", 10));
+    }
+
+    @Test
+    public void testGetRecommendations_UserNotFound() {
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(null);
+
+        assertTrue(userService.getRecommendations("missing", 10).isEmpty());
+        verifyNoInteractions(recommendationService);
+    }
+
+    @Test
+    public void testAddMovieToUser_UserNotFound() {
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(null);
+
+        assertTrue(userService.addMovieToUser("missing", "123").isEmpty());
+        verify(watchlistStore, never()).add(anyString(), any(MovieEntry.class));
+    }
+
+    @Test
+    public void testResolvedUserIdIsCached() {
+        givenUser("testuser", "u1");
 
-        List<MovieEntry> movieEntries = userService.getUserMovies(username);
+        userService.addMovieToUser("testuser", "1");
+        userService.updateUserMovie("testuser", "1", "Watched", 9.0);
+        userService.removeMovieFromUser("testuser", "1");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(1)).findOne(query.capture(), eq(User.class));
+        assertEquals(1, query.getValue().getFieldsObject().size());
+        verify(watchlistStore).update("u1", "1", "Watched", 9.0);
+        verify(watchlistStore).remove("u1", "1");
+    }
+
+    @Test
+    public void testSessionPrincipalSkipsUserLookup() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(SessionContext.PRINCIPAL_ATTRIBUTE, new SessionPrincipal("u1", "testuser", Instant.MAX));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            assertTrue(userService.addMovieToUser("testuser", "123").isPresent());
+
+            verify(watchlistStore).add(eq("u1"), any(MovieEntry.class));
+            verify(mongoTemplate, never()).findOne(any(Query.class), eq(User.class));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    public void testGetUserMovies() {
+        givenUser("testuser", "u1");
+        when(watchlistStore.find("u1", null, WatchlistSort.ADDED)).thenReturn(List.of(new MovieEntry("123", "Watched", 8.5)));
+
+        List<MovieEntry> movieEntries = userService.getUserMovies("testuser");
 
-        assertNotNull(movieEntries);
         assertEquals(1, movieEntries.size());
         assertEquals("123", movieEntries.get(0).getMovieId());
-        verify(userRepository, times(1)).findByUsername(username);
+        verify(userRepository, never()).findByUsername("testuser");
     }
 
     @Test
-    public void testAuthenticateUser_Success() {
-        String username = "testuser";
-        String password = "password";
+    public void testGetUserMoviesPage_UserNotFound() {
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(null);
+
+        MovieEntryPage page = userService.getUserMoviesPage("missing", null, WatchlistSort.ADDED, null, 10);
+
+        assertTrue(page.getEntries().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    private static User user(String id, String username) {
         User user = new User();
+        user.setId(id);
         user.setUsername(username);
-        user.setPassword(password);
+        user.setEmail(username + "@example.com");
+        return user;
+    }
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+    @Test
+    public void testGetUsersPage() {
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of(
+            user("650000000000000000000001", "a"),
+            user("650000000000000000000002", "b"),
+            user("650000000000000000000003", "c")));
 
-        User authenticatedUser = userService.authenticateUser(username, password);
+        UserPage page = userService.getUsersPage("650000000000000000000000", 2);
 
-        assertNotNull(authenticatedUser);
-        assertEquals("testuser", authenticatedUser.getUsername());
-        verify(userRepository, times(1)).findByUsername(username);
+        assertEquals(List.of("a", "b"), page.getUsers().stream().map(UserSummary::getUsername).toList());
+        assertEquals("650000000000000000000002", page.getNextCursor());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(User.class));
+        assertEquals(3, query.getValue().getLimit());
+        assertFalse(query.getValue().getFieldsObject().containsKey("password"));
+        assertTrue(query.getValue().getQueryObject().containsKey("_id"));
     }
 
     @Test
-    public void testAuthenticateUser_Failure() {
-        String username = "testuser";
-        String password = "wrongpassword";
+    public void testGetUsersPage_LastPage() {
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of(user("650000000000000000000001", "a")));
 
-        when(userRepository.findByUsername(username)).thenReturn(Optional.empty());
+        assertNull(userService.getUsersPage(null, 2).getNextCursor());
+    }
 
-        User authenticatedUser = userService.authenticateUser(username, password);
+    @Test
+    public void testGetUsersPage_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsersPage("not-an-id", 2));
+    }
 
-        assertNull(authenticatedUser);
-        verify(userRepository, times(1)).findByUsername(username);
+    @Test
+    public void testExportUsers() throws Exception {
+        User withSecrets = user("650000000000000000000001", "a");
+        withSecrets.setPassword("secret");
+        when(mongoTemplate.stream(any(Query.class), eq(User.class)))
+            .thenReturn(Stream.of(withSecrets, user("650000000000000000000002", "b")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        userService.exportUsers(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("a", objectMapper.readTree(lines[0]).get("username").asText());
+        assertFalse(lines[0].contains("secret"));
+        assertFalse(lines[0].contains("movieEntries"));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(User.class));
+        assertEquals(Set.of("_id", "username", "email"), query.getValue().getFieldsObject().keySet());
     }
 
     @Test
     public void testDeleteUser() {
         String username = "testuser";
         User user = new User();
+        user.setId("u1");
         user.setUsername(username);
 
         when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
@@ -121,6 +271,69 @@ public class UserServiceTest {
         userService.deleteUser(username);
 
         verify(userRepository, times(1)).findByUsername(username);
+        verify(watchlistStore, times(1)).removeAll("u1");
         verify(userRepository, times(1)).delete(user);
+        verify(analyticsIndex, times(1)).removeUser("u1");
+        verify(authenticationService).evict(List.of(username));
+        verify(sessionTokenService).revoke(List.of("u1"));
+    }
+
+    @Test
+    public void testDeleteUsers() {
+        List<User> users = List.of(user("u1", "a"), user("u2", "b"));
+
+        userService.deleteUsers(users);
+
+        verify(watchlistStore).removeAll(List.of("u1", "u2"));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(query.capture(), eq(User.class));
+        assertTrue(query.getValue().getQueryObject().toString().contains("$in"));
+        verify(analyticsIndex).removeUsers(List.of("u1", "u2"));
+        verify(recommendationService).removeUsers(List.of("u1", "u2"));
+        verify(authenticationService).evict(List.of("a", "b"));
+        verify(sessionTokenService).revoke(List.of("u1", "u2"));
+        verify(userRepository, never()).deleteAll();
+    }
+
+    @Test
+    public void testApplyWatchlistBatch() {
+        givenUser("testuser", "u1");
+        WatchlistStore.Batch batch = mock(WatchlistStore.Batch.class);
+        when(watchlistStore.findPresent(eq("u1"), anyCollection())).thenReturn(Set.of("1"));
+        when(watchlistStore.batch("u1")).thenReturn(batch);
+
+        Optional<List<WatchlistOperationResult>> results = userService.applyWatchlistBatch("testuser", List.of(
+            new WatchlistOperation(WatchlistOperation.Type.ADD, "1", null, null),
+            new WatchlistOperation(WatchlistOperation.Type.ADD, "2", null, null),
+            new WatchlistOperation(WatchlistOperation.Type.UPDATE, "2", "Watched", 7.5),
+            new WatchlistOperation(WatchlistOperation.Type.REMOVE, "3", null, null),
+            new WatchlistOperation(WatchlistOperation.Type.UPDATE, "1", null, null),
+            new WatchlistOperation(WatchlistOperation.Type.REMOVE, "1", null, null)));
+
+        assertTrue(results.isPresent());
+        assertEquals(List.of(Outcome.ALREADY_PRESENT, Outcome.ADDED, Outcome.UPDATED, Outcome.NOT_IN_LIST,
+                Outcome.INVALID, Outcome.REMOVED),
+            results.get().stream().map(WatchlistOperationResult::getOutcome).toList());
+        verify(batch).add(any(MovieEntry.class));
+        verify(batch).update("2", "Watched", 7.5);
+        verify(batch).remove("1");
+        verify(batch, times(1)).execute();
+        verify(watchlistStore, never()).add(anyString(), any(MovieEntry.class));
+        verify(analyticsIndex).add(eq("u1"), any(MovieEntry.class));
+        verify(analyticsIndex).update("u1", "2", "Watched", 7.5);
+        verify(analyticsIndex).remove("u1", "1");
+        verify(recommendationService).onUpdate("u1", "2", 7.5);
+        verify(recommendationService).onRemove("u1", "1");
+    }
+
+    @Test
+    public void testApplyWatchlistBatch_UserNotFound() {
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(null);
+
+        Optional<List<WatchlistOperationResult>> results = userService.applyWatchlistBatch("missing",
+            List.of(new WatchlistOperation(WatchlistOperation.Type.ADD, "1", null, null)));
+
+        assertTrue(results.isEmpty());
+        verify(watchlistStore, never()).batch(anyString());
     }
 }
@@ -0,0 +1,195 @@
+package com.mymovielist.movieapp.service;
+
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.MovieStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class WatchlistAnalyticsIndexTest {
+
+    @Mock
+    private WatchlistStore watchlistStore;
+
+    private WatchlistAnalyticsIndex analyticsIndex;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        analyticsIndex = new WatchlistAnalyticsIndex(watchlistStore);
+    }
+
+    @Test
+    public void testCountsHistogramAndStatuses() {
+        analyticsIndex.add("u1", new MovieEntry("550", "Completed", 9.0));
+        analyticsIndex.add("u2", new MovieEntry("550", "Completed", 7.0));
+        analyticsIndex.add("u3", new MovieEntry("550", "Plan To Watch", 0.0));
+        analyticsIndex.add("u1", new MovieEntry("550", "Dropped", 1.0));
+
+        MovieStats stats = analyticsIndex.stats("550");
+
+        assertEquals(3, stats.getWatchers());
+        assertEquals(8.0, stats.getAverageScore(), 1e-6);
+        assertEquals(1, stats.getScoreHistogram()[0]);
+        assertEquals(1, stats.getScoreHistogram()[7]);
+        assertEquals(1, stats.getScoreHistogram()[9]);
+        assertEquals(Map.of("Completed", 2, "Plan To Watch", 1), stats.getStatusBreakdown());
+    }
+
+    @Test
+    public void testUpdateAndRemoveAdjustAggregates() {
+        analyticsIndex.add("u1", new MovieEntry("550", "Plan To Watch", 0.0));
+        analyticsIndex.add("u2", new MovieEntry("550", "Plan To Watch", 0.0));
+
+        analyticsIndex.update("u1", "550", "Completed", 6.0);
+        analyticsIndex.update("u3", "550", "Completed", 10.0);
+        analyticsIndex.remove("u2", "550");
+
+        MovieStats stats = analyticsIndex.stats("550");
+        assertEquals(1, stats.getWatchers());
+        assertEquals(6.0, stats.getAverageScore(), 1e-6);
+        assertEquals(Map.of("Completed", 1), stats.getStatusBreakdown());
+        assertEquals(0, stats.getScoreHistogram()[0]);
+    }
+
+    @Test
+    public void testRemoveUserAndSlotReuse() {
+        analyticsIndex.add("u1", new MovieEntry("1", "Completed", 5.0));
+        analyticsIndex.add("u1", new MovieEntry("2", "Completed", 5.0));
+        analyticsIndex.add("u2", new MovieEntry("2", "Completed", 5.0));
+
+        analyticsIndex.removeUser("u1");
+        analyticsIndex.add("u3", new MovieEntry("1", "Dropped", 2.0));
+
+        assertEquals(1, analyticsIndex.stats("1").getWatchers());
+        assertEquals(Map.of("Dropped", 1), analyticsIndex.stats("1").getStatusBreakdown());
+        assertEquals(1, analyticsIndex.stats("2").getWatchers());
+    }
+
+    @Test
+    public void testRemoveUsers() {
+        analyticsIndex.add("u1", new MovieEntry("1", "Completed", 5.0));
+        analyticsIndex.add("u2", new MovieEntry("1", "Completed", 5.0));
+        analyticsIndex.add("u3", new MovieEntry("1", "Completed", 5.0));
+
+        analyticsIndex.removeUsers(List.of("u1", "u3", "unknown"));
+
+        assertEquals(1, analyticsIndex.stats("1").getWatchers());
+    }
+
+    @Test
+    public void testRemovedUserIdsAreReused() {
+        analyticsIndex.add("u1", new MovieEntry("1", "Completed", 5.0));
+        analyticsIndex.add("u2", new MovieEntry("1", "Completed", 7.0));
+
+        analyticsIndex.removeUser("u1");
+        analyticsIndex.add("u3", new MovieEntry("2", "Completed", 9.0));
+
+        RatingMatrix ratings = analyticsIndex.ratings();
+        assertEquals(2, ratings.userCount());
+        assertEquals(2, ratings.size());
+        // The reused ID carries none of the removed user's entries
+        assertEquals(1, analyticsIndex.stats("1").getWatchers());
+        analyticsIndex.remove("u1", "2");
+        assertEquals(1, analyticsIndex.stats("2").getWatchers());
+    }
+
+    @Test
+    public void testManyUsersSurviveRemovalsAndGrowth() {
+        for (int user = 0; user < 5_000; user++) {
+            analyticsIndex.add("user-" + user, new MovieEntry("1", "Completed", 8.0));
+        }
+        List<String> removed = new ArrayList<>();
+        for (int user = 0; user < 5_000; user += 2) {
+            removed.add("user-" + user);
+        }
+        analyticsIndex.removeUsers(removed);
+        for (int user = 1; user < 5_000; user += 2) {
+            // Already present: must still be found after the backward-shift deletes
+            analyticsIndex.add("user-" + user, new MovieEntry("1", "Completed", 8.0));
+        }
+
+        assertEquals(2_500, analyticsIndex.stats("1").getWatchers());
+
+        // New users take the freed IDs instead of growing the ID space
+        for (int user = 0; user < 2_500; user++) {
+            analyticsIndex.add("new-" + user, new MovieEntry("2", "Completed", 6.0));
+        }
+        assertEquals(5_000, analyticsIndex.ratings().userCount());
+        assertEquals(2_500, analyticsIndex.stats("2").getWatchers());
+    }
+
+    @Test
+    public void testUnknownMovie() {
+        MovieStats stats = analyticsIndex.stats("missing");
+
+        assertEquals(0, stats.getWatchers());
+        assertNull(stats.getAverageScore());
+    }
+
+    @Test
+    public void testMostWatched() {
+        for (int user = 0; user < 5; user++) {
+            analyticsIndex.add("u" + user, new MovieEntry("popular", "Completed", 8.0));
+        }
+        analyticsIndex.add("u1", new MovieEntry("niche", "Completed", 8.0));
+        analyticsIndex.add("u2", new MovieEntry("niche", "Completed", 8.0));
+        analyticsIndex.add("u3", new MovieEntry("single", "Completed", 8.0));
+
+        assertEquals(List.of("popular", "niche"), analyticsIndex.mostWatched(2));
+    }
+
+    @Test
+    public void testGrowsPastInitialCapacity() {
+        for (int i = 0; i < 5000; i++) {
+            analyticsIndex.add("u" + (i % 700), new MovieEntry("m" + i, "Completed", (double) (i % 10)));
+        }
+
+        assertEquals(1, analyticsIndex.stats("m4999").getWatchers());
+        assertEquals(9.0, analyticsIndex.stats("m4999").getAverageScore(), 1e-6);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRebuildReplacesStateFromStore() {
+        analyticsIndex.add("stale", new MovieEntry("550", "Completed", 5.0));
+        doAnswer(invocation -> {
+            BiConsumer<String, MovieEntry> consumer = invocation.getArgument(0);
+            consumer.accept("u1", new MovieEntry("550", "Completed", 9.0));
+            consumer.accept("u2", new MovieEntry("550", "Watching", null));
+            return null;
+        }).when(watchlistStore).forEachEntry(any(BiConsumer.class));
+
+        analyticsIndex.rebuild();
+
+        MovieStats stats = analyticsIndex.stats("550");
+        assertEquals(2, stats.getWatchers());
+        assertEquals(9.0, stats.getAverageScore(), 1e-6);
+    }
+
+    @Test
+    public void testLongIntMapRemoveKeepsProbeChains() {
+        LongIntMap map = new LongIntMap(4);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i * 31L, i);
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertEquals(i, map.remove(i * 31L));
+        }
+
+        assertEquals(500, map.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 0 ? -1 : i, map.get(i * 31L));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.mymovielist.movieapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mymovielist.movieapp.model.HydratedMovieEntry;
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.TmdbPayload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class WatchlistHydrationServiceTest {
+
+    @Mock
+    private MovieService movieService;
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private WatchlistHydrationService hydrationService;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        hydrationService = new WatchlistHydrationService(movieService, objectMapper, 4, false);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        hydrationService.shutdown();
+    }
+
+    @Test
+    public void testHydrate_JoinsDetails() {
+        when(movieService.getMovieDetailsAsync(eq("550"), any(Executor.class))).thenReturn(CompletableFuture.completedFuture(
+            TmdbPayload.of("{\"id\": 550, \"title\": \"Fight Club\", \"poster_path\": \"/poster.jpg\", \"runtime\": 139,"
+                + " \"genres\": [{\"id\": 18, \"name\": \"Drama\"}], \"production_countries\": [{\"iso_3166_1\": \"US\"}]}")));
+
+        HydratedMovieEntry entry = hydrationService.hydrate(List.of(new MovieEntry("550", "Watched", 9.0))).get(0).join();
+
+        assertTrue(entry.isHydrated());
+        assertEquals("Fight Club", entry.getTitle());
+        assertEquals("/poster.jpg", entry.getPosterPath());
+        assertEquals(139, entry.getRuntime());
+        assertEquals("Drama", entry.getGenre());
+        assertEquals("US", entry.getCountry());
+        assertEquals(9.0, entry.getScore());
+    }
+
+    @Test
+    public void testHydrate_FailedLookupStillReturnsEntry() {
+        when(movieService.getMovieDetailsAsync(eq("550"), any(Executor.class)))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Failed to fetch movie details")));
+
+        HydratedMovieEntry entry = hydrationService.hydrate(List.of(new MovieEntry("550", "Watched", 9.0))).get(0).join();
+
+        assertFalse(entry.isHydrated());
+        assertEquals("550", entry.getMovieId());
+        assertNull(entry.getTitle());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWriteHydrated_KeepsListOrder() throws IOException {
+        CompletableFuture<TmdbPayload> slow = new CompletableFuture<>();
+        when(movieService.getMovieDetailsAsync(eq("1"), any(Executor.class))).thenReturn(slow);
+        when(movieService.getMovieDetailsAsync(eq("2"), any(Executor.class)))
+            .thenReturn(CompletableFuture.completedFuture(TmdbPayload.of("{\"title\": \"Second\"}")));
+        CompletableFuture.runAsync(() -> slow.complete(TmdbPayload.of("{\"title\": \"First\"}")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        hydrationService.writeHydrated(List.of(new MovieEntry("1", null, null), new MovieEntry("2", null, null)), out);
+
+        List<Map<String, Object>> body = objectMapper.readValue(out.toByteArray(), List.class);
+        assertEquals(List.of("First", "Second"), body.stream().map(row -> row.get("title")).toList());
+    }
+
+    @Test
+    public void testWriteHydrated_CancelsQueuedLookupsWhenTheClientGoesAway() {
+        CompletableFuture<TmdbPayload> queued = new CompletableFuture<>();
+        when(movieService.getMovieDetailsAsync(eq("1"), any(Executor.class)))
+            .thenReturn(CompletableFuture.completedFuture(TmdbPayload.of("{\"title\": \"First\"}")));
+        when(movieService.getMovieDetailsAsync(eq("2"), any(Executor.class))).thenReturn(queued);
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () -> hydrationService.writeHydrated(
+            List.of(new MovieEntry("1", null, null), new MovieEntry("2", null, null)), disconnected));
+
+        assertTrue(queued.isCancelled());
+    }
+}
@@ -0,0 +1,117 @@
+package com.mymovielist.movieapp.service;
+
+import com.mymovielist.movieapp.model.BackgroundJob;
+import com.mymovielist.movieapp.model.MovieEntry;
+import com.mymovielist.movieapp.model.User;
+import com.mymovielist.movieapp.model.WatchlistEntry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class WatchlistMigrationServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulk;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        MongoConverter converter = mock(MongoConverter.class);
+        doReturn(new MongoMappingContext()).when(converter).getMappingContext();
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.indexOps(WatchlistEntry.class)).thenReturn(mock(IndexOperations.class));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WatchlistEntry.class)).thenReturn(bulk);
+    }
+
+    private static User user(String id, List<MovieEntry> entries) {
+        User user = new User();
+        user.setId(id);
+        user.setMovieEntries(entries == null ? null : new ArrayList<>(entries));
+        return user;
+    }
+
+    private void givenUsers(User... users) {
+        when(mongoTemplate.count(any(Query.class), eq(User.class))).thenReturn((long) users.length);
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of(users), List.of());
+    }
+
+    @Test
+    public void testRun_DeletesRowsMissingFromTheEmbeddedArray() {
+        MovieEntry stamped = new MovieEntry("1", "Watched", 8.0);
+        stamped.setAddedAt(1_700_000_000_000L);
+        givenUsers(user("u1", List.of(stamped, new MovieEntry("2", "Plan To Watch", null))));
+        BackgroundJob job = new BackgroundJob("watchlist-migration");
+
+        new WatchlistMigrationService(mongoTemplate, 500, "embedded").run(job);
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(bulk).remove(removed.capture());
+        assertEquals(new Document("userId", "u1").append("movieId", new Document("$nin", List.of("1", "2"))),
+            removed.getValue().getQueryObject());
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).upsert(any(Query.class), updates.capture());
+        assertEquals(new Document("status", "Watched").append("score", 8.0).append("addedAt", 1_700_000_000_000L),
+            updates.getAllValues().get(0).getUpdateObject().get("$set"));
+        // Not stamped yet: the array index keeps it in place
+        assertEquals(1L, ((Document) updates.getAllValues().get(1).getUpdateObject().get("$set")).get("addedAt"));
+        verify(bulk).execute();
+        assertEquals(BackgroundJob.State.COMPLETED, job.getState());
+        assertEquals(1, job.getProcessed());
+    }
+
+    @Test
+    public void testRun_UserWithoutEntriesLosesAllRows() {
+        givenUsers(user("u1", null));
+
+        new WatchlistMigrationService(mongoTemplate, 500, "embedded").run(new BackgroundJob("watchlist-migration"));
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(bulk).remove(removed.capture());
+        assertEquals(new Document("$nin", List.of()), removed.getValue().getQueryObject().get("movieId"));
+        verify(bulk, never()).upsert(any(Query.class), any(Update.class));
+        verify(bulk).execute();
+    }
+
+    @Test
+    public void testRun_CopiesWhileDualWriting() {
+        givenUsers(user("u1", List.of(new MovieEntry("1", "Watched", 8.0))));
+        BackgroundJob job = new BackgroundJob("watchlist-migration");
+
+        new WatchlistMigrationService(mongoTemplate, 500, "migrating").run(job);
+
+        verify(bulk).execute();
+        assertEquals(BackgroundJob.State.COMPLETED, job.getState());
+    }
+
+    @Test
+    public void testRun_RefusesOnceTheCollectionIsTheSource() {
+        givenUsers(user("u1", List.of(new MovieEntry("1", "Watched", 8.0))));
+        BackgroundJob job = new BackgroundJob("watchlist-migration");
+
+        new WatchlistMigrationService(mongoTemplate, 500, "collection").run(job);
+
+        assertEquals(BackgroundJob.State.FAILED, job.getState());
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(WatchlistEntry.class));
+    }
+}
@@ -21,7 +21,7 @@ const LoginModal: React.FC<LoginModalProps> = ({ isOpen, onClose, onLogin }) =>
         if (isLoginMode) {
           const response = await axios.post('https://mymovielist-backend-321e199cbab8.herokuapp.com/api/users/login', { username, password });
           if (response.data.success) {
-            login(username);
+            login(username, response.data.token);
             onClose();
           } else {
             alert('Login failed. Please try again.');
@@ -1,24 +1,63 @@
-import React, { createContext, useState, useContext, ReactNode } from 'react';
+import React, { createContext, useState, useContext, useRef, ReactNode } from 'react';
+import axios from 'axios';
 
 interface UserContextType {
   isLoggedIn: boolean;
   username: string | null;
-  login: (username: string) => void;
+  login: (username: string, token?: string) => void;
   logout: () => void;
 }
 
 const UserContext = createContext<UserContextType | undefined>(undefined);
 
+// The session token is only for our backend, never for third parties such as TMDB
+const BACKEND_URL = 'https://mymovielist-backend-321e199cbab8.herokuapp.com/';
+
 export const UserProvider: React.FC<{ children: ReactNode }> = ({ children }) => {
   const [isLoggedIn, setIsLoggedIn] = useState(false);
   const [username, setUsername] = useState<string | null>(null);
+  const authInterceptor = useRef<number | null>(null);
+  const rejectedInterceptor = useRef<number | null>(null);
+
+  const clearToken = () => {
+    if (authInterceptor.current !== null) {
+      axios.interceptors.request.eject(authInterceptor.current);
+      authInterceptor.current = null;
+    }
+    if (rejectedInterceptor.current !== null) {
+      axios.interceptors.response.eject(rejectedInterceptor.current);
+      rejectedInterceptor.current = null;
+    }
+  };
 
-  const login = (username: string) => {
+  const login = (username: string, token?: string) => {
+    // The session token lets the backend skip the username lookup on every request
+    clearToken();
+    if (token) {
+      authInterceptor.current = axios.interceptors.request.use((config) => {
+        if (config.url?.startsWith(BACKEND_URL)) {
+          config.headers.Authorization = `Bearer ${token}`;
+        }
+        return config;
+      });
+      // A 401 means the backend no longer accepts the token (expired, revoked or signed
+      // with another key): drop it and retry once without it
+      rejectedInterceptor.current = axios.interceptors.response.use(undefined, (error) => {
+        const config = error.config;
+        if (error.response?.status === 401 && config?.url?.startsWith(BACKEND_URL) && config.headers?.Authorization) {
+          clearToken();
+          delete config.headers.Authorization;
+          return axios(config);
+        }
+        return Promise.reject(error);
+      });
+    }
     setIsLoggedIn(true);
     setUsername(username);
   };
 
   const logout = () => {
+    clearToken();
     setIsLoggedIn(false);
     setUsername(null);
   };
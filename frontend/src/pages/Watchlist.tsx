@@ -86,28 +86,23 @@ const Watchlist: React.FC = () => {
 
     const fetchUserMovies = async () => {
         try {
-            const response = await axios.get(`https://mymovielist-backend-321e199cbab8.herokuapp.com/api/users/${username}/movies`);
-            const movieEntries = response.data;
-            const movieDetails = await Promise.all(movieEntries.map(fetchMovieDetails));
-            setMovies(movieDetails);
+            // One request: the backend joins every entry with its movie details
+            const response = await axios.get(`https://mymovielist-backend-321e199cbab8.herokuapp.com/api/users/${username}/movies/hydrated`);
+            setMovies(response.data.map(toMovie));
         } catch (error) {
             console.error('Error fetching user movies:', error);
         }
     };
 
-    const fetchMovieDetails = async (movieEntry: any) => {
-        const response = await axios.get(`https://mymovielist-backend-321e199cbab8.herokuapp.com/api/movies/${movieEntry.movieId}`);
-        const movieData = response.data;
-        return {
-            id: movieData.id,
-            title: movieData.original_title,
-            country: movieData.production_countries[0]?.iso_3166_1 || 'Unknown',
-            year: new Date(movieData.release_date).getFullYear(),
-            type: movieData.genres[0]?.name || 'Unknown',
-            score: movieEntry.score,
-            status: movieEntry.status
-        };
-    };
+    const toMovie = (entry: any): Movie => ({
+        id: Number(entry.movieId),
+        title: entry.originalTitle || entry.title || 'Unknown',
+        country: entry.country || 'Unknown',
+        year: new Date(entry.releaseDate).getFullYear(),
+        type: entry.genre || 'Unknown',
+        score: entry.score,
+        status: entry.status
+    });
 
     const handleAddOrUpdateMovie = async (status: string, score: number) => {
         if (!selectedMovie) return;